@@ -23,7 +23,7 @@ import org.eclipse.sirius.web.core.api.IPayload;
 import org.eclipse.sirius.web.graphql.messages.IGraphQLMessageService;
 import org.eclipse.sirius.web.graphql.schema.MutationTypeProvider;
 import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
-import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
 import org.eclipse.sirius.web.spring.collaborative.api.IEditingContextEventProcessorRegistry;
 import org.eclipse.sirius.web.spring.collaborative.dto.DeleteRepresentationInput;
 import org.eclipse.sirius.web.spring.collaborative.dto.DeleteRepresentationSuccessPayload;
@@ -82,12 +82,12 @@ public class MutationDeleteRepresentationDataFetcher implements IDataFetcherWith
 
         IPayload payload = new ErrorPayload(input.getId(), this.messageService.unexpectedError());
 
-        var optionalRepresentation = this.representationService.getRepresentation(input.getRepresentationId());
-        if (optionalRepresentation.isPresent()) {
-            RepresentationDescriptor representation = optionalRepresentation.get();
+        var optionalRepresentationMetadata = this.representationService.getRepresentationMetadata(input.getRepresentationId());
+        if (optionalRepresentationMetadata.isPresent()) {
+            RepresentationMetadata representationMetadata = optionalRepresentationMetadata.get();
 
             // @formatter:off
-            payload = this.editingContextEventProcessorRegistry.dispatchEvent(representation.getProjectId(), input)
+            payload = this.editingContextEventProcessorRegistry.dispatchEvent(representationMetadata.getProjectId(), input)
                     .orElse(new ErrorPayload(input.getId(), this.messageService.unexpectedError()));
             // @formatter:on
         }
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.entities;
+
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Event published once an account has been updated or deleted.
+ *
+ * @author sbegaudeau
+ */
+public class AccountChangedEvent {
+
+    private final UUID accountId;
+
+    public AccountChangedEvent(UUID accountId) {
+        this.accountId = Objects.requireNonNull(accountId);
+    }
+
+    public UUID getAccountId() {
+        return this.accountId;
+    }
+
+    @Override
+    public String toString() {
+        String pattern = "{0} '{'accountId: {1}'}'"; //$NON-NLS-1$
+        return MessageFormat.format(pattern, this.getClass().getSimpleName(), this.accountId);
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.entities;
+
+import java.util.Objects;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Entity listener publishing an {@link AccountChangedEvent} once an account has been updated or deleted, in order to
+ * let the data derived from the accounts, such as the cached authentications, be invalidated.
+ *
+ * <p>
+ * This listener is instantiated by Spring, which is used by Hibernate as its bean container.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class AccountEntityListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public AccountEntityListener(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = Objects.requireNonNull(applicationEventPublisher);
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void accountChanged(AccountEntity accountEntity) {
+        this.applicationEventPublisher.publishEvent(new AccountChangedEvent(accountEntity.getId()));
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ package org.eclipse.sirius.web.persistence.entities;
 import java.text.MessageFormat;
 import java.util.UUID;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -23,6 +24,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.ColumnTransformer;
+
 /**
  * Document entity used by the persistence layer.
  *
@@ -42,8 +45,13 @@ public class DocumentEntity {
 
     private String name;
 
+    @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String content;
 
+    @Column(name = "content_hash")
+    private String contentHash;
+
     public UUID getId() {
         return this.id;
     }
@@ -76,6 +84,14 @@ public class DocumentEntity {
         this.content = content;
     }
 
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     @Override
     public String toString() {
         String pattern = "{0} '{'id: {1}, name: {2}'}'"; //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ package org.eclipse.sirius.web.persistence.entities;
 import java.text.MessageFormat;
 import java.util.UUID;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -40,10 +41,20 @@ public class RepresentationEntity {
 
     private String label;
 
+    private String kind;
+
+    @Column(name = "description_id")
+    private String descriptionId;
+
     private String contentType;
 
+    private String format;
+
     private String content;
 
+    @Column(name = "binary_content")
+    private byte[] binaryContent;
+
     public UUID getId() {
         return this.id;
     }
@@ -76,6 +87,22 @@ public class RepresentationEntity {
         this.label = label;
     }
 
+    public String getKind() {
+        return this.kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getDescriptionId() {
+        return this.descriptionId;
+    }
+
+    public void setDescriptionId(String descriptionId) {
+        this.descriptionId = descriptionId;
+    }
+
     public String getContentType() {
         return this.contentType;
     }
@@ -84,6 +111,14 @@ public class RepresentationEntity {
         this.contentType = contentType;
     }
 
+    public String getFormat() {
+        return this.format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
     public String getContent() {
         return this.content;
     }
@@ -92,9 +127,17 @@ public class RepresentationEntity {
         this.content = content;
     }
 
+    public byte[] getBinaryContent() {
+        return this.binaryContent;
+    }
+
+    public void setBinaryContent(byte[] binaryContent) {
+        this.binaryContent = binaryContent;
+    }
+
     @Override
     public String toString() {
-        String pattern = "{0} '{'id: {1}, targetObjectId: {2}, label: {3}, contentType: {4}'}'"; //$NON-NLS-1$
-        return MessageFormat.format(pattern, this.getClass().getSimpleName(), this.id, this.targetObjectId, this.label, this.contentType);
+        String pattern = "{0} '{'id: {1}, targetObjectId: {2}, label: {3}, kind: {4}, contentType: {5}, format: {6}'}'"; //$NON-NLS-1$
+        return MessageFormat.format(pattern, this.getClass().getSimpleName(), this.id, this.targetObjectId, this.label, this.kind, this.contentType, this.format);
     }
 }
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.projections;
+
+/**
+ * Projection used to retrieve the size of the contents of some documents, before and after their compression by the
+ * database.
+ *
+ * @author sbegaudeau
+ */
+public interface IDocumentContentSizes {
+    /**
+     * Returns the size of the contents once serialized as JSON.
+     *
+     * @return The size of the contents in bytes
+     */
+    long getContentSize();
+
+    /**
+     * Returns the size used by the database to store the contents, once compressed.
+     *
+     * @return The size of the stored contents in bytes
+     */
+    long getStoredSize();
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.projections;
+
+/**
+ * Projection used to retrieve the metadata of a document without its content.
+ *
+ * @author sbegaudeau
+ */
+public interface IDocumentMetadata {
+    /**
+     * Returns the id of the document.
+     *
+     * @return The id of the document as a string
+     */
+    String getId();
+
+    /**
+     * Returns the name of the document.
+     *
+     * @return The name of the document
+     */
+    String getName();
+}
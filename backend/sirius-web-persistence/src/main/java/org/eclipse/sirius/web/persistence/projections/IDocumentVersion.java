@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.projections;
+
+/**
+ * Projection used to retrieve the version of a document without its content.
+ *
+ * @author sbegaudeau
+ */
+public interface IDocumentVersion {
+    /**
+     * Returns the id of the document.
+     *
+     * @return The id of the document as a string
+     */
+    String getId();
+
+    /**
+     * Returns the hash of the content of the document.
+     *
+     * @return The hash of the content of the document or <code>null</code> if the document has never been written
+     *         with a content hash
+     */
+    String getContentHash();
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.projections;
+
+/**
+ * Projection used to retrieve the metadata of a representation without its content.
+ *
+ * @author sbegaudeau
+ */
+public interface IRepresentationMetadata {
+    /**
+     * Returns the id of the representation.
+     *
+     * @return The id of the representation as a string
+     */
+    String getId();
+
+    /**
+     * Returns the id of the project containing the representation.
+     *
+     * @return The id of the project as a string
+     */
+    String getProjectId();
+
+    /**
+     * Returns the id of the semantic element targeted by the representation.
+     *
+     * @return The id of the target object
+     */
+    String getTargetObjectId();
+
+    /**
+     * Returns the label of the representation.
+     *
+     * @return The label of the representation
+     */
+    String getLabel();
+
+    /**
+     * Returns the kind of the representation.
+     *
+     * @return The kind of the representation or <code>null</code> if it has not been computed yet
+     */
+    String getKind();
+
+    /**
+     * Returns the id of the description of the representation.
+     *
+     * @return The id of the description as a string or <code>null</code> if it has not been computed yet
+     */
+    String getDescriptionId();
+}
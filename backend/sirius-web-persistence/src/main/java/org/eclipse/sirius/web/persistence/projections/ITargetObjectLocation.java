@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.projections;
+
+/**
+ * Projection used to retrieve the document containing the target object of a representation without loading the
+ * document.
+ *
+ * @author sbegaudeau
+ */
+public interface ITargetObjectLocation {
+    /**
+     * Returns the id of the target object.
+     *
+     * @return The id of the target object
+     */
+    String getTargetObjectId();
+
+    /**
+     * Returns the id of the document containing the target object.
+     *
+     * @return The id of the document as a string
+     */
+    String getDocumentId();
+}
@@ -18,6 +18,9 @@ import java.util.UUID;
 
 import org.eclipse.sirius.web.annotations.Audited;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentContentSizes;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
@@ -42,13 +45,33 @@ public interface IDocumentRepository extends PagingAndSortingRepository<Document
     @Query(name = "Document.findAllByType", nativeQuery = true)
     Iterable<DocumentEntity> findAllByType(String name, String uri);
 
+    @Audited
+    @Query(name = "Document.findAllVersionsByType", nativeQuery = true)
+    List<IDocumentVersion> findAllVersionsByType(String name, String uri);
+
     @Audited
     List<DocumentEntity> findAllByProjectId(UUID projectId);
 
+    @Audited
+    @Query(name = "Document.findAllMetadataByProjectId", nativeQuery = true)
+    List<IDocumentMetadata> findAllMetadataByProjectId(UUID projectId);
+
     @Audited
     @Query("SELECT document FROM DocumentEntity document WHERE document.project.id=?1 AND document.id=?2")
     Optional<DocumentEntity> findByProjectIdAndId(UUID projectId, UUID documentId);
 
+    /**
+     * Computes the size of the contents of a random sample of the documents, before and after their compression by the
+     * database. Only the pages of the sample are read, the cost of this query is thus bounded by the percentage.
+     *
+     * @param percentage
+     *            The percentage of the pages of the table to sample, between 0 and 100
+     * @return The size of the sampled contents
+     */
+    @Audited
+    @Query(name = "Document.sampleContentSizes", nativeQuery = true)
+    IDocumentContentSizes sampleContentSizes(double percentage);
+
     @Audited
     @Override
     void deleteById(UUID id);
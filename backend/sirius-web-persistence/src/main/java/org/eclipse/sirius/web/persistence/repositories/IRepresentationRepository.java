@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,8 @@ import java.util.UUID;
 
 import org.eclipse.sirius.web.annotations.Audited;
 import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.projections.IRepresentationMetadata;
+import org.eclipse.sirius.web.persistence.projections.ITargetObjectLocation;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
@@ -44,14 +46,48 @@ public interface IRepresentationRepository extends PagingAndSortingRepository<Re
     @Audited
     List<RepresentationEntity> findAllByProjectId(UUID projectId);
 
+    @Audited
+    @Query(name = "Representation.findMetadataById", nativeQuery = true)
+    Optional<IRepresentationMetadata> findMetadataById(UUID id);
+
+    @Audited
+    @Query(name = "Representation.findAllMetadataByTargetObjectId", nativeQuery = true)
+    List<IRepresentationMetadata> findAllMetadataByTargetObjectId(String objectId);
+
+    @Audited
+    @Query(name = "Representation.findAllMetadataByProjectId", nativeQuery = true)
+    List<IRepresentationMetadata> findAllMetadataByProjectId(UUID projectId);
+
     @Audited
     @Query("SELECT CASE WHEN COUNT(representation)> 0 THEN true ELSE false END FROM RepresentationEntity representation WHERE representation.targetObjectId=?1")
     boolean hasRepresentations(String objectId);
 
+    @Audited
+    @Query(name = "Representation.findAllTargetObjectIdsByProjectId", nativeQuery = true)
+    List<String> findAllTargetObjectIdsByProjectId(UUID projectId);
+
+    /**
+     * Finds the documents containing the target objects of the representations of the given project, using the ids of
+     * the objects indexed when the documents are written.
+     *
+     * @param projectId
+     *            The id of the project
+     * @return The location of the target objects of the representations of the project
+     */
+    @Audited
+    @Query(name = "Representation.findAllTargetObjectLocationsByProjectId", nativeQuery = true)
+    List<ITargetObjectLocation> findAllTargetObjectLocationsByProjectId(UUID projectId);
+
     @Audited
     @Override
     <S extends RepresentationEntity> S save(S representationEntity);
 
+    @Audited
+    @Transactional
+    @Modifying
+    @Query(name = "Representation.upsert", nativeQuery = true)
+    int upsert(UUID id, UUID projectId, String targetObjectId, String label, String kind, String descriptionId, String contentType, String format, String content, byte[] binaryContent);
+
     @Audited
     @Transactional
     @Modifying
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.writers;
+
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The new content of a document to write with {@link IDocumentContentWriter}.
+ *
+ * <p>
+ * It also holds the ids of the objects serialized in the new content and, if they are known, the ids of the objects
+ * serialized in the content currently stored. They are used to only write the object ids added or removed in the
+ * document_object index.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public final class DocumentContentUpdate {
+
+    private final UUID id;
+
+    private final String content;
+
+    private final String contentHash;
+
+    private final Set<String> objectIds;
+
+    private final Set<String> previousObjectIds;
+
+    public DocumentContentUpdate(UUID id, String content, String contentHash, Set<String> objectIds, Set<String> previousObjectIds) {
+        this.id = Objects.requireNonNull(id);
+        this.content = Objects.requireNonNull(content);
+        this.contentHash = Objects.requireNonNull(contentHash);
+        this.objectIds = Objects.requireNonNull(objectIds);
+        this.previousObjectIds = previousObjectIds;
+    }
+
+    public UUID getId() {
+        return this.id;
+    }
+
+    public String getContent() {
+        return this.content;
+    }
+
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    public Set<String> getObjectIds() {
+        return this.objectIds;
+    }
+
+    /**
+     * Returns the ids of the objects serialized in the content currently stored.
+     *
+     * @return The ids of the objects or an empty optional if they are not known, all the object ids of the document are
+     *         then written again
+     */
+    public Optional<Set<String>> getPreviousObjectIds() {
+        return Optional.ofNullable(this.previousObjectIds);
+    }
+
+    @Override
+    public String toString() {
+        String pattern = "{0} '{'id: {1}, contentHash: {2}'}'"; //-NLS-1$
+        return MessageFormat.format(pattern, this.getClass().getSimpleName(), this.id, this.contentHash);
+    }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.writers;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes the content of the documents with a JDBC batch.
+ *
+ * <p>
+ * Each document is bound as its own row of the batch, the content is thus sent as is to the database without being
+ * copied into a larger statement. The driver sends the whole batch at once.
+ * </p>
+ *
+ * <p>
+ * The document_object index of the updated documents is maintained from the object ids given by the caller, in the
+ * same transaction. Only the ids added or removed since the previous content are written, the cost of a write thus
+ * grows with the size of the change and not with the size of the document. If the previous object ids are not known,
+ * the index of the document is synchronized with all its object ids.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class DocumentContentWriter implements IDocumentContentWriter {
+
+    private static final String UPDATE_CONTENT = "UPDATE document SET content = CAST(? AS jsonb), content_hash = ? WHERE id = ?"; //-NLS-1$
+
+    private static final String DELETE_OBJECT_IDS = "DELETE FROM document_object WHERE document_id = ? AND object_id = ANY(?)"; //$NON-NLS-1$
+
+    private static final String DELETE_OTHER_OBJECT_IDS = "DELETE FROM document_object WHERE document_id = ? AND NOT (object_id = ANY(?))"; //$NON-NLS-1$
+
+    private static final String INSERT_OBJECT_IDS = "INSERT INTO document_object (document_id, object_id) SELECT ?, unnest(CAST(? AS text[])) ON CONFLICT DO NOTHING"; //$NON-NLS-1$
+
+    private static final String TEXT = "text"; //$NON-NLS-1$
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DocumentContentWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    @Override
+    @Transactional
+    public List<UUID> updateContents(List<DocumentContentUpdate> documentContentUpdates) {
+        List<UUID> updatedDocumentIds = new ArrayList<>();
+        if (!documentContentUpdates.isEmpty()) {
+            int[] updateCounts = this.jdbcTemplate.batchUpdate(UPDATE_CONTENT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+                    DocumentContentUpdate documentContentUpdate = documentContentUpdates.get(index);
+                    preparedStatement.setString(1, documentContentUpdate.getContent());
+                    preparedStatement.setString(2, documentContentUpdate.getContentHash());
+                    preparedStatement.setObject(3, documentContentUpdate.getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return documentContentUpdates.size();
+                }
+            });
+
+            List<DocumentContentUpdate> updatedDocuments = new ArrayList<>();
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] > 0) {
+                    updatedDocuments.add(documentContentUpdates.get(i));
+                    updatedDocumentIds.add(documentContentUpdates.get(i).getId());
+                }
+            }
+            this.updateObjectIds(updatedDocuments);
+        }
+        return updatedDocumentIds;
+    }
+
+    private void updateObjectIds(List<DocumentContentUpdate> documentContentUpdates) {
+        Map<UUID, Set<String>> removedObjectIds = new LinkedHashMap<>();
+        Map<UUID, Set<String>> keptObjectIds = new LinkedHashMap<>();
+        Map<UUID, Set<String>> addedObjectIds = new LinkedHashMap<>();
+        for (DocumentContentUpdate documentContentUpdate : documentContentUpdates) {
+            UUID documentId = documentContentUpdate.getId();
+            Set<String> objectIds = documentContentUpdate.getObjectIds();
+            Optional<Set<String>> optionalPreviousObjectIds = documentContentUpdate.getPreviousObjectIds();
+            if (optionalPreviousObjectIds.isPresent()) {
+                Set<String> previousObjectIds = optionalPreviousObjectIds.get();
+
+                Set<String> removed = new HashSet<>(previousObjectIds);
+                removed.removeAll(objectIds);
+                Set<String> added = new HashSet<>(objectIds);
+                added.removeAll(previousObjectIds);
+
+                if (!removed.isEmpty()) {
+                    removedObjectIds.put(documentId, removed);
+                }
+                if (!added.isEmpty()) {
+                    addedObjectIds.put(documentId, added);
+                }
+            } else {
+                keptObjectIds.put(documentId, objectIds);
+                if (!objectIds.isEmpty()) {
+                    addedObjectIds.put(documentId, objectIds);
+                }
+            }
+        }
+
+        this.batchUpdate(DELETE_OBJECT_IDS, removedObjectIds);
+        this.batchUpdate(DELETE_OTHER_OBJECT_IDS, keptObjectIds);
+        this.batchUpdate(INSERT_OBJECT_IDS, addedObjectIds);
+    }
+
+    /**
+     * Executes the given statement once per document with a batch, the statement receives the id of the document and
+     * an array of object ids.
+     */
+    private void batchUpdate(String sql, Map<UUID, Set<String>> objectIdsByDocumentId) {
+        if (!objectIdsByDocumentId.isEmpty()) {
+            List<Entry<UUID, Set<String>>> entries = List.copyOf(objectIdsByDocumentId.entrySet());
+            this.jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+                    Entry<UUID, Set<String>> entry = entries.get(index);
+                    preparedStatement.setObject(1, entry.getKey());
+                    preparedStatement.setArray(2, preparedStatement.getConnection().createArrayOf(TEXT, entry.getValue().toArray()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.persistence.writers;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the content of existing documents without loading them first.
+ *
+ * @author sbegaudeau
+ */
+public interface IDocumentContentWriter {
+    /**
+     * Updates the content of several documents, and the index of their object ids, in a single transaction.
+     *
+     * @param documentContentUpdates
+     *            The new contents of the documents
+     * @return The ids of the documents which have been updated, the documents which do not exist anymore are ignored
+     */
+    List<UUID> updateContents(List<DocumentContentUpdate> documentContentUpdates);
+}
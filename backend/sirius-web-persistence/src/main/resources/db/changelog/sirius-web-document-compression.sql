@@ -0,0 +1,15 @@
+-- Executed on each start while enabled so that a new threshold is applied, both statements are idempotent
+DO $$
+BEGIN
+    -- The contents whose row is larger than the threshold (in bytes, between 128 and 8160) are compressed
+    EXECUTE 'ALTER TABLE document SET (toast_tuple_target = ${siriusweb.document.compression.threshold})';
+    BEGIN
+        IF CAST(current_setting('server_version_num') AS integer) >= 140000 THEN
+            EXECUTE 'ALTER TABLE document ALTER COLUMN content SET COMPRESSION lz4';
+        END IF;
+    EXCEPTION
+        WHEN feature_not_supported OR invalid_parameter_value THEN
+            RAISE NOTICE 'LZ4 compression is not available, the contents of the documents will be compressed with pglz';
+    END;
+END;
+$$;
@@ -0,0 +1,3 @@
+-- Gives a version to the documents which have not been written since the content hash has been introduced, the hash computed by the
+-- database differs from the one computed by the application and it will thus be replaced by the next write of the document
+UPDATE document SET content_hash = md5(CAST(content AS text)) WHERE content_hash IS NULL;
@@ -0,0 +1 @@
+ALTER TABLE document ALTER COLUMN content TYPE jsonb USING content::jsonb;
@@ -0,0 +1,32 @@
+CREATE TABLE document_namespace (
+    document_id uuid NOT NULL,
+    ns_prefix text NOT NULL,
+    ns_uri text NOT NULL,
+    CONSTRAINT pk_document_namespace PRIMARY KEY (document_id, ns_prefix),
+    CONSTRAINT fk_document_namespace_document_id FOREIGN KEY (document_id) REFERENCES document(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_document_namespace_ns ON document_namespace (ns_prefix, ns_uri, document_id);
+
+-- Keeps document_namespace in sync with the "ns" header of the JSON content, whatever the code path used to write the document
+CREATE FUNCTION update_document_namespace() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND (NEW.content -> 'ns') IS NOT DISTINCT FROM (OLD.content -> 'ns') THEN
+        RETURN NEW;
+    END IF;
+
+    DELETE FROM document_namespace WHERE document_id = NEW.id;
+    IF jsonb_typeof(NEW.content -> 'ns') = 'object' THEN
+        INSERT INTO document_namespace (document_id, ns_prefix, ns_uri)
+        SELECT NEW.id, namespace.key, namespace.value FROM jsonb_each_text(NEW.content -> 'ns') AS namespace;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_document_namespace AFTER INSERT OR UPDATE OF content ON document
+    FOR EACH ROW EXECUTE PROCEDURE update_document_namespace();
+
+INSERT INTO document_namespace (document_id, ns_prefix, ns_uri)
+SELECT document.id, namespace.key, namespace.value
+FROM document, jsonb_each_text(CASE WHEN jsonb_typeof(document.content -> 'ns') = 'object' THEN document.content -> 'ns' ELSE '{}'::jsonb END) AS namespace;
@@ -0,0 +1,6 @@
+-- The object ids of an updated document are now written by the application from the ids added or removed since its previous write,
+-- the trigger only indexes the content of the new documents.
+DROP TRIGGER trg_document_object ON document;
+
+CREATE TRIGGER trg_document_object AFTER INSERT ON document
+    FOR EACH ROW EXECUTE PROCEDURE update_document_object();
@@ -0,0 +1,35 @@
+CREATE TABLE document_object (
+    document_id uuid NOT NULL,
+    object_id text NOT NULL,
+    CONSTRAINT pk_document_object PRIMARY KEY (document_id, object_id),
+    CONSTRAINT fk_document_object_document_id FOREIGN KEY (document_id) REFERENCES document(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_document_object_object_id ON document_object (object_id, document_id);
+
+-- Keeps document_object in sync with the ids of the objects serialized in the JSON content, only the ids added or removed are written
+CREATE FUNCTION update_document_object() RETURNS trigger AS $$
+BEGIN
+    WITH ids AS (
+        SELECT DISTINCT id #>> '{}' AS object_id FROM jsonb_path_query(NEW.content, 'strict $.content.**.id') AS id
+        WHERE jsonb_typeof(id) = 'string'
+    ), deleted AS (
+        DELETE FROM document_object documentObject
+        WHERE documentObject.document_id = NEW.id
+        AND NOT EXISTS (SELECT 1 FROM ids WHERE ids.object_id = documentObject.object_id)
+    )
+    INSERT INTO document_object (document_id, object_id)
+    SELECT NEW.id, ids.object_id FROM ids
+    ON CONFLICT DO NOTHING;
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_document_object AFTER INSERT OR UPDATE OF content ON document
+    FOR EACH ROW EXECUTE PROCEDURE update_document_object();
+
+INSERT INTO document_object (document_id, object_id)
+SELECT DISTINCT document.id, id #>> '{}'
+FROM document, jsonb_path_query(document.content, 'strict $.content.**.id') AS id
+WHERE jsonb_typeof(id) = 'string';
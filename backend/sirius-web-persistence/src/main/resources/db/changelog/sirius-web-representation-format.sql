@@ -0,0 +1,4 @@
+ALTER TABLE representation ADD COLUMN format text NOT NULL DEFAULT 'json';
+ALTER TABLE representation ADD COLUMN binary_content bytea;
+ALTER TABLE representation ALTER COLUMN content DROP NOT NULL;
+ALTER TABLE representation ADD CONSTRAINT representation_content_present CHECK ((content IS NOT NULL) OR (binary_content IS NOT NULL));
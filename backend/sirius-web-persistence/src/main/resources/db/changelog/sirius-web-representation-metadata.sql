@@ -0,0 +1,3 @@
+ALTER TABLE representation ADD COLUMN kind text;
+ALTER TABLE representation ADD COLUMN description_id text;
+UPDATE representation SET kind=CAST(content AS jsonb)->>'kind', description_id=CAST(content AS jsonb)->>'descriptionId';
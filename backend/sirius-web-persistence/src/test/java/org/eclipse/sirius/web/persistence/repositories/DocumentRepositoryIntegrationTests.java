@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -14,14 +14,26 @@ package org.eclipse.sirius.web.persistence.repositories;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.eclipse.sirius.web.persistence.entities.AccountEntity;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentContentSizes;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
+import org.eclipse.sirius.web.persistence.writers.DocumentContentUpdate;
+import org.eclipse.sirius.web.persistence.writers.IDocumentContentWriter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -60,6 +72,23 @@ public class DocumentRepositoryIntegrationTests extends AbstractIntegrationTests
     + "}" + System.lineSeparator(); //$NON-NLS-1$
     // @formatter:on
 
+    private static final String DOMAIN_NAME = "domain"; //$NON-NLS-1$
+
+    private static final String DOMAIN_URI = "http://www.eclipse.org/sirius-web/domain"; //$NON-NLS-1$
+
+    // @formatter:off
+    private static final String DOMAIN_DOCUMENT_CONTENT = "{" + System.lineSeparator() //$NON-NLS-1$
+    + "    \"json\": {" + System.lineSeparator() //$NON-NLS-1$
+    + "      \"version\": \"1.0\"," + System.lineSeparator() //$NON-NLS-1$
+    + "    \"encoding\": \"utf-8\"" + System.lineSeparator() //$NON-NLS-1$
+    + "  }," + System.lineSeparator() //$NON-NLS-1$
+    + "  \"ns\": {" + System.lineSeparator() //$NON-NLS-1$
+    + "    \"" + DOMAIN_NAME + "\": \"" + DOMAIN_URI + "\"" + System.lineSeparator() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    + "  }," + System.lineSeparator() //$NON-NLS-1$
+    + "  \"content\": []" + System.lineSeparator() //$NON-NLS-1$
+    + "}" + System.lineSeparator(); //$NON-NLS-1$
+    // @formatter:on
+
     @Autowired
     private IAccountRepository accountRepository;
 
@@ -69,6 +98,15 @@ public class DocumentRepositoryIntegrationTests extends AbstractIntegrationTests
     @Autowired
     private IDocumentRepository documentRepository;
 
+    @Autowired
+    private IDocumentContentWriter documentContentWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @DynamicPropertySource
     public static void postgresqlProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", POSTGRESQL_CONTAINER::getJdbcUrl); //$NON-NLS-1$
@@ -130,6 +168,23 @@ public class DocumentRepositoryIntegrationTests extends AbstractIntegrationTests
         assertThat(documents).hasSize(3);
     }
 
+    @Test
+    @Transactional
+    public void testFindAllMetadataByProjectId() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity document = new DocumentEntity();
+        document.setName(FIRST_DOCUMENT_NAME);
+        document.setProject(project);
+        document.setContent(DOCUMENT_CONTENT);
+        DocumentEntity savedDocument = this.documentRepository.save(document);
+
+        List<IDocumentMetadata> documentMetadata = this.documentRepository.findAllMetadataByProjectId(project.getId());
+        assertThat(documentMetadata).hasSize(1);
+        assertThat(documentMetadata.get(0).getId()).isEqualTo(savedDocument.getId().toString());
+        assertThat(documentMetadata.get(0).getName()).isEqualTo(FIRST_DOCUMENT_NAME);
+    }
+
     @Test
     @Transactional
     public void testFindByProjectIdAndId() {
@@ -149,6 +204,149 @@ public class DocumentRepositoryIntegrationTests extends AbstractIntegrationTests
         assertThat(documentEntity.getName()).isEqualTo(FIRST_DOCUMENT_NAME);
     }
 
+    @Test
+    @Transactional
+    public void testFindAllByType() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity firstDocument = new DocumentEntity();
+        firstDocument.setName(FIRST_DOCUMENT_NAME);
+        firstDocument.setProject(project);
+        firstDocument.setContent(DOMAIN_DOCUMENT_CONTENT);
+        DocumentEntity savedDomainDocument = this.documentRepository.save(firstDocument);
+
+        DocumentEntity secondDocument = new DocumentEntity();
+        secondDocument.setName(SECOND_DOCUMENT_NAME);
+        secondDocument.setProject(project);
+        secondDocument.setContent(DOCUMENT_CONTENT);
+        this.documentRepository.save(secondDocument);
+
+        List<DocumentEntity> documents = new ArrayList<>();
+        this.documentRepository.findAllByType(DOMAIN_NAME, DOMAIN_URI).forEach(documents::add);
+        assertThat(documents).hasSize(1);
+        assertThat(documents.get(0).getId()).isEqualTo(savedDomainDocument.getId());
+
+        List<DocumentEntity> unknownDocuments = new ArrayList<>();
+        this.documentRepository.findAllByType(DOMAIN_NAME, "http://www.eclipse.org/sirius-web/unknown").forEach(unknownDocuments::add); //$NON-NLS-1$
+        assertThat(unknownDocuments).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllByTypeAfterContentUpdate() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity document = new DocumentEntity();
+        document.setName(FIRST_DOCUMENT_NAME);
+        document.setProject(project);
+        document.setContent(DOCUMENT_CONTENT);
+        DocumentEntity savedDocument = this.documentRepository.save(document);
+
+        List<DocumentEntity> documents = new ArrayList<>();
+        this.documentRepository.findAllByType(DOMAIN_NAME, DOMAIN_URI).forEach(documents::add);
+        assertThat(documents).isEmpty();
+
+        savedDocument.setContent(DOMAIN_DOCUMENT_CONTENT);
+        this.documentRepository.save(savedDocument);
+
+        this.documentRepository.findAllByType(DOMAIN_NAME, DOMAIN_URI).forEach(documents::add);
+        assertThat(documents).hasSize(1);
+        assertThat(documents.get(0).getId()).isEqualTo(savedDocument.getId());
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllVersionsByType() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity document = new DocumentEntity();
+        document.setName(FIRST_DOCUMENT_NAME);
+        document.setProject(project);
+        document.setContent(DOMAIN_DOCUMENT_CONTENT);
+        document.setContentHash("hash"); //$NON-NLS-1$
+        DocumentEntity savedDocument = this.documentRepository.save(document);
+
+        List<IDocumentVersion> documentVersions = this.documentRepository.findAllVersionsByType(DOMAIN_NAME, DOMAIN_URI);
+        assertThat(documentVersions).hasSize(1);
+        assertThat(documentVersions.get(0).getId()).isEqualTo(savedDocument.getId().toString());
+        assertThat(documentVersions.get(0).getContentHash()).isEqualTo("hash"); //$NON-NLS-1$
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateContents() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity firstDocument = new DocumentEntity();
+        firstDocument.setName(FIRST_DOCUMENT_NAME);
+        firstDocument.setProject(project);
+        firstDocument.setContent(DOCUMENT_CONTENT);
+        DocumentEntity firstSavedDocument = this.documentRepository.save(firstDocument);
+
+        DocumentEntity secondDocument = new DocumentEntity();
+        secondDocument.setName(SECOND_DOCUMENT_NAME);
+        secondDocument.setProject(project);
+        secondDocument.setContent(DOCUMENT_CONTENT);
+        DocumentEntity secondSavedDocument = this.documentRepository.save(secondDocument);
+
+        UUID missingDocumentId = UUID.randomUUID();
+
+        // The documents have to be inserted before being updated outside of the persistence context
+        this.entityManager.flush();
+
+        // @formatter:off
+        List<DocumentContentUpdate> documentContentUpdates = List.of(
+                new DocumentContentUpdate(firstSavedDocument.getId(), DOMAIN_DOCUMENT_CONTENT, "first", Set.of(), null), //$NON-NLS-1$
+                new DocumentContentUpdate(secondSavedDocument.getId(), DOMAIN_DOCUMENT_CONTENT, "second", Set.of(), null), //$NON-NLS-1$
+                new DocumentContentUpdate(missingDocumentId, DOMAIN_DOCUMENT_CONTENT, "missing", Set.of(), null) //$NON-NLS-1$
+        );
+        // @formatter:on
+        List<UUID> updatedDocumentIds = this.documentContentWriter.updateContents(documentContentUpdates);
+        assertThat(updatedDocumentIds).containsExactly(firstSavedDocument.getId(), secondSavedDocument.getId());
+
+        List<DocumentEntity> documentEntities = new ArrayList<>();
+        this.documentRepository.findAllByType(DOMAIN_NAME, DOMAIN_URI).forEach(documentEntities::add);
+        assertThat(documentEntities).hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateContentsWritesTheChangesOfTheObjectIds() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity document = new DocumentEntity();
+        document.setName(FIRST_DOCUMENT_NAME);
+        document.setProject(project);
+        document.setContent(DOCUMENT_CONTENT);
+        DocumentEntity savedDocument = this.documentRepository.save(document);
+        this.entityManager.flush();
+
+        // The previous object ids are not known, all the object ids are written
+        this.jdbcTemplate.update("INSERT INTO document_object (document_id, object_id) VALUES (?, 'stale')", savedDocument.getId()); //$NON-NLS-1$
+        this.documentContentWriter.updateContents(List.of(new DocumentContentUpdate(savedDocument.getId(), DOCUMENT_CONTENT, "first", Set.of("a", "b"), null))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertThat(this.findObjectIds(savedDocument.getId())).containsExactlyInAnyOrder("a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // Only the object ids added or removed are written
+        this.documentContentWriter.updateContents(List.of(new DocumentContentUpdate(savedDocument.getId(), DOCUMENT_CONTENT, "second", Set.of("b", "c"), Set.of("a", "b")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        assertThat(this.findObjectIds(savedDocument.getId())).containsExactlyInAnyOrder("b", "c"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    @Transactional
+    public void testSampleContentSizes() {
+        ProjectEntity project = this.createAndSaveProjectEntity();
+
+        DocumentEntity document = new DocumentEntity();
+        document.setName(FIRST_DOCUMENT_NAME);
+        document.setProject(project);
+        document.setContent(DOCUMENT_CONTENT);
+        this.documentRepository.save(document);
+
+        IDocumentContentSizes contentSizes = this.documentRepository.sampleContentSizes(100);
+        assertThat(contentSizes.getContentSize()).isPositive();
+        assertThat(contentSizes.getStoredSize()).isPositive();
+    }
+
     @Test
     @Transactional
     public void testInsertDocumentWithSameNameInSameProject() {
@@ -186,6 +384,10 @@ public class DocumentRepositoryIntegrationTests extends AbstractIntegrationTests
         assertThat(this.documentRepository.count()).isEqualTo(0);
     }
 
+    private List<String> findObjectIds(UUID documentId) {
+        return this.jdbcTemplate.queryForList("SELECT object_id FROM document_object WHERE document_id = ?", String.class, documentId); //$NON-NLS-1$
+    }
+
     private ProjectEntity createAndSaveProjectEntity() {
         AccountEntity owner = new AccountEntity();
         owner.setUsername(OWNER_NAME);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,8 @@ import org.eclipse.sirius.web.persistence.entities.AccountEntity;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
 import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.projections.IRepresentationMetadata;
+import org.eclipse.sirius.web.persistence.projections.ITargetObjectLocation;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -66,6 +68,10 @@ public class RepresentationRepositoryIntegrationTests extends AbstractIntegratio
 
     private static final String SECOND_TARGET_OBJECT_ID = "secondTargetObjectId"; //$NON-NLS-1$
 
+    private static final String DIAGRAM_KIND = "Diagram"; //$NON-NLS-1$
+
+    private static final String JSON_FORMAT = "json"; //$NON-NLS-1$
+
     private static final String DOCUMENT_CONTENT_PATTERN = "{ \"id\": \"%1$s\" }"; //$NON-NLS-1$
 
     // @formatter:off
@@ -193,6 +199,33 @@ public class RepresentationRepositoryIntegrationTests extends AbstractIntegratio
         assertThat(representationEntitiesForSecondObject).hasSize(1);
     }
 
+    @Test
+    @Transactional
+    public void testFindAllMetadata() {
+        ProjectEntity savedProject = this.createAndSaveProjectEntity();
+
+        RepresentationEntity firstRepresentationEntity = this.createRepresentationEntity(savedProject, FIRST_DIAGRAM_LABEL, FIRST_TARGET_OBJECT_ID);
+        RepresentationEntity secondRepresentationEntity = this.createRepresentationEntity(savedProject, SECOND_DIAGRAM_LABEL, SECOND_TARGET_OBJECT_ID);
+
+        this.representationRepository.save(firstRepresentationEntity);
+        this.representationRepository.save(secondRepresentationEntity);
+
+        List<IRepresentationMetadata> metadataForFirstObject = this.representationRepository.findAllMetadataByTargetObjectId(FIRST_TARGET_OBJECT_ID);
+        assertThat(metadataForFirstObject).hasSize(1);
+
+        IRepresentationMetadata representationMetadata = metadataForFirstObject.get(0);
+        assertThat(representationMetadata.getId()).isEqualTo(firstRepresentationEntity.getId().toString());
+        assertThat(representationMetadata.getProjectId()).isEqualTo(savedProject.getId().toString());
+        assertThat(representationMetadata.getTargetObjectId()).isEqualTo(FIRST_TARGET_OBJECT_ID);
+        assertThat(representationMetadata.getLabel()).isEqualTo(FIRST_DIAGRAM_LABEL);
+        assertThat(representationMetadata.getKind()).isEqualTo(DIAGRAM_KIND);
+        assertThat(representationMetadata.getDescriptionId()).isEqualTo(firstRepresentationEntity.getDescriptionId());
+
+        assertThat(this.representationRepository.findAllMetadataByProjectId(savedProject.getId())).hasSize(2);
+        assertThat(this.representationRepository.findMetadataById(secondRepresentationEntity.getId())).isPresent();
+        assertThat(this.representationRepository.findMetadataById(UUID.randomUUID())).isEmpty();
+    }
+
     @Test
     @Transactional
     public void testHasRepresentations() {
@@ -213,6 +246,68 @@ public class RepresentationRepositoryIntegrationTests extends AbstractIntegratio
         assertThat(secondObjectHasRepresentations).isFalse();
     }
 
+    @Test
+    @Transactional
+    public void testUpsert() {
+        ProjectEntity savedProject = this.createAndSaveProjectEntity();
+
+        UUID representationId = UUID.randomUUID();
+        String descriptionId = UUID.randomUUID().toString();
+        int insertedCount = this.representationRepository.upsert(representationId, savedProject.getId(), FIRST_TARGET_OBJECT_ID, FIRST_DIAGRAM_LABEL, DIAGRAM_KIND, descriptionId, DIAGRAM_KIND,
+                JSON_FORMAT, "{ \"nodes\": [], \"edges\": []}", null); //$NON-NLS-1$
+        assertThat(insertedCount).isEqualTo(1);
+
+        byte[] binaryContent = new byte[] { 0x3A, 0x29, 0x0A, 0x00 };
+        int updatedCount = this.representationRepository.upsert(representationId, savedProject.getId(), FIRST_TARGET_OBJECT_ID, SECOND_DIAGRAM_LABEL, DIAGRAM_KIND, descriptionId, DIAGRAM_KIND,
+                "smile", null, binaryContent); //$NON-NLS-1$
+        assertThat(updatedCount).isEqualTo(1);
+
+        var optionalRepresentationMetadata = this.representationRepository.findMetadataById(representationId);
+        assertThat(optionalRepresentationMetadata).isPresent();
+        assertThat(optionalRepresentationMetadata.get().getLabel()).isEqualTo(SECOND_DIAGRAM_LABEL);
+
+        List<RepresentationEntity> representationEntities = this.representationRepository.findAllByProjectId(savedProject.getId());
+        assertThat(representationEntities).hasSize(1);
+        assertThat(representationEntities.get(0).getFormat()).isEqualTo("smile"); //$NON-NLS-1$
+        assertThat(representationEntities.get(0).getContent()).isNull();
+        assertThat(representationEntities.get(0).getBinaryContent()).isEqualTo(binaryContent);
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllTargetObjectIdsByProjectId() {
+        ProjectEntity savedProject = this.createAndSaveProjectEntity();
+
+        RepresentationEntity firstRepresentationEntity = this.createRepresentationEntity(savedProject, FIRST_DIAGRAM_LABEL, FIRST_TARGET_OBJECT_ID);
+        RepresentationEntity secondRepresentationEntity = this.createRepresentationEntity(savedProject, SECOND_DIAGRAM_LABEL, FIRST_TARGET_OBJECT_ID);
+        RepresentationEntity thirdRepresentationEntity = this.createRepresentationEntity(savedProject, THIRD_DIAGRAM_LABEL, SECOND_TARGET_OBJECT_ID);
+
+        this.representationRepository.save(firstRepresentationEntity);
+        this.representationRepository.save(secondRepresentationEntity);
+        this.representationRepository.save(thirdRepresentationEntity);
+
+        List<String> targetObjectIds = this.representationRepository.findAllTargetObjectIdsByProjectId(savedProject.getId());
+        assertThat(targetObjectIds).containsExactlyInAnyOrder(FIRST_TARGET_OBJECT_ID, SECOND_TARGET_OBJECT_ID);
+
+        assertThat(this.representationRepository.findAllTargetObjectIdsByProjectId(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllTargetObjectLocationsByProjectId() {
+        ProjectEntity savedProject = this.createAndSaveProjectEntity();
+        DocumentEntity documentEntity = this.createAndSaveDocumentEntity(savedProject, this.createDocumentContent(FIRST_TARGET_OBJECT_ID));
+
+        this.representationRepository.save(this.createRepresentationEntity(savedProject, FIRST_DIAGRAM_LABEL, FIRST_TARGET_OBJECT_ID));
+        this.representationRepository.save(this.createRepresentationEntity(savedProject, SECOND_DIAGRAM_LABEL, FIRST_TARGET_OBJECT_ID));
+        this.representationRepository.save(this.createRepresentationEntity(savedProject, THIRD_DIAGRAM_LABEL, SECOND_TARGET_OBJECT_ID));
+
+        List<ITargetObjectLocation> targetObjectLocations = this.representationRepository.findAllTargetObjectLocationsByProjectId(savedProject.getId());
+        assertThat(targetObjectLocations).hasSize(1);
+        assertThat(targetObjectLocations.get(0).getTargetObjectId()).isEqualTo(FIRST_TARGET_OBJECT_ID);
+        assertThat(targetObjectLocations.get(0).getDocumentId()).isEqualTo(documentEntity.getId().toString());
+    }
+
     @Test
     @Transactional
     public void testDeleteRepresentations() {
@@ -274,7 +369,10 @@ public class RepresentationRepositoryIntegrationTests extends AbstractIntegratio
         representationEntity.setLabel(label);
         representationEntity.setProject(projectEntity);
         representationEntity.setTargetObjectId(targetObjectId);
+        representationEntity.setKind(DIAGRAM_KIND);
+        representationEntity.setDescriptionId(UUID.randomUUID().toString());
         representationEntity.setContentType("Diagram"); //$NON-NLS-1$
+        representationEntity.setFormat(JSON_FORMAT);
         representationEntity.setContent("{ \"nodes\": [], \"edges\": []}"); //$NON-NLS-1$
         return representationEntity;
     }
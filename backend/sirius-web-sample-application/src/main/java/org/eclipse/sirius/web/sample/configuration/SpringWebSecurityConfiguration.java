@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -17,7 +17,10 @@ import java.util.List;
 import java.util.Objects;
 
 import org.eclipse.sirius.web.persistence.repositories.IAccountRepository;
+import org.eclipse.sirius.web.sample.services.AuthenticationCache;
+import org.eclipse.sirius.web.sample.services.CachingAuthenticationProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -38,8 +41,11 @@ public class SpringWebSecurityConfiguration extends WebSecurityConfigurerAdapter
 
     private final IAccountRepository accountRepository;
 
-    public SpringWebSecurityConfiguration(IAccountRepository accountRepository) {
+    private final AuthenticationCache authenticationCache;
+
+    public SpringWebSecurityConfiguration(IAccountRepository accountRepository, AuthenticationCache authenticationCache) {
         this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.authenticationCache = Objects.requireNonNull(authenticationCache);
     }
 
     @Override
@@ -61,6 +67,12 @@ public class SpringWebSecurityConfiguration extends WebSecurityConfigurerAdapter
                        .orElseThrow(() -> new UsernameNotFoundException(MessageFormat.format("User ''{0}'' not found", username))); //$NON-NLS-1$
             // @formatter:on
         };
-        auth.userDetailsService(accountBasedUserDetailsService).passwordEncoder(new BCryptPasswordEncoder());
+
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(accountBasedUserDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(new BCryptPasswordEncoder());
+
+        // The verification of the passwords with BCrypt is costly, the successful verifications are thus cached
+        auth.authenticationProvider(new CachingAuthenticationProvider(daoAuthenticationProvider, this.authenticationCache));
     }
 }
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.sample.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sirius.web.persistence.entities.AccountChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache of the verified credentials, used to avoid the costly verification of the same password and the loading of
+ * the same account on every request.
+ *
+ * <p>
+ * Only a salted digest of the password is kept in memory, the salt being randomly generated for each instance, along
+ * with the account loaded when the password has been verified.
+ * </p>
+ *
+ * <p>
+ * The cached verifications expire after a configurable duration and they are all invalidated once an account has been
+ * changed through JPA. An account changed by a bulk or native update, which does not publish any event, is thus only
+ * loaded and verified again once its cached verification has expired.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class AuthenticationCache {
+
+    private static final String COUNTER_NAME = "siriusweb_authentication_cache"; //$NON-NLS-1$
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private static final int SALT_LENGTH = 32;
+
+    private final Logger logger = LoggerFactory.getLogger(AuthenticationCache.class);
+
+    private final byte[] salt = new byte[SALT_LENGTH];
+
+    private final Cache<String, VerifiedCredentials> verifiedCredentialsByUsername;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public AuthenticationCache(MeterRegistry meterRegistry, @Value("${sirius.web.authentication.cache.ttl:300}") long ttl,
+            @Value("${sirius.web.authentication.cache.size:10000}") long cacheSize) {
+        new SecureRandom().nextBytes(this.salt);
+
+        // @formatter:off
+        this.verifiedCredentialsByUsername = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .maximumSize(cacheSize)
+                .build();
+        // @formatter:on
+
+        this.hitCounter = Counter.builder(COUNTER_NAME).tag(RESULT, "hit").register(meterRegistry); //$NON-NLS-1$
+        this.missCounter = Counter.builder(COUNTER_NAME).tag(RESULT, "miss").register(meterRegistry); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the account of the given user if the given password has already been verified.
+     *
+     * @param username
+     *            The username
+     * @param password
+     *            The raw password
+     * @return The account loaded when the password has been verified or an empty optional if the password has not been
+     *         verified
+     */
+    public Optional<UserDetails> getVerifiedUserDetails(String username, String password) {
+        // @formatter:off
+        Optional<UserDetails> optionalUserDetails = Optional.ofNullable(this.verifiedCredentialsByUsername.getIfPresent(username))
+                .filter(verifiedCredentials -> this.digest(password).filter(digest -> MessageDigest.isEqual(verifiedCredentials.getPasswordDigest(), digest)).isPresent())
+                .map(VerifiedCredentials::getUserDetails);
+        // @formatter:on
+
+        if (optionalUserDetails.isPresent()) {
+            this.hitCounter.increment();
+        } else {
+            this.missCounter.increment();
+        }
+        return optionalUserDetails;
+    }
+
+    /**
+     * Caches the verification of the given password, which has just been verified against the given account.
+     *
+     * @param username
+     *            The username
+     * @param password
+     *            The raw password
+     * @param userDetails
+     *            The account against which the password has been verified
+     */
+    public void put(String username, String password, UserDetails userDetails) {
+        this.digest(password).ifPresent(digest -> this.verifiedCredentialsByUsername.put(username, new VerifiedCredentials(digest, userDetails)));
+    }
+
+    /**
+     * Invalidates the cached verification of the password of the given user.
+     *
+     * @param username
+     *            The username
+     */
+    public void invalidate(String username) {
+        this.verifiedCredentialsByUsername.invalidate(username);
+    }
+
+    /**
+     * Invalidates all the cached verifications since the changed account may have been renamed.
+     *
+     * @param event
+     *            The event
+     */
+    @EventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        this.verifiedCredentialsByUsername.invalidateAll();
+    }
+
+    private Optional<byte[]> digest(String password) {
+        Optional<byte[]> optionalDigest = Optional.empty();
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            messageDigest.update(this.salt);
+            optionalDigest = Optional.of(messageDigest.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return optionalDigest;
+    }
+
+    /**
+     * The digest of a verified password along with the account against which it has been verified.
+     *
+     * @author sbegaudeau
+     */
+    private static final class VerifiedCredentials {
+
+        private final byte[] passwordDigest;
+
+        private final UserDetails userDetails;
+
+        VerifiedCredentials(byte[] passwordDigest, UserDetails userDetails) {
+            this.passwordDigest = Objects.requireNonNull(passwordDigest);
+            this.userDetails = Objects.requireNonNull(userDetails);
+        }
+
+        byte[] getPasswordDigest() {
+            return this.passwordDigest;
+        }
+
+        UserDetails getUserDetails() {
+            return this.userDetails;
+        }
+    }
+}
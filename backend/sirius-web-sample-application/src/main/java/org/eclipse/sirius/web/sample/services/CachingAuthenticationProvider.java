@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.sample.services;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+
+/**
+ * Authentication provider reusing the authentications cached by the {@link AuthenticationCache} and delegating the
+ * authentication of the credentials which are not cached yet.
+ *
+ * <p>
+ * Neither the account nor the password are checked against the database on a cache hit, the account verified with
+ * the password is reused as is. Its status (locked, disabled, expired) is still checked on every request, as it has
+ * been loaded by the delegate, while the modifications of the accounts are taken into account once the cache has been
+ * invalidated or once the cached authentication has expired.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final AuthenticationCache authenticationCache;
+
+    private final UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache authenticationCache) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.authenticationCache = Objects.requireNonNull(authenticationCache);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String)) {
+            return this.delegate.authenticate(authentication);
+        }
+        String password = (String) credentials;
+
+        Optional<UserDetails> optionalUserDetails = this.authenticationCache.getVerifiedUserDetails(username, password);
+        if (optionalUserDetails.isPresent()) {
+            UserDetails userDetails = optionalUserDetails.get();
+            try {
+                this.userDetailsChecker.check(userDetails);
+            } catch (AuthenticationException exception) {
+                this.authenticationCache.invalidate(username);
+                throw exception;
+            }
+
+            var result = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = this.delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && result.getPrincipal() instanceof UserDetails) {
+            this.authenticationCache.put(username, password, (UserDetails) result.getPrincipal());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return this.delegate.supports(authentication);
+    }
+
+}
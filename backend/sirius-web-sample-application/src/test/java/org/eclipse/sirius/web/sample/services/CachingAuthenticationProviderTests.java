@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.sample.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sirius.web.persistence.entities.AccountChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the authentication provider relying on the cache of the verified passwords.
+ *
+ * @author sbegaudeau
+ */
+public class CachingAuthenticationProviderTests {
+
+    private static final String CACHE_COUNTER_NAME = "siriusweb_authentication_cache"; //$NON-NLS-1$
+
+    private static final String USERNAME = "jdoe"; //$NON-NLS-1$
+
+    private static final String PASSWORD = "password"; //$NON-NLS-1$
+
+    private final Map<String, UserDetails> usersByUsername = new ConcurrentHashMap<>();
+
+    private final AtomicInteger delegateCount = new AtomicInteger();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private MeterRegistry meterRegistry;
+
+    private AuthenticationCache authenticationCache;
+
+    private AuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    public void setUp() {
+        this.usersByUsername.put(USERNAME, this.createUser(PASSWORD, false));
+
+        // The users are copied since the credentials of the authenticated users are erased after the authentication
+        UserDetailsService userDetailsService = username -> {
+            this.loadCount.incrementAndGet();
+            // @formatter:off
+            return Optional.ofNullable(this.usersByUsername.get(username))
+                    .map(user -> User.withUserDetails(user).build())
+                    .orElseThrow(() -> new UsernameNotFoundException(username));
+            // @formatter:on
+        };
+
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(NoOpPasswordEncoder.getInstance());
+
+        AuthenticationProvider countingAuthenticationProvider = new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                CachingAuthenticationProviderTests.this.delegateCount.incrementAndGet();
+                return daoAuthenticationProvider.authenticate(authentication);
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return daoAuthenticationProvider.supports(authentication);
+            }
+        };
+
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.authenticationCache = new AuthenticationCache(this.meterRegistry, 300, 16);
+        this.authenticationProvider = new CachingAuthenticationProvider(countingAuthenticationProvider, this.authenticationCache);
+    }
+
+    @Test
+    public void testPasswordVerifiedOnlyOnce() {
+        Authentication firstAuthentication = this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+        assertThat(firstAuthentication.isAuthenticated()).isTrue();
+        assertThat(firstAuthentication.getName()).isEqualTo(USERNAME);
+        assertThat(this.delegateCount.get()).isEqualTo(1);
+
+        Authentication secondAuthentication = this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+        assertThat(secondAuthentication.isAuthenticated()).isTrue();
+        assertThat(secondAuthentication.getName()).isEqualTo(USERNAME);
+        assertThat(secondAuthentication.getCredentials()).isNull();
+        assertThat(this.delegateCount.get()).isEqualTo(1);
+        assertThat(this.loadCount.get()).isEqualTo(1);
+
+        assertThat(this.count("miss")).isEqualTo(1); //$NON-NLS-1$
+        assertThat(this.count("hit")).isEqualTo(1); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testWrongPasswordNeverServedFromTheCache() {
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication("wrong"))).isInstanceOf(BadCredentialsException.class); //$NON-NLS-1$
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailedAuthenticationNotCached() {
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication("wrong"))).isInstanceOf(BadCredentialsException.class); //$NON-NLS-1$
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication("wrong"))).isInstanceOf(BadCredentialsException.class); //$NON-NLS-1$
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPasswordChangedVerifiedAgain() {
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+
+        String newPassword = UUID.randomUUID().toString();
+        this.usersByUsername.put(USERNAME, this.createUser(newPassword, false));
+        this.authenticationCache.onAccountChanged(new AccountChangedEvent(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD))).isInstanceOf(BadCredentialsException.class);
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+
+        assertThat(this.authenticationProvider.authenticate(this.createAuthentication(newPassword)).isAuthenticated()).isTrue();
+        assertThat(this.delegateCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testLockedAccountRejected() {
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+
+        this.usersByUsername.put(USERNAME, this.createUser(PASSWORD, true));
+        this.authenticationCache.onAccountChanged(new AccountChangedEvent(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD))).isInstanceOf(LockedException.class);
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDeletedAccountRejected() {
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+
+        this.usersByUsername.remove(USERNAME);
+        this.authenticationCache.onAccountChanged(new AccountChangedEvent(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD))).isInstanceOf(BadCredentialsException.class);
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCacheInvalidatedWhenAnAccountChanges() {
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+
+        this.authenticationCache.onAccountChanged(new AccountChangedEvent(UUID.randomUUID()));
+
+        this.authenticationProvider.authenticate(this.createAuthentication(PASSWORD));
+        assertThat(this.delegateCount.get()).isEqualTo(2);
+        assertThat(this.loadCount.get()).isEqualTo(2);
+        assertThat(this.count("miss")).isEqualTo(2); //$NON-NLS-1$
+    }
+
+    private UserDetails createUser(String password, boolean isLocked) {
+        return User.withUsername(USERNAME).password(password).authorities(new String[0]).accountLocked(isLocked).build();
+    }
+
+    private Authentication createAuthentication(String password) {
+        return new UsernamePasswordAuthenticationToken(USERNAME, password);
+    }
+
+    private double count(String result) {
+        return this.meterRegistry.get(CACHE_COUNTER_NAME).tag("result", result).counter().count(); //$NON-NLS-1$
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -32,11 +32,18 @@ public class Document {
 
     private String content;
 
+    private String contentHash;
+
     public Document(UUID id, Project project, String name, String content) {
+        this(id, project, name, content, null);
+    }
+
+    public Document(UUID id, Project project, String name, String content, String contentHash) {
         this.id = id;
         this.project = project;
         this.name = name;
         this.content = content;
+        this.contentHash = contentHash;
     }
 
     public UUID getId() {
@@ -55,6 +62,16 @@ public class Document {
         return this.content;
     }
 
+    /**
+     * Returns the hash of the content of the document, it may be <code>null</code> if the document has not been
+     * written since its creation.
+     *
+     * @return The hash of the content of the document or <code>null</code>
+     */
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
     @Override
     public String toString() {
         String pattern = "{0} '{'id: {1}, projectId: {2}, name: {3}'}'"; //$NON-NLS-1$
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.api.document;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * The serialization of a document.
+ *
+ * <p>
+ * Only the first bytes of the given buffer are part of the serialization, the buffer used to serialize the document
+ * can thus be kept as is instead of being copied in an array of the exact size.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class DocumentBytes {
+
+    private final byte[] buffer;
+
+    private final int length;
+
+    public DocumentBytes(byte[] buffer, int length) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.length = length;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(this.buffer, 0, this.length);
+    }
+
+    /**
+     * Returns the size of the memory retained by the serialization.
+     *
+     * @return The size of the buffer in bytes
+     */
+    public int getRetainedSize() {
+        return this.buffer.length;
+    }
+}
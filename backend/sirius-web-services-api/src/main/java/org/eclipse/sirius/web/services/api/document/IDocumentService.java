@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -37,7 +37,19 @@ public interface IDocumentService {
 
     void delete(UUID documentId);
 
-    Optional<byte[]> getBytes(Document document, String resourceKind);
+    /**
+     * Returns the version of the serialization of the given document with the given resource kind. The version changes
+     * whenever the content of the document changes, it can thus be used to validate a serialization cached by a client.
+     *
+     * @param document
+     *            The document
+     * @param resourceKind
+     *            The resource kind used to serialize the document
+     * @return The version of the serialization
+     */
+    String getVersion(Document document, String resourceKind);
+
+    Optional<DocumentBytes> getBytes(Document document, String resourceKind);
 
     Optional<Document> rename(UUID documentId, String newName);
 
@@ -73,7 +85,12 @@ public interface IDocumentService {
         }
 
         @Override
-        public Optional<byte[]> getBytes(Document document, String resourceKind) {
+        public String getVersion(Document document, String resourceKind) {
+            return ""; //$NON-NLS-1$
+        }
+
+        @Override
+        public Optional<DocumentBytes> getBytes(Document document, String resourceKind) {
             return Optional.empty();
         }
 
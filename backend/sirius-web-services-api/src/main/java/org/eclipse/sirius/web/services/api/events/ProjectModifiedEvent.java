@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.api.events;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An internal event indicating that a project has been created, renamed, deleted or that its visibility has changed.
+ *
+ * @author sbegaudeau
+ */
+public class ProjectModifiedEvent {
+    private final UUID projectId;
+
+    public ProjectModifiedEvent(UUID projectId) {
+        this.projectId = Objects.requireNonNull(projectId);
+    }
+
+    public UUID getProjectId() {
+        return this.projectId;
+    }
+
+}
@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.api.projects;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.UUID;
 
 /**
@@ -21,7 +23,18 @@ import java.util.UUID;
  */
 public interface IProjectExportService {
 
-    byte[] exportProjectAsZip(UUID projectId);
+    /**
+     * Writes the zip of the given project in the given output stream, entry by entry, without building the whole zip
+     * in memory. The output stream is not closed.
+     *
+     * @param projectId
+     *            The id of the project to export
+     * @param outputStream
+     *            The output stream in which the zip will be written
+     * @throws IOException
+     *             if an I/O error occurred, the zip written may then be incomplete
+     */
+    void exportProjectAsZip(UUID projectId, OutputStream outputStream) throws IOException;
 
     /**
      * Implementation which does nothing, used for mocks in unit tests.
@@ -31,8 +44,8 @@ public interface IProjectExportService {
     class NoOp implements IProjectExportService {
 
         @Override
-        public byte[] exportProjectAsZip(UUID projectId) {
-            return new byte[0];
+        public void exportProjectAsZip(UUID projectId, OutputStream outputStream) throws IOException {
+            // Do nothing
         }
 
     }
@@ -13,6 +13,7 @@
 package org.eclipse.sirius.web.services.api.representations;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.representations.IRepresentationDescription;
@@ -24,4 +25,6 @@ import org.eclipse.sirius.web.representations.IRepresentationDescription;
  */
 public interface IDynamicRepresentationDescriptionService {
     List<IRepresentationDescription> findDynamicRepresentationDescriptions(UUID editingContextId);
+
+    Optional<IRepresentationDescription> findDynamicRepresentationDescriptionById(UUID editingContextId, UUID representationDescriptionId);
 }
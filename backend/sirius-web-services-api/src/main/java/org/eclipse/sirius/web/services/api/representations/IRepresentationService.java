@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,8 @@ public interface IRepresentationService {
 
     boolean hasRepresentations(String objectId);
 
+    boolean hasRepresentations(UUID projectId, String objectId);
+
     Optional<RepresentationDescriptor> getRepresentationDescriptorForProjectId(UUID projectId, UUID representationId);
 
     List<RepresentationDescriptor> getRepresentationDescriptorsForProjectId(UUID projectId);
@@ -33,6 +35,12 @@ public interface IRepresentationService {
 
     Optional<RepresentationDescriptor> getRepresentation(UUID representationId);
 
+    List<RepresentationMetadata> getRepresentationMetadataForProjectId(UUID projectId);
+
+    List<RepresentationMetadata> getRepresentationMetadataForObjectId(String objectId);
+
+    Optional<RepresentationMetadata> getRepresentationMetadata(UUID representationId);
+
     boolean existsById(UUID representationId);
 
     void delete(UUID representationId);
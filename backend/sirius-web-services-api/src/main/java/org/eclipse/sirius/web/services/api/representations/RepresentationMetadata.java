@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.api.representations;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import org.eclipse.sirius.web.annotations.Immutable;
+
+/**
+ * The metadata of a representation.
+ *
+ * <p>
+ * Contrary to the {@link RepresentationDescriptor}, it can be retrieved without deserializing the representation.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Immutable
+public class RepresentationMetadata {
+    private UUID id;
+
+    private UUID projectId;
+
+    private UUID descriptionId;
+
+    private String targetObjectId;
+
+    private String label;
+
+    private String kind;
+
+    public UUID getId() {
+        return this.id;
+    }
+
+    public UUID getProjectId() {
+        return this.projectId;
+    }
+
+    public UUID getDescriptionId() {
+        return this.descriptionId;
+    }
+
+    public String getTargetObjectId() {
+        return this.targetObjectId;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public String getKind() {
+        return this.kind;
+    }
+
+    public static Builder newRepresentationMetadata(UUID id) {
+        return new Builder(id);
+    }
+
+    /**
+     * The builder used to create the RepresentationMetadata.
+     *
+     * @author sbegaudeau
+     */
+    @SuppressWarnings("checkstyle:HiddenField")
+    public static final class Builder {
+        private UUID id;
+
+        private UUID projectId;
+
+        private UUID descriptionId;
+
+        private String targetObjectId;
+
+        private String label;
+
+        private String kind;
+
+        public Builder(UUID id) {
+            this.id = Objects.requireNonNull(id);
+        }
+
+        public Builder projectId(UUID projectId) {
+            this.projectId = Objects.requireNonNull(projectId);
+            return this;
+        }
+
+        public Builder descriptionId(UUID descriptionId) {
+            this.descriptionId = Objects.requireNonNull(descriptionId);
+            return this;
+        }
+
+        public Builder targetObjectId(String targetObjectId) {
+            this.targetObjectId = Objects.requireNonNull(targetObjectId);
+            return this;
+        }
+
+        public Builder label(String label) {
+            this.label = Objects.requireNonNull(label);
+            return this;
+        }
+
+        public Builder kind(String kind) {
+            this.kind = Objects.requireNonNull(kind);
+            return this;
+        }
+
+        public RepresentationMetadata build() {
+            RepresentationMetadata representationMetadata = new RepresentationMetadata();
+            representationMetadata.id = Objects.requireNonNull(this.id);
+            representationMetadata.projectId = Objects.requireNonNull(this.projectId);
+            representationMetadata.descriptionId = Objects.requireNonNull(this.descriptionId);
+            representationMetadata.targetObjectId = Objects.requireNonNull(this.targetObjectId);
+            representationMetadata.label = Objects.requireNonNull(this.label);
+            representationMetadata.kind = Objects.requireNonNull(this.kind);
+            return representationMetadata;
+        }
+
+    }
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.authorization;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.services.api.events.ProjectModifiedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache of the visibility of the projects for their users.
+ *
+ * <p>
+ * The visibility of a project is checked by almost all the requests, the decisions are thus kept for a short duration
+ * and invalidated as soon as the modification of the project has been committed.
+ * </p>
+ *
+ * <p>
+ * A decision computed while the project was being modified must not be cached, since it may have been computed from
+ * the state of the project before its modification. Each invalidation thus increments a generation of the project and
+ * a decision is only cached if the generation of its project has not changed since the decision has started to be
+ * computed. The generations are striped by project to bound their memory, a collision only prevents some decisions
+ * from being cached.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class ProjectAccessCache {
+
+    private static final String COUNTER_NAME = "siriusweb_project_access_cache"; //$NON-NLS-1$
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final IProjectRepository projectRepository;
+
+    /**
+     * Indicates if a project is visible by a user, by project id and username.
+     */
+    private final Cache<ProjectAccessKey, Boolean> visibilities;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public ProjectAccessCache(IProjectRepository projectRepository, MeterRegistry meterRegistry, @Value("${sirius.web.projects.access.cache.ttl:60}") long ttl,
+            @Value("${sirius.web.projects.access.cache.size:10000}") long cacheSize) {
+        this.projectRepository = Objects.requireNonNull(projectRepository);
+
+        // @formatter:off
+        this.visibilities = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .maximumSize(cacheSize)
+                .build();
+        // @formatter:on
+
+        this.hitCounter = Counter.builder(COUNTER_NAME).tag(RESULT, "hit").register(meterRegistry); //$NON-NLS-1$
+        this.missCounter = Counter.builder(COUNTER_NAME).tag(RESULT, "miss").register(meterRegistry); //$NON-NLS-1$
+    }
+
+    /**
+     * Indicates if the given project exists and is visible by the given user, the database is only queried if the
+     * decision is not cached.
+     *
+     * @param projectId
+     *            The id of the project
+     * @param username
+     *            The name of the user
+     * @return <code>true</code> if the project is visible by the user, <code>false</code> otherwise
+     */
+    public boolean isVisibleBy(UUID projectId, String username) {
+        return this.get(projectId, username).orElseGet(() -> {
+            long generation = this.getGeneration(projectId);
+            boolean isVisible = this.projectRepository.existsByIdAndIsVisibleBy(projectId, username);
+            this.put(projectId, username, isVisible, generation);
+            return isVisible;
+        });
+    }
+
+    /**
+     * Returns the current generation of the given project, to retrieve before computing a decision to cache.
+     *
+     * @param projectId
+     *            The id of the project
+     * @return The generation of the project
+     */
+    public long getGeneration(UUID projectId) {
+        return this.generations.get(this.getStripe(projectId));
+    }
+
+    public Optional<Boolean> get(UUID projectId, String username) {
+        Optional<Boolean> optionalVisibility = Optional.ofNullable(this.visibilities.getIfPresent(new ProjectAccessKey(projectId, username)));
+        if (optionalVisibility.isPresent()) {
+            this.hitCounter.increment();
+        } else {
+            this.missCounter.increment();
+        }
+        return optionalVisibility;
+    }
+
+    /**
+     * Caches the given decision unless the project has been modified since the decision has started to be computed.
+     *
+     * @param projectId
+     *            The id of the project
+     * @param username
+     *            The name of the user
+     * @param isVisible
+     *            Indicates if the project is visible by the user
+     * @param generation
+     *            The generation of the project retrieved before computing the decision
+     */
+    public void put(UUID projectId, String username, boolean isVisible, long generation) {
+        ProjectAccessKey key = new ProjectAccessKey(projectId, username);
+        if (this.getGeneration(projectId) == generation) {
+            this.visibilities.put(key, isVisible);
+
+            // The project may have been invalidated between the check and the put, before the decision has been put
+            if (this.getGeneration(projectId) != generation) {
+                this.visibilities.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the decisions of the modified project once its modification has been committed, or immediately if
+     * it has not been modified in a transaction.
+     *
+     * @param event
+     *            The event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectModified(ProjectModifiedEvent event) {
+        this.generations.incrementAndGet(this.getStripe(event.getProjectId()));
+        this.visibilities.asMap().keySet().removeIf(key -> key.getProjectId().equals(event.getProjectId()));
+    }
+
+    private int getStripe(UUID projectId) {
+        return Math.floorMod(projectId.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * The key of the visibility of a project for a user.
+     *
+     * @author sbegaudeau
+     */
+    private static final class ProjectAccessKey {
+
+        private final UUID projectId;
+
+        private final String username;
+
+        ProjectAccessKey(UUID projectId, String username) {
+            this.projectId = Objects.requireNonNull(projectId);
+            this.username = Objects.requireNonNull(username);
+        }
+
+        UUID getProjectId() {
+            return this.projectId;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean isEqual = this == object;
+            if (!isEqual && object instanceof ProjectAccessKey) {
+                ProjectAccessKey key = (ProjectAccessKey) object;
+                isEqual = this.projectId.equals(key.projectId) && this.username.equals(key.username);
+            }
+            return isEqual;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.projectId, this.username);
+        }
+    }
+}
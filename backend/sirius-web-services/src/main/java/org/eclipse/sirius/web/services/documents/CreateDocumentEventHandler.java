@@ -12,7 +12,6 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.documents;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Objects;
 import java.util.Optional;
@@ -132,11 +131,12 @@ public class CreateDocumentEventHandler implements IEditingContextEventHandler {
                 URI uri = URI.createURI(document.getId().toString());
 
                 JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
-                try (var inputStream = new ByteArrayInputStream(document.getContent().getBytes())) {
+                try (var inputStream = new DocumentContentInputStream(document.getContent())) {
                     resource.load(inputStream, null);
                 } catch (IOException exception) {
                     this.logger.warn(exception.getMessage(), exception);
                 }
+                resource.setTrackingModification(true);
 
                 resource.eAdapters().add(new DocumentMetadataAdapter(name));
 
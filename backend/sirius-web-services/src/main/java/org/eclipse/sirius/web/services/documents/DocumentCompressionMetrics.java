@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.documents;
+
+import java.util.Objects;
+
+import org.eclipse.sirius.web.persistence.projections.IDocumentContentSizes;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reports the compression ratio of the contents of the documents stored in the database.
+ *
+ * <p>
+ * The ratio is computed by the database on a random sample of the pages of the document table, both sizes are thus
+ * measured in bytes by the same query. The sample is only taken when the gauge is read and at most once per
+ * configurable interval, the documents are never measured while being written.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class DocumentCompressionMetrics {
+
+    private static final String COMPRESSION_RATIO_GAUGE_NAME = "siriusweb_document_compression_ratio"; //$NON-NLS-1$
+
+    private final Logger logger = LoggerFactory.getLogger(DocumentCompressionMetrics.class);
+
+    private final IDocumentRepository documentRepository;
+
+    private final double samplePercentage;
+
+    private final long sampleInterval;
+
+    private double compressionRatio = Double.NaN;
+
+    private long lastSample;
+
+    private boolean hasBeenSampled;
+
+    public DocumentCompressionMetrics(IDocumentRepository documentRepository, MeterRegistry meterRegistry,
+            @Value("${sirius.web.persistence.compression.samplePercentage:1}") double samplePercentage,
+            @Value("${sirius.web.persistence.compression.sampleInterval:600000}") long sampleInterval) {
+        this.documentRepository = Objects.requireNonNull(documentRepository);
+        this.samplePercentage = samplePercentage;
+        this.sampleInterval = sampleInterval;
+
+        Gauge.builder(COMPRESSION_RATIO_GAUGE_NAME, this, DocumentCompressionMetrics::getCompressionRatio).register(meterRegistry);
+    }
+
+    /**
+     * Returns the compression ratio measured by the latest sample, a new sample is taken if the previous one is too old.
+     *
+     * @return The size of the contents divided by the size used to store them or {@link Double#NaN} if it is unknown
+     */
+    public synchronized double getCompressionRatio() {
+        long now = System.currentTimeMillis();
+        if (!this.hasBeenSampled || now - this.lastSample >= this.sampleInterval) {
+            this.hasBeenSampled = true;
+            this.lastSample = now;
+            try {
+                IDocumentContentSizes contentSizes = this.documentRepository.sampleContentSizes(this.samplePercentage);
+                if (contentSizes != null && contentSizes.getStoredSize() > 0) {
+                    this.compressionRatio = (double) contentSizes.getContentSize() / contentSizes.getStoredSize();
+                }
+            } catch (RuntimeException exception) {
+                this.logger.warn(exception.getMessage(), exception);
+            }
+        }
+        return this.compressionRatio;
+    }
+}
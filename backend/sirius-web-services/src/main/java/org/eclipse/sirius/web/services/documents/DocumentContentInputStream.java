@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.documents;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Input stream used to read the content of a document as UTF-8.
+ *
+ * <p>
+ * The content is encoded lazily using a small buffer instead of being copied in a byte array as large as the whole
+ * document.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class DocumentContentInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CharBuffer charBuffer;
+
+    private final CharsetEncoder encoder;
+
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private boolean isEndOfInput;
+
+    private boolean isFlushed;
+
+    public DocumentContentInputStream(CharSequence content) {
+        this.charBuffer = CharBuffer.wrap(Objects.requireNonNull(content));
+        this.encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.byteBuffer.flip();
+    }
+
+    @Override
+    public int read() {
+        int result = -1;
+        if (this.hasRemaining()) {
+            result = this.byteBuffer.get() & 0xFF;
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        int result = 0;
+        if (length > 0) {
+            if (this.hasRemaining()) {
+                result = Math.min(length, this.byteBuffer.remaining());
+                this.byteBuffer.get(bytes, offset, result);
+            } else {
+                result = -1;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int available() {
+        return this.byteBuffer.remaining();
+    }
+
+    private boolean hasRemaining() {
+        if (!this.byteBuffer.hasRemaining()) {
+            this.fill();
+        }
+        return this.byteBuffer.hasRemaining();
+    }
+
+    private void fill() {
+        this.byteBuffer.clear();
+        if (!this.isEndOfInput) {
+            this.isEndOfInput = this.encoder.encode(this.charBuffer, this.byteBuffer, true).isUnderflow();
+        }
+        if (this.isEndOfInput && !this.isFlushed) {
+            this.isFlushed = this.encoder.flush(this.byteBuffer).isUnderflow();
+        }
+        this.byteBuffer.flip();
+    }
+}
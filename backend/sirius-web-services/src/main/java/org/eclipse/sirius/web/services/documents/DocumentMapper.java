@@ -31,6 +31,6 @@ public class DocumentMapper {
         var profile = new Profile(projectEntity.getOwner().getId(), projectEntity.getOwner().getUsername());
         var visibility = Visibility.valueOf(projectEntity.getVisibility().name());
         Project project = new Project(projectEntity.getId(), projectEntity.getName(), profile, visibility);
-        return new Document(documentEntity.getId(), project, documentEntity.getName(), documentEntity.getContent());
+        return new Document(documentEntity.getId(), project, documentEntity.getName(), documentEntity.getContent(), documentEntity.getContentHash());
     }
 }
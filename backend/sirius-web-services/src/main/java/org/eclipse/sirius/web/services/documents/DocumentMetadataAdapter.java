@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 package org.eclipse.sirius.web.services.documents;
 
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
@@ -33,6 +34,12 @@ import org.eclipse.emf.common.notify.Notifier;
 public class DocumentMetadataAdapter implements Adapter {
     private String name;
 
+    private String contentHash;
+
+    private Set<String> objectIds;
+
+    private int contentSize;
+
     private Notifier notifier;
 
     public DocumentMetadataAdapter(String name) {
@@ -47,6 +54,45 @@ public class DocumentMetadataAdapter implements Adapter {
         this.name = name;
     }
 
+    /**
+     * Returns the hash of the content of the document as it was last loaded from or written to the database.
+     *
+     * @return The hash of the content or <code>null</code> if it is not known
+     */
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Returns the ids of the objects of the document as it was last written to the database.
+     *
+     * @return The ids of the objects or <code>null</code> if they are not known
+     */
+    public Set<String> getObjectIds() {
+        return this.objectIds;
+    }
+
+    public void setObjectIds(Set<String> objectIds) {
+        this.objectIds = objectIds;
+    }
+
+    /**
+     * Returns the size in bytes of the last serialization of the document, used to presize the next one.
+     *
+     * @return The size of the last serialization or 0 if the document has not been serialized yet
+     */
+    public int getContentSize() {
+        return this.contentSize;
+    }
+
+    public void setContentSize(int contentSize) {
+        this.contentSize = contentSize;
+    }
+
     @Override
     public void notifyChanged(Notification notification) {
         // do nothing
@@ -12,9 +12,18 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.documents;
 
-import java.io.ByteArrayInputStream;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,15 +41,19 @@ import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.XMIResource;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
 import org.eclipse.sirius.emfjson.resource.JsonResource;
+import org.eclipse.sirius.web.domain.DomainPackage;
 import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
 import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
 import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
 import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.document.DocumentBytes;
 import org.eclipse.sirius.web.services.api.document.IDocumentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -51,18 +64,36 @@ import org.springframework.stereotype.Service;
 @Service
 public class DocumentService implements IDocumentService {
 
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
     private final IDocumentRepository documentRepository;
 
     private final IProjectRepository projectRepository;
 
     private final IEditingContextEPackageService editingContextEPackageService;
 
+    private final boolean isStudioDefinitionEnabled;
+
     private final Logger logger = LoggerFactory.getLogger(DocumentService.class);
 
-    public DocumentService(IProjectRepository projectRepository, IDocumentRepository documentRepository, IEditingContextEPackageService editingContextEPackageService) {
+    /**
+     * The XMI serializations of the documents, by document id and version.
+     */
+    private final Cache<XMIBytesKey, DocumentBytes> xmiBytesCache;
+
+    public DocumentService(IProjectRepository projectRepository, IDocumentRepository documentRepository, IEditingContextEPackageService editingContextEPackageService,
+            @Value("${org.eclipse.sirius.web.features.studioDefinition:false}") boolean isStudioDefinitionEnabled, @Value("${sirius.web.documents.xmi.cacheSize:67108864}") long cacheSize) {
         this.editingContextEPackageService = Objects.requireNonNull(editingContextEPackageService);
+        this.isStudioDefinitionEnabled = isStudioDefinitionEnabled;
         this.projectRepository = Objects.requireNonNull(projectRepository);
         this.documentRepository = Objects.requireNonNull(documentRepository);
+
+        // @formatter:off
+        this.xmiBytesCache = CacheBuilder.newBuilder()
+                .maximumWeight(cacheSize)
+                .weigher((XMIBytesKey key, DocumentBytes documentBytes) -> documentBytes.getRetainedSize())
+                .build();
+        // @formatter:on
     }
 
     @Override
@@ -73,6 +104,7 @@ public class DocumentService implements IDocumentService {
             documentEntity.setProject(projectEntity);
             documentEntity.setName(name);
             documentEntity.setContent(content);
+            documentEntity.setContentHash(this.computeHash(content));
 
             documentEntity = this.documentRepository.save(documentEntity);
 
@@ -107,34 +139,114 @@ public class DocumentService implements IDocumentService {
     }
 
     /**
-     * Returns the byte array of the serialization of the given document. The document can be serialized with a
-     * {@link JsonResource} or an {@link XMIResource}.
+     * Returns the version of the given serialization of the document. The XMI serialization also depends on the
+     * EPackages of the domains, its version thus changes once a domain document has been modified.
      *
+     * @param document
+     *            The document
+     * @param resourceKind
+     *            The resource kind of the serialization
+     * @return The version of the serialization
+     */
+    @Override
+    public String getVersion(Document document, String resourceKind) {
+        String version = this.getContentHash(document);
+        if (RESOURCE_KIND_XMI.equals(resourceKind)) {
+            String domainsVersion = this.getDomainsVersion();
+            if (!domainsVersion.isEmpty()) {
+                version = version + "-" + domainsVersion; //$NON-NLS-1$
+            }
+        }
+        return version + "-" + resourceKind; //$NON-NLS-1$
+    }
+
+    private String getContentHash(Document document) {
+        String contentHash = document.getContentHash();
+        if (contentHash == null) {
+            contentHash = this.computeHash(document.getContent());
+        }
+        return contentHash;
+    }
+
+    /**
+     * Returns the version of the domain documents, computed from their ids and their content hashes. Only the versions
+     * of the domain documents are retrieved, their content is not loaded.
+     *
+     * @return The version of the domain documents or an empty string if the domains are not used
+     */
+    private String getDomainsVersion() {
+        String domainsVersion = ""; //$NON-NLS-1$
+        if (this.isStudioDefinitionEnabled) {
+            // @formatter:off
+            String domainVersions = this.documentRepository.findAllVersionsByType(DomainPackage.eNAME, DomainPackage.eNS_URI).stream()
+                    .sorted(Comparator.comparing(IDocumentVersion::getId))
+                    .map(documentVersion -> documentVersion.getId() + ":" + documentVersion.getContentHash()) //$NON-NLS-1$
+                    .collect(Collectors.joining(",")); //$NON-NLS-1$
+            // @formatter:on
+            domainsVersion = this.computeHash(domainVersions);
+        }
+        return domainsVersion;
+    }
+
+    private String computeHash(String content) {
+        String contentHash = ""; //$NON-NLS-1$
+        try (var inputStream = new DigestInputStream(new DocumentContentInputStream(content), MessageDigest.getInstance(CONTENT_HASH_ALGORITHM))) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+            contentHash = String.format("%064x", new BigInteger(1, inputStream.getMessageDigest().digest())); //$NON-NLS-1$
+        } catch (IOException | NoSuchAlgorithmException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return contentHash;
+    }
+
+    /**
+     * Returns the serialization of the given document. The document can be serialized with a {@link JsonResource} or
+     * an {@link XMIResource}.
+     *
+     * <p>
+     * The XMI serializations are cached by document id, content hash and version of the domains, they are thus only
+     * computed again once the content of the document or a domain has changed or once they have been evicted to respect
+     * the maximum size of the cache.
+     * </p>
      *
      * @param document
      *            The document to serialize
      * @param resourceKind
      *            The resource kind used to determine which {@link Resource} will be used to serialize the document
-     * @return The byte array to the serialized document
+     * @return The serialized document
      */
     @Override
-    public Optional<byte[]> getBytes(Document document, String resourceKind) {
-        Optional<byte[]> optionalBytes = Optional.empty();
-        Resource outputResource = null;
-        Map<String, Object> options = new HashMap<>();
-
+    public Optional<DocumentBytes> getBytes(Document document, String resourceKind) {
+        Optional<DocumentBytes> optionalBytes = Optional.empty();
         if (RESOURCE_KIND_JSON.equals(resourceKind)) {
-            optionalBytes = Optional.of(document.getContent().getBytes());
+            byte[] bytes = document.getContent().getBytes(StandardCharsets.UTF_8);
+            optionalBytes = Optional.of(new DocumentBytes(bytes, bytes.length));
         } else if (RESOURCE_KIND_XMI.equals(resourceKind)) {
-            outputResource = new XMIResourceImpl(URI.createURI(document.getName()));
-            options.put(XMIResource.OPTION_ENCODING, JsonResource.ENCODING_UTF_8);
-            options.put(XMIResource.OPTION_SCHEMA_LOCATION, Boolean.TRUE);
-            options.put(XMIResource.OPTION_USE_XMI_TYPE, Boolean.TRUE);
+            XMIBytesKey key = new XMIBytesKey(document.getId(), this.getContentHash(document), this.getDomainsVersion());
+            optionalBytes = Optional.ofNullable(this.xmiBytesCache.getIfPresent(key));
+            if (optionalBytes.isEmpty()) {
+                optionalBytes = this.getXMIBytes(document);
+                optionalBytes.ifPresent(documentBytes -> this.xmiBytesCache.put(key, documentBytes));
+            }
         }
+        return optionalBytes;
+    }
 
-        if (outputResource == null) {
-            return optionalBytes;
-        }
+    /**
+     * Converts the given document to XMI. The JSON content is parsed as a stream and the XMI serialization is kept in
+     * the buffer used to write it, without any intermediate copy.
+     *
+     * @param document
+     *            The document to convert
+     * @return The XMI serialization of the document
+     */
+    private Optional<DocumentBytes> getXMIBytes(Document document) {
+        Optional<DocumentBytes> optionalBytes = Optional.empty();
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(XMIResource.OPTION_ENCODING, JsonResource.ENCODING_UTF_8);
+        options.put(XMIResource.OPTION_SCHEMA_LOCATION, Boolean.TRUE);
+        options.put(XMIResource.OPTION_USE_XMI_TYPE, Boolean.TRUE);
 
         EPackageRegistryImpl ePackageRegistryImpl = new EPackageRegistryImpl();
         List<EPackage> ePackages = this.editingContextEPackageService.getEPackages(document.getProject().getId());
@@ -144,16 +256,16 @@ public class DocumentService implements IDocumentService {
 
         URI uri = URI.createURI(document.getName());
         JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
+        Resource outputResource = new XMIResourceImpl(uri);
         resourceSet.getResources().add(resource);
         resourceSet.getResources().add(outputResource);
 
-        try (var inputStream = new ByteArrayInputStream(document.getContent().getBytes())) {
+        try (var inputStream = new DocumentContentInputStream(document.getContent())) {
             resource.load(inputStream, new HashMap<>());
             outputResource.getContents().addAll(resource.getContents());
-            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();) {
-
+            try (DocumentBytesOutputStream outputStream = new DocumentBytesOutputStream()) {
                 outputResource.save(outputStream, options);
-                optionalBytes = Optional.of(outputStream.toByteArray());
+                optionalBytes = Optional.of(outputStream.toDocumentBytes());
             }
         } catch (IOException exception) {
             this.logger.warn(exception.getMessage(), exception);
@@ -172,4 +284,50 @@ public class DocumentService implements IDocumentService {
         }
         return Optional.empty();
     }
+
+    /**
+     * The key of the XMI serialization of a version of a document.
+     *
+     * @author sbegaudeau
+     */
+    private static final class XMIBytesKey {
+        private final UUID documentId;
+
+        private final String contentHash;
+
+        private final String domainsVersion;
+
+        XMIBytesKey(UUID documentId, String contentHash, String domainsVersion) {
+            this.documentId = Objects.requireNonNull(documentId);
+            this.contentHash = Objects.requireNonNull(contentHash);
+            this.domainsVersion = Objects.requireNonNull(domainsVersion);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean isEqual = this == object;
+            if (!isEqual && object instanceof XMIBytesKey) {
+                XMIBytesKey key = (XMIBytesKey) object;
+                isEqual = this.documentId.equals(key.documentId) && this.contentHash.equals(key.contentHash) && this.domainsVersion.equals(key.domainsVersion);
+            }
+            return isEqual;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.documentId, this.contentHash, this.domainsVersion);
+        }
+    }
+
+    /**
+     * Output stream giving access to its buffer in order to avoid copying it once the serialization is over.
+     *
+     * @author sbegaudeau
+     */
+    private static final class DocumentBytesOutputStream extends ByteArrayOutputStream {
+
+        DocumentBytes toDocumentBytes() {
+            return new DocumentBytes(this.buf, this.count);
+        }
+    }
 }
@@ -12,36 +12,21 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.documents;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EPackage;
-import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
-import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
 import org.eclipse.emf.edit.domain.AdapterFactoryEditingDomain;
 import org.eclipse.sirius.emfjson.resource.JsonResource;
-import org.eclipse.sirius.emfjson.resource.JsonResourceImpl;
 import org.eclipse.sirius.web.core.api.ErrorPayload;
 import org.eclipse.sirius.web.core.api.IEditingContext;
 import org.eclipse.sirius.web.core.api.IInput;
 import org.eclipse.sirius.web.core.api.IPayload;
 import org.eclipse.sirius.web.emf.services.EditingContext;
-import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
-import org.eclipse.sirius.web.emf.utils.EMFResourceUtils;
 import org.eclipse.sirius.web.services.api.document.Document;
 import org.eclipse.sirius.web.services.api.document.IDocumentService;
 import org.eclipse.sirius.web.services.api.document.UploadDocumentInput;
@@ -53,12 +38,11 @@ import org.eclipse.sirius.web.spring.collaborative.api.EventHandlerResponse;
 import org.eclipse.sirius.web.spring.collaborative.api.IEditingContextEventHandler;
 import org.eclipse.sirius.web.spring.collaborative.api.Monitoring;
 import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Event handler used to create a new document from a file upload.
@@ -68,7 +52,7 @@ import io.micrometer.core.instrument.MeterRegistry;
 @Service
 public class UploadDocumentEventHandler implements IEditingContextEventHandler {
 
-    private final Logger logger = LoggerFactory.getLogger(UploadDocumentEventHandler.class);
+    private static final String TIMER_NAME = "siriusweb_document_upload"; //$NON-NLS-1$
 
     private final IDocumentService documentService;
 
@@ -76,6 +60,8 @@ public class UploadDocumentEventHandler implements IEditingContextEventHandler {
 
     private final Counter counter;
 
+    private final Timer timer;
+
     public UploadDocumentEventHandler(IDocumentService documentService, IServicesMessageService messageService, MeterRegistry meterRegistry) {
         this.documentService = Objects.requireNonNull(documentService);
         this.messageService = Objects.requireNonNull(messageService);
@@ -84,6 +70,10 @@ public class UploadDocumentEventHandler implements IEditingContextEventHandler {
         this.counter = Counter.builder(Monitoring.EVENT_HANDLER)
                 .tag(Monitoring.NAME, this.getClass().getSimpleName())
                 .register(meterRegistry);
+
+        this.timer = Timer.builder(TIMER_NAME)
+                .tag(Monitoring.NAME, this.getClass().getSimpleName())
+                .register(meterRegistry);
         // @formatter:on
     }
 
@@ -96,15 +86,31 @@ public class UploadDocumentEventHandler implements IEditingContextEventHandler {
     public EventHandlerResponse handle(IEditingContext editingContext, IInput input) {
         this.counter.increment();
 
+        long start = System.currentTimeMillis();
         EventHandlerResponse response = new EventHandlerResponse(new ChangeDescription(ChangeKind.NOTHING, editingContext.getId()),
                 new ErrorPayload(input.getId(), this.messageService.unexpectedError()));
-        if (!(input instanceof UploadDocumentInput)) {
-            return response;
+        if (input instanceof UploadDocumentInput) {
+            response = this.handleUpload(editingContext, (UploadDocumentInput) input).orElse(response);
         }
+        long end = System.currentTimeMillis();
+        this.timer.record(end - start, TimeUnit.MILLISECONDS);
 
-        UploadDocumentInput uploadDocumentInput = (UploadDocumentInput) input;
-        UUID projectId = uploadDocumentInput.getEditingContextId();
-        UploadFile file = uploadDocumentInput.getFile();
+        return response;
+    }
+
+    /**
+     * Loads the uploaded file once, gives new ids to its objects in place, persists its serialization and then adds the
+     * loaded resource itself to the resource set of the editing context.
+     *
+     * @param editingContext
+     *            The editing context
+     * @param input
+     *            The upload input
+     * @return The response if the document has been created, an empty optional otherwise
+     */
+    private Optional<EventHandlerResponse> handleUpload(IEditingContext editingContext, UploadDocumentInput input) {
+        UUID projectId = input.getEditingContextId();
+        UploadFile file = input.getFile();
 
         // @formatter:off
         Optional<AdapterFactoryEditingDomain> optionalEditingDomain = Optional.of(editingContext)
@@ -113,114 +119,44 @@ public class UploadDocumentEventHandler implements IEditingContextEventHandler {
                 .map(EditingContext::getDomain);
         // @formatter:on
 
-        String name = file.getName().trim();
-        if (optionalEditingDomain.isPresent()) {
-            AdapterFactoryEditingDomain adapterFactoryEditingDomain = optionalEditingDomain.get();
-
-            String content = this.getContent(adapterFactoryEditingDomain.getResourceSet().getPackageRegistry(), file);
-            var optionalDocument = this.documentService.createDocument(projectId, name, content);
-
-            if (optionalDocument.isPresent()) {
-                Document document = optionalDocument.get();
-                ResourceSet resourceSet = adapterFactoryEditingDomain.getResourceSet();
-                URI uri = URI.createURI(document.getId().toString());
-
-                if (resourceSet.getResource(uri, false) == null) {
-
-                    ResourceSet loadingResourceSet = new ResourceSetImpl();
-                    loadingResourceSet.setPackageRegistry(resourceSet.getPackageRegistry());
-
-                    JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
-                    loadingResourceSet.getResources().add(resource);
-                    try (var inputStream = new ByteArrayInputStream(document.getContent().getBytes())) {
-                        resource.load(inputStream, null);
-                    } catch (IOException exception) {
-                        this.logger.warn(exception.getMessage(), exception);
-                    }
+        if (optionalEditingDomain.isEmpty()) {
+            return Optional.empty();
+        }
 
-                    resource.eAdapters().add(new DocumentMetadataAdapter(name));
-                    resourceSet.getResources().add(resource);
+        String name = file.getName().trim();
+        ResourceSet resourceSet = optionalEditingDomain.get().getResourceSet();
+        UploadedDocumentConverter converter = new UploadedDocumentConverter(resourceSet.getPackageRegistry());
 
-                    IPayload payload = new UploadDocumentSuccessPayload(input.getId(), document);
-                    response = new EventHandlerResponse(new ChangeDescription(ChangeKind.SEMANTIC_CHANGE, editingContext.getId()), payload);
-                }
-            }
+        Optional<JsonResource> optionalResource = converter.load(file, new HashMap<>());
+        if (optionalResource.isEmpty()) {
+            return Optional.empty();
         }
-        return response;
-    }
+        JsonResource resource = optionalResource.get();
 
-    private String getContent(EPackage.Registry registry, UploadFile file) {
-        String uri = file.getName();
-        String content = ""; //$NON-NLS-1$
-        ResourceSet resourceSet = new ResourceSetImpl();
-        resourceSet.setPackageRegistry(registry);
-        try (var inputStream = file.getInputStream()) {
-            URI resourceURI = URI.createURI(uri);
-            Optional<Resource> optionalInputResource = this.getResource(inputStream, resourceURI, resourceSet);
-            if (optionalInputResource.isPresent()) {
-                Resource inputResource = optionalInputResource.get();
-                JsonResource ouputResource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(uri));
-                resourceSet.getResources().add(ouputResource);
-                ouputResource.getContents().addAll(inputResource.getContents());
-
-                try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                    Map<String, Object> saveOptions = new HashMap<>();
-                    saveOptions.put(JsonResource.OPTION_ENCODING, JsonResource.ENCODING_UTF_8);
-                    saveOptions.put(JsonResource.OPTION_SCHEMA_LOCATION, Boolean.TRUE);
-                    saveOptions.put(JsonResource.OPTION_ID_MANAGER, new EObjectRandomIDManager());
-
-                    ouputResource.save(outputStream, saveOptions);
-
-                    content = outputStream.toString();
-                }
-            }
-        } catch (IOException exception) {
-            this.logger.warn(exception.getMessage(), exception);
+        // @formatter:off
+        Optional<Document> optionalDocument = converter.toJson(resource)
+                .flatMap(content -> this.documentService.createDocument(projectId, name, content));
+        // @formatter:on
+        if (optionalDocument.isEmpty()) {
+            return Optional.empty();
         }
-        return content;
-    }
+        Document document = optionalDocument.get();
 
-    /**
-     * Returns the {@link Resource} with the given {@link URI} or {@link Optional#empty()} regarding to the content of
-     * the first line of the given {@link InputStream}.
-     *
-     * <p>
-     * Returns a {@link JsonResourceImpl} if the first line contains a '{', a {@link XMIResourceImpl} if the first line
-     * contains '<', {@link Optional#empty()} otherwise.
-     * </p>
-     *
-     * @param inputStream
-     *            The {@link InputStream} used to determine which {@link Resource} to create
-     * @param resourceURI
-     *            The {@link URI} to use to create the {@link Resource}
-     * @param resourceSet
-     *            The {@link ResourceSet} used to store the loaded resource
-     * @return a {@link JsonResourceImpl}, a {@link XMIResourceImpl} or {@link Optional#empty()}
-     */
-    private Optional<Resource> getResource(InputStream inputStream, URI resourceURI, ResourceSet resourceSet) {
-        Resource resource = null;
-        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
-        bufferedInputStream.mark(Integer.MAX_VALUE);
-        try (var reader = new BufferedReader(new InputStreamReader(bufferedInputStream, StandardCharsets.UTF_8))) {
-            String line = reader.readLine();
-            Map<String, Object> options = new HashMap<>();
-            if (line != null) {
-                if (line.contains("{")) { //$NON-NLS-1$
-                    resource = new SiriusWebJSONResourceFactoryImpl().createResource(resourceURI);
-                } else if (line.contains("<")) { //$NON-NLS-1$
-                    resource = new XMIResourceImpl(resourceURI);
-                    options = new EMFResourceUtils().getXMILoadOptions();
-                }
-            }
-            bufferedInputStream.reset();
-            if (resource != null) {
-                resourceSet.getResources().add(resource);
-                resource.load(bufferedInputStream, options);
-            }
-        } catch (IOException exception) {
-            this.logger.warn(exception.getMessage(), exception);
+        URI uri = URI.createURI(document.getId().toString());
+        if (resourceSet.getResource(uri, false) != null) {
+            return Optional.empty();
         }
-        return Optional.ofNullable(resource);
+
+        resource.setURI(uri);
+        resource.setTrackingModification(true);
+
+        DocumentMetadataAdapter documentMetadataAdapter = new DocumentMetadataAdapter(name);
+        documentMetadataAdapter.setContentHash(document.getContentHash());
+        resource.eAdapters().add(documentMetadataAdapter);
+        resourceSet.getResources().add(resource);
+
+        IPayload payload = new UploadDocumentSuccessPayload(input.getId(), document);
+        return Optional.of(new EventHandlerResponse(new ChangeDescription(ChangeKind.SEMANTIC_CHANGE, editingContext.getId()), payload));
     }
 
 }
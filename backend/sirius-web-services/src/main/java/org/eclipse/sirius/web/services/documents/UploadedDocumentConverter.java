@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.documents;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.sirius.emfjson.resource.IDManager;
+import org.eclipse.sirius.emfjson.resource.JsonResource;
+import org.eclipse.sirius.emfjson.resource.JsonResourceImpl;
+import org.eclipse.sirius.web.emf.services.EObjectIDManager;
+import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
+import org.eclipse.sirius.web.emf.utils.EMFResourceUtils;
+import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts an uploaded file, serialized in JSON or in XMI, to the JSON content of a new document.
+ *
+ * <p>
+ * New ids are given to all the objects of the document in order to prevent any conflict with the existing objects. The
+ * ids are stored in the objects themselves, the loaded resource can thus be serialized and then used as is by an
+ * editing context.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class UploadedDocumentConverter {
+
+    private static final int FORMAT_DETECTION_LIMIT = 8192;
+
+    private final Logger logger = LoggerFactory.getLogger(UploadedDocumentConverter.class);
+
+    private final EPackage.Registry registry;
+
+    public UploadedDocumentConverter(EPackage.Registry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    /**
+     * Returns the JSON content of the given uploaded file.
+     *
+     * @param file
+     *            The uploaded file
+     * @param uriFragmentToId
+     *            The map which will be filled with the URI fragment of each object in the uploaded file associated to
+     *            the new id of the object
+     * @return The JSON content or an empty string if the file could not be read
+     */
+    public String toJson(UploadFile file, Map<String, String> uriFragmentToId) {
+        return this.load(file, uriFragmentToId).flatMap(this::toJson).orElse(""); //$NON-NLS-1$
+    }
+
+    /**
+     * Loads the given uploaded file in a JSON resource, in which new ids are given to all the objects. The objects are
+     * loaded only once, they are moved in the JSON resource if the file has been serialized in XMI.
+     *
+     * @param file
+     *            The uploaded file
+     * @param uriFragmentToId
+     *            The map which will be filled with the URI fragment of each object in the uploaded file associated to
+     *            the new id of the object
+     * @return The JSON resource, empty if the format of the file is not supported, or an empty optional if the file
+     *         could not be read
+     */
+    public Optional<JsonResource> load(UploadFile file, Map<String, String> uriFragmentToId) {
+        Optional<JsonResource> optionalJsonResource = Optional.empty();
+
+        URI resourceURI = URI.createURI(file.getName());
+        ResourceSet resourceSet = new ResourceSetImpl();
+        resourceSet.setPackageRegistry(this.registry);
+        try (var inputStream = file.getInputStream()) {
+            // An empty document is created if the format of the uploaded file is not supported
+            Resource inputResource = this.getResource(inputStream, resourceURI, resourceSet).orElseGet(() -> {
+                JsonResource emptyResource = new SiriusWebJSONResourceFactoryImpl().createResource(resourceURI);
+                resourceSet.getResources().add(emptyResource);
+                return emptyResource;
+            });
+
+            Map<EObject, String> eObjectToURIFragment = new LinkedHashMap<>();
+            TreeIterator<EObject> iterator = inputResource.getAllContents();
+            while (iterator.hasNext()) {
+                EObject eObject = iterator.next();
+                eObjectToURIFragment.put(eObject, inputResource.getURIFragment(eObject));
+            }
+
+            JsonResource jsonResource;
+            if (inputResource instanceof JsonResource) {
+                jsonResource = (JsonResource) inputResource;
+            } else {
+                jsonResource = new SiriusWebJSONResourceFactoryImpl().createResource(resourceURI);
+                resourceSet.getResources().add(jsonResource);
+                jsonResource.getContents().addAll(inputResource.getContents());
+            }
+
+            IDManager idManager = new EObjectIDManager();
+            eObjectToURIFragment.forEach((eObject, uriFragment) -> {
+                String id = UUID.randomUUID().toString();
+                idManager.clearId(eObject);
+                idManager.setId(eObject, id);
+                uriFragmentToId.put(uriFragment, id);
+            });
+            optionalJsonResource = Optional.of(jsonResource);
+        } catch (IOException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return optionalJsonResource;
+    }
+
+    /**
+     * Serializes the given JSON resource, keeping the ids of its objects.
+     *
+     * @param jsonResource
+     *            The JSON resource
+     * @return The JSON content or an empty optional if the resource could not be serialized
+     */
+    public Optional<String> toJson(JsonResource jsonResource) {
+        Optional<String> optionalContent = Optional.empty();
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Map<String, Object> saveOptions = new HashMap<>();
+            saveOptions.put(JsonResource.OPTION_ENCODING, JsonResource.ENCODING_UTF_8);
+            saveOptions.put(JsonResource.OPTION_SCHEMA_LOCATION, Boolean.TRUE);
+            saveOptions.put(JsonResource.OPTION_ID_MANAGER, new EObjectIDManager());
+
+            jsonResource.save(outputStream, saveOptions);
+
+            optionalContent = Optional.of(outputStream.toString(StandardCharsets.UTF_8));
+        } catch (IOException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return optionalContent;
+    }
+
+    /**
+     * Returns the {@link Resource} with the given {@link URI} or {@link Optional#empty()} regarding to the content of
+     * the first line of the given {@link InputStream}.
+     *
+     * <p>
+     * Returns a {@link JsonResourceImpl} if the first line contains a '{', a {@link XMIResourceImpl} if the first line
+     * contains '<', {@link Optional#empty()} otherwise. Only the beginning of the first line is read to detect the
+     * format, the stream is then loaded without being buffered entirely.
+     * </p>
+     *
+     * @param inputStream
+     *            The {@link InputStream} used to determine which {@link Resource} to create
+     * @param resourceURI
+     *            The {@link URI} to use to create the {@link Resource}
+     * @param resourceSet
+     *            The {@link ResourceSet} used to store the loaded resource
+     * @return a {@link JsonResourceImpl}, a {@link XMIResourceImpl} or {@link Optional#empty()}
+     */
+    private Optional<Resource> getResource(InputStream inputStream, URI resourceURI, ResourceSet resourceSet) {
+        Resource resource = null;
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, FORMAT_DETECTION_LIMIT);
+        bufferedInputStream.mark(FORMAT_DETECTION_LIMIT);
+        try {
+            Optional<String> optionalLine = this.readFirstLine(bufferedInputStream);
+            Map<String, Object> options = new HashMap<>();
+            if (optionalLine.isPresent()) {
+                String line = optionalLine.get();
+                if (line.contains("{")) { //$NON-NLS-1$
+                    resource = new SiriusWebJSONResourceFactoryImpl().createResource(resourceURI);
+                } else if (line.contains("<")) { //$NON-NLS-1$
+                    resource = new XMIResourceImpl(resourceURI);
+                    options = new EMFResourceUtils().getXMILoadOptions();
+                }
+            }
+            bufferedInputStream.reset();
+            if (resource != null) {
+                resourceSet.getResources().add(resource);
+                resource.load(bufferedInputStream, options);
+            }
+        } catch (IOException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return Optional.ofNullable(resource);
+    }
+
+    /**
+     * Reads the first line of the given input stream, up to {@link #FORMAT_DETECTION_LIMIT} bytes.
+     *
+     * @param inputStream
+     *            The input stream
+     * @return The first line or {@link Optional#empty()} if the input stream is empty
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    private Optional<String> readFirstLine(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        int read = inputStream.read();
+        if (read == -1) {
+            return Optional.empty();
+        }
+        while (read != -1 && read != '\n' && outputStream.size() < FORMAT_DETECTION_LIMIT - 1) {
+            outputStream.write(read);
+            read = inputStream.read();
+        }
+        return Optional.of(outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
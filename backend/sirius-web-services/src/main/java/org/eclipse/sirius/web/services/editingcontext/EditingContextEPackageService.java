@@ -12,14 +12,15 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.editingcontext;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.emf.common.util.URI;
@@ -35,20 +36,41 @@ import org.eclipse.sirius.web.emf.domain.DomainConverter;
 import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
 import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.eclipse.sirius.web.services.api.events.DocumentsModifiedEvent;
+import org.eclipse.sirius.web.services.documents.DocumentContentInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * A service used to retrieve all the EPackages accessible for given editing context.
  *
+ * <p>
+ * The EPackages converted from the domain documents are shared by all the editing contexts and they may be used
+ * concurrently. They must thus be considered as read-only, they are only replaced by new instances once a domain
+ * document has been modified.
+ * </p>
+ *
  * @author sbegaudeau
  */
 @Service
 public class EditingContextEPackageService implements IEditingContextEPackageService {
 
+    private static final String CACHE_COUNTER_NAME = "siriusweb_domain_epackages_cache"; //$NON-NLS-1$
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    private static final String RESULT_HIT = "hit"; //$NON-NLS-1$
+
+    private static final String RESULT_MISS = "miss"; //$NON-NLS-1$
+
     private final Logger logger = LoggerFactory.getLogger(EditingContextEPackageService.class);
 
     private final EPackage.Registry globalEPackageRegistry;
@@ -57,11 +79,20 @@ public class EditingContextEPackageService implements IEditingContextEPackageSer
 
     private final boolean isStudioDefinitionEnabled;
 
+    private volatile ConvertedDomainDocuments convertedDomainDocuments;
+
+    private final Counter cacheHitCounter;
+
+    private final Counter cacheMissCounter;
+
     public EditingContextEPackageService(EPackage.Registry globalEPackageRegistry, IDocumentRepository documentRepository,
-            @Value("${org.eclipse.sirius.web.features.studioDefinition:false}") boolean isStudioDefinitionEnabled) {
+            @Value("${org.eclipse.sirius.web.features.studioDefinition:false}") boolean isStudioDefinitionEnabled, MeterRegistry meterRegistry) {
         this.globalEPackageRegistry = Objects.requireNonNull(globalEPackageRegistry);
         this.documentRepository = Objects.requireNonNull(documentRepository);
         this.isStudioDefinitionEnabled = isStudioDefinitionEnabled;
+
+        this.cacheHitCounter = Counter.builder(CACHE_COUNTER_NAME).tag(RESULT, RESULT_HIT).register(meterRegistry);
+        this.cacheMissCounter = Counter.builder(CACHE_COUNTER_NAME).tag(RESULT, RESULT_MISS).register(meterRegistry);
     }
 
     @Override
@@ -76,7 +107,7 @@ public class EditingContextEPackageService implements IEditingContextEPackageSer
             }
         });
         if (this.isStudioDefinitionEnabled) {
-            this.findDynamicEPackages(new DomainConverter()::convert).forEach(ePackage -> {
+            this.findDynamicEPackages().forEach(ePackage -> {
                 EPackage previous = allEPackages.put(ePackage.getNsURI(), ePackage);
                 if (previous != null) {
                     this.logger.warn("Duplicate EPackages with nsURI {} found.", ePackage.getNsURI()); //$NON-NLS-1$
@@ -94,27 +125,77 @@ public class EditingContextEPackageService implements IEditingContextEPackageSer
     }
 
     /**
-     * Returns all the EPackages defined by a Domain definition.
+     * Forgets the EPackages converted from the domain documents if one of them has been modified.
+     *
+     * @param documentsModifiedEvent
+     *            The event indicating which documents have been modified
      */
-    private Stream<EPackage> findDynamicEPackages(Function<Domain, Optional<EPackage>> domainConverter) {
+    @EventListener
+    public void onDocumentsModified(DocumentsModifiedEvent documentsModifiedEvent) {
+        ConvertedDomainDocuments currentConvertedDomainDocuments = this.convertedDomainDocuments;
+        if (currentConvertedDomainDocuments != null && documentsModifiedEvent.getDocuments().stream().anyMatch(document -> currentConvertedDomainDocuments.contains(document.getId()))) {
+            this.convertedDomainDocuments = null;
+        }
+    }
+
+    /**
+     * Returns all the EPackages defined by a Domain definition. Only the versions of the domain documents are
+     * retrieved, their content is only loaded and converted again if the version of one of them has changed since their
+     * last conversion or if a domain document has been created or deleted.
+     *
+     * <p>
+     * The domain documents are always converted together, in the same resource set and with the same converter, since
+     * the entities of a domain may reference the entities of another domain.
+     * </p>
+     */
+    private Stream<EPackage> findDynamicEPackages() {
+        Map<UUID, String> versions = new LinkedHashMap<>();
+        List<IDocumentVersion> documentVersions = this.documentRepository.findAllVersionsByType(DomainPackage.eNAME, DomainPackage.eNS_URI);
+        for (IDocumentVersion documentVersion : documentVersions) {
+            versions.put(UUID.fromString(documentVersion.getId()), documentVersion.getContentHash());
+        }
+
+        ConvertedDomainDocuments currentConvertedDomainDocuments = this.convertedDomainDocuments;
+        if (currentConvertedDomainDocuments != null && currentConvertedDomainDocuments.getVersions().equals(versions)) {
+            this.cacheHitCounter.increment();
+        } else {
+            this.cacheMissCounter.increment();
+
+            List<EPackage> ePackages = List.of();
+            if (!versions.isEmpty()) {
+                ePackages = this.convert(this.documentRepository.findAllById(versions.keySet()), new DomainConverter()::convert);
+            }
+            currentConvertedDomainDocuments = new ConvertedDomainDocuments(versions, ePackages);
+
+            // Documents without content hash are never considered as up to date since their version is unknown
+            if (versions.values().stream().allMatch(Objects::nonNull)) {
+                this.convertedDomainDocuments = currentConvertedDomainDocuments;
+            } else {
+                this.convertedDomainDocuments = null;
+            }
+        }
+        return currentConvertedDomainDocuments.getEPackages().stream();
+    }
+
+    private List<EPackage> convert(Iterable<DocumentEntity> domainDocumentEntities, Function<Domain, Optional<EPackage>> domainConverter) {
         ResourceSet resourceSet = new ResourceSetImpl();
 
         EPackageRegistryImpl ePackageRegistry = new EPackageRegistryImpl();
         this.globalEPackageRegistry.forEach(ePackageRegistry::put);
         resourceSet.setPackageRegistry(ePackageRegistry);
 
-        var domainDocumentEntities = this.documentRepository.findAllByType(DomainPackage.eNAME, DomainPackage.eNS_URI);
         for (DocumentEntity domainDocumentEntity : domainDocumentEntities) {
             this.loadDomainDefinitions(resourceSet, domainDocumentEntity);
         }
 
-        return resourceSet.getResources().stream().flatMap(res -> this.convertDomains(res, domainConverter));
+        // The resources are copied since resolving a dangling reference between domains may add a resource
+        return List.copyOf(resourceSet.getResources()).stream().flatMap(res -> this.convertDomains(res, domainConverter)).collect(Collectors.toList());
     }
 
     private void loadDomainDefinitions(ResourceSet resourceSet, DocumentEntity domainDocument) {
         URI uri = URI.createURI(domainDocument.getId().toString());
         JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
-        try (var inputStream = new ByteArrayInputStream(domainDocument.getContent().getBytes())) {
+        try (var inputStream = new DocumentContentInputStream(domainDocument.getContent())) {
             resourceSet.getResources().add(resource);
             resource.load(inputStream, null);
         } catch (IOException | IllegalArgumentException exception) {
@@ -132,4 +213,31 @@ public class EditingContextEPackageService implements IEditingContextEPackageSer
         // @formatter:on
     }
 
+    /**
+     * The EPackages converted from a set of versions of the domain documents.
+     *
+     * @author sbegaudeau
+     */
+    private static final class ConvertedDomainDocuments {
+        private final Map<UUID, String> versions;
+
+        private final List<EPackage> ePackages;
+
+        ConvertedDomainDocuments(Map<UUID, String> versions, List<EPackage> ePackages) {
+            this.versions = Objects.requireNonNull(versions);
+            this.ePackages = List.copyOf(ePackages);
+        }
+
+        public Map<UUID, String> getVersions() {
+            return this.versions;
+        }
+
+        public boolean contains(UUID documentId) {
+            return this.versions.containsKey(documentId);
+        }
+
+        public List<EPackage> getEPackages() {
+            return this.ePackages;
+        }
+    }
 }
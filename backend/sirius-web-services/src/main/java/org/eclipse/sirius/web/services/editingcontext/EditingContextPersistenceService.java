@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -14,15 +14,26 @@ package org.eclipse.sirius.web.services.editingcontext;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.edit.domain.EditingDomain;
 import org.eclipse.sirius.emfjson.resource.JsonResource;
@@ -31,15 +42,21 @@ import org.eclipse.sirius.web.core.api.IEditingContextPersistenceService;
 import org.eclipse.sirius.web.emf.services.EObjectIDManager;
 import org.eclipse.sirius.web.emf.services.EditingContext;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
-import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
+import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.persistence.writers.DocumentContentUpdate;
+import org.eclipse.sirius.web.persistence.writers.IDocumentContentWriter;
 import org.eclipse.sirius.web.services.api.document.Document;
 import org.eclipse.sirius.web.services.api.events.DocumentsModifiedEvent;
 import org.eclipse.sirius.web.services.documents.DocumentMapper;
+import org.eclipse.sirius.web.services.documents.DocumentMetadataAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
@@ -49,56 +66,212 @@ import io.micrometer.core.instrument.Timer;
  * @author sbegaudeau
  */
 @Service
-public class EditingContextPersistenceService implements IEditingContextPersistenceService {
+public class EditingContextPersistenceService implements IEditingContextPersistenceService, DisposableBean {
 
     private static final String TIMER_NAME = "siriusweb_editingcontext_save"; //$NON-NLS-1$
 
+    private static final String RESOURCES_COUNTER_NAME = "siriusweb_editingcontext_save_resources"; //$NON-NLS-1$
+
+    private static final String STATUS = "status"; //$NON-NLS-1$
+
+    private static final String STATUS_WRITTEN = "written"; //$NON-NLS-1$
+
+    private static final String STATUS_SKIPPED = "skipped"; //$NON-NLS-1$
+
+    private static final String STATUS_UNCHANGED = "unchanged"; //$NON-NLS-1$
+
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final Logger logger = LoggerFactory.getLogger(EditingContextPersistenceService.class);
 
-    private final IDocumentRepository documentRepository;
+    private final IDocumentContentWriter documentContentWriter;
+
+    private final IProjectRepository projectRepository;
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
+    private final EditingContextWriteBehindQueue writeBehindQueue;
+
+    /**
+     * The ids of the documents whose last write has failed, they will be written again by the next persist whatever
+     * their state.
+     */
+    private final Set<UUID> failedDocumentIds = ConcurrentHashMap.newKeySet();
+
     private final Timer timer;
 
-    public EditingContextPersistenceService(IDocumentRepository documentRepository, ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry) {
-        this.documentRepository = Objects.requireNonNull(documentRepository);
+    private final Counter writtenResourcesCounter;
+
+    private final Counter skippedResourcesCounter;
+
+    private final Counter unchangedResourcesCounter;
+
+    public EditingContextPersistenceService(IDocumentContentWriter documentContentWriter, IProjectRepository projectRepository, ApplicationEventPublisher applicationEventPublisher,
+            EditingContextWriteBehindQueue writeBehindQueue, MeterRegistry meterRegistry) {
+        this.documentContentWriter = Objects.requireNonNull(documentContentWriter);
+        this.projectRepository = Objects.requireNonNull(projectRepository);
         this.applicationEventPublisher = Objects.requireNonNull(applicationEventPublisher);
+        this.writeBehindQueue = Objects.requireNonNull(writeBehindQueue);
 
         this.timer = Timer.builder(TIMER_NAME).register(meterRegistry);
+        this.writtenResourcesCounter = Counter.builder(RESOURCES_COUNTER_NAME).tag(STATUS, STATUS_WRITTEN).register(meterRegistry);
+        this.skippedResourcesCounter = Counter.builder(RESOURCES_COUNTER_NAME).tag(STATUS, STATUS_SKIPPED).register(meterRegistry);
+        this.unchangedResourcesCounter = Counter.builder(RESOURCES_COUNTER_NAME).tag(STATUS, STATUS_UNCHANGED).register(meterRegistry);
     }
 
+    /**
+     * Serializes the modified documents of the given editing context and writes them, either immediately or later if
+     * the write-behind mode is enabled. The serialization is always performed synchronously since the resources of the
+     * editing context can only be read safely from the thread of its event processor.
+     *
+     * <p>
+     * The modified flag and the content hash of a document are updated as soon as its content has been captured, in
+     * order to detect the changes performed while it is being written. If the write fails, the document is recorded as
+     * failed and it will be written again by the next persist even if it has not been modified since.
+     * </p>
+     *
+     * @param editingContext
+     *            The editing context
+     */
     @Override
     public void persist(IEditingContext editingContext) {
         long start = System.currentTimeMillis();
 
         if (editingContext instanceof EditingContext) {
+            UUID editingContextId = editingContext.getId();
             EditingDomain editingDomain = ((EditingContext) editingContext).getDomain();
-            List<DocumentEntity> documentEntities = this.persist(editingDomain);
-            List<Document> documents = documentEntities.stream().map(new DocumentMapper()::toDTO).collect(Collectors.toList());
-            this.applicationEventPublisher.publishEvent(new DocumentsModifiedEvent(editingContext.getId(), documents));
+            Map<UUID, SerializedDocument> serializedDocuments = this.serialize(editingDomain);
+            this.writeBehindQueue.submit(editingContextId, serializedDocuments, documents -> this.write(editingContextId, documents), this.failedDocumentIds::addAll);
         }
 
         long end = System.currentTimeMillis();
         this.timer.record(end - start, TimeUnit.MILLISECONDS);
     }
 
-    private List<DocumentEntity> persist(EditingDomain editingDomain) {
-        List<DocumentEntity> result = new ArrayList<>();
+    @Override
+    public void destroy() {
+        this.writeBehindQueue.flushAll();
+    }
+
+    private Map<UUID, SerializedDocument> serialize(EditingDomain editingDomain) {
+        Map<UUID, SerializedDocument> serializedDocuments = new LinkedHashMap<>();
         List<Resource> resources = editingDomain.getResourceSet().getResources();
         for (Resource resource : resources) {
-            this.save(resource).ifPresent(result::add);
+            Optional<UUID> optionalDocumentId = this.getDocumentId(resource);
+            boolean hasWriteFailed = optionalDocumentId.filter(this.failedDocumentIds::contains).isPresent();
+            if (optionalDocumentId.isPresent() && (hasWriteFailed || this.isModified(resource))) {
+                UUID documentId = optionalDocumentId.get();
+                Optional<DocumentMetadataAdapter> optionalDocumentMetadataAdapter = this.getDocumentMetadataAdapter(resource);
+
+                // The object ids stored for a document whose write has failed are not known anymore
+                Set<String> previousObjectIds = null;
+                if (!hasWriteFailed) {
+                    previousObjectIds = optionalDocumentMetadataAdapter.map(DocumentMetadataAdapter::getObjectIds).orElse(null);
+                }
+                Optional<SerializedDocument> optionalSerializedDocument = this.serialize(documentId, resource, previousObjectIds);
+
+                // Documents whose content has not changed since they have been loaded or written are skipped
+                if (optionalSerializedDocument.isPresent()) {
+                    resource.setModified(false);
+                    if (hasWriteFailed) {
+                        this.failedDocumentIds.remove(documentId);
+                    }
+
+                    SerializedDocument serializedDocument = optionalSerializedDocument.get();
+                    String previousContentHash = optionalDocumentMetadataAdapter.map(DocumentMetadataAdapter::getContentHash).orElse(null);
+                    if (!hasWriteFailed && serializedDocument.getContentHash().equals(previousContentHash)) {
+                        this.unchangedResourcesCounter.increment();
+                    } else {
+                        optionalDocumentMetadataAdapter.ifPresent(adapter -> {
+                            adapter.setContentHash(serializedDocument.getContentHash());
+                            adapter.setObjectIds(serializedDocument.getObjectIds());
+                        });
+                        serializedDocuments.put(documentId, serializedDocument);
+                        this.writtenResourcesCounter.increment();
+                    }
+                }
+            } else {
+                this.skippedResourcesCounter.increment();
+            }
         }
-        return result;
+        return serializedDocuments;
     }
 
-    private Optional<DocumentEntity> save(Resource resource) {
-        Optional<DocumentEntity> result = Optional.empty();
+    private Optional<DocumentMetadataAdapter> getDocumentMetadataAdapter(Resource resource) {
+        // @formatter:off
+        return resource.eAdapters().stream()
+                .filter(DocumentMetadataAdapter.class::isInstance)
+                .map(DocumentMetadataAdapter.class::cast)
+                .findFirst();
+        // @formatter:on
+    }
+
+    private Optional<UUID> getDocumentId(Resource resource) {
+        Optional<UUID> optionalDocumentId = Optional.empty();
+        try {
+            optionalDocumentId = Optional.of(UUID.fromString(resource.getURI().toString()));
+        } catch (IllegalArgumentException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return optionalDocumentId;
+    }
+
+    /**
+     * Indicates if the given resource needs to be saved. Resources which are not tracking their modifications are
+     * always considered as modified since we cannot know their state.
+     *
+     * @param resource
+     *            The resource
+     * @return <code>true</code> if the resource may have been modified since it has been loaded or saved for the last
+     *         time, <code>false</code> otherwise
+     */
+    private boolean isModified(Resource resource) {
+        return !resource.isTrackingModification() || resource.isModified();
+    }
+
+    /**
+     * Serializes the given resource and records the ids of its objects while they are written.
+     *
+     * <p>
+     * The content is serialized once in a buffer presized with the size of the previous serialization, to avoid the
+     * copies performed while the buffer grows, and it is then decoded once into the string bound to the statement. The
+     * content is not streamed to the database since the driver reads a character stream in memory before sending it
+     * anyway and since the documents published once written carry their content as a string.
+     * </p>
+     *
+     * @param documentId
+     *            The id of the document
+     * @param resource
+     *            The resource
+     * @param previousObjectIds
+     *            The ids of the objects of the content currently stored or <code>null</code> if they are not known
+     * @return The serialized document or an empty optional if the resource could not be serialized
+     */
+    private Optional<SerializedDocument> serialize(UUID documentId, Resource resource, Set<String> previousObjectIds) {
+        Optional<SerializedDocument> result = Optional.empty();
+        Set<String> objectIds = new HashSet<>();
         HashMap<Object, Object> options = new HashMap<>();
-        options.put(JsonResource.OPTION_ID_MANAGER, new EObjectIDManager());
+        options.put(JsonResource.OPTION_ID_MANAGER, new EObjectIDManager() {
+            @Override
+            public String getOrCreateId(EObject eObject) {
+                String id = super.getOrCreateId(eObject);
+                // The ids of the objects of other documents may also be requested to serialize the references
+                if (eObject.eResource() == resource) {
+                    objectIds.add(id);
+                }
+                return id;
+            }
+        });
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            resource.save(outputStream, options);
+        Optional<DocumentMetadataAdapter> optionalDocumentMetadataAdapter = this.getDocumentMetadataAdapter(resource);
+        int initialSize = optionalDocumentMetadataAdapter.map(DocumentMetadataAdapter::getContentSize).filter(size -> size > 0).orElse(DEFAULT_BUFFER_SIZE);
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(initialSize)) {
+            MessageDigest messageDigest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+            try (DigestOutputStream digestOutputStream = new DigestOutputStream(outputStream, messageDigest)) {
+                resource.save(digestOutputStream, options);
+            }
 
             for (Resource.Diagnostic warning : resource.getWarnings()) {
                 this.logger.warn(warning.getMessage());
@@ -107,17 +280,65 @@ public class EditingContextPersistenceService implements IEditingContextPersiste
                 this.logger.warn(error.getMessage());
             }
 
-            byte[] bytes = outputStream.toByteArray();
-            String content = new String(bytes);
+            String content = outputStream.toString(StandardCharsets.UTF_8);
+            String contentHash = String.format("%064x", new BigInteger(1, messageDigest.digest())); //$NON-NLS-1$
+            String name = optionalDocumentMetadataAdapter.map(DocumentMetadataAdapter::getName).orElse(""); //$NON-NLS-1$
+            optionalDocumentMetadataAdapter.ifPresent(adapter -> adapter.setContentSize(outputStream.size()));
 
-            UUID id = UUID.fromString(resource.getURI().toString());
-            result = this.documentRepository.findById(id).map(entity -> {
-                entity.setContent(content);
-                return this.documentRepository.save(entity);
-            });
-        } catch (IllegalArgumentException | IOException exception) {
+            result = Optional.of(new SerializedDocument(documentId, name, content, contentHash, objectIds, previousObjectIds));
+        } catch (IOException | NoSuchAlgorithmException exception) {
             this.logger.warn(exception.getMessage(), exception);
         }
         return result;
     }
+
+    /**
+     * Writes the given documents with a single batch, without loading them first, and publishes the documents which
+     * have been written.
+     *
+     * @param editingContextId
+     *            The id of the editing context
+     * @param serializedDocuments
+     *            The serialized documents to write
+     */
+    private void write(UUID editingContextId, Map<UUID, SerializedDocument> serializedDocuments) {
+        List<SerializedDocument> writtenDocuments = new ArrayList<>();
+        if (!serializedDocuments.isEmpty()) {
+            // @formatter:off
+            List<DocumentContentUpdate> documentContentUpdates = serializedDocuments.values().stream()
+                    .map(this::toDocumentContentUpdate)
+                    .collect(Collectors.toList());
+            // @formatter:on
+
+            List<UUID> writtenDocumentIds = this.documentContentWriter.updateContents(documentContentUpdates);
+            for (UUID writtenDocumentId : writtenDocumentIds) {
+                Optional.ofNullable(serializedDocuments.get(writtenDocumentId)).ifPresent(writtenDocuments::add);
+            }
+        }
+
+        List<Document> documents = List.of();
+        if (!writtenDocuments.isEmpty()) {
+            documents = this.projectRepository.findById(editingContextId).map(projectEntity -> this.toDocuments(projectEntity, writtenDocuments)).orElse(List.of());
+        }
+        this.applicationEventPublisher.publishEvent(new DocumentsModifiedEvent(editingContextId, documents));
+    }
+
+    private DocumentContentUpdate toDocumentContentUpdate(SerializedDocument serializedDocument) {
+        Set<String> previousObjectIds = serializedDocument.getPreviousObjectIds().orElse(null);
+        return new DocumentContentUpdate(serializedDocument.getId(), serializedDocument.getContent(), serializedDocument.getContentHash(), serializedDocument.getObjectIds(), previousObjectIds);
+    }
+
+    private List<Document> toDocuments(ProjectEntity projectEntity, List<SerializedDocument> serializedDocuments) {
+        List<Document> documents = new ArrayList<>();
+        for (SerializedDocument serializedDocument : serializedDocuments) {
+            DocumentEntity documentEntity = new DocumentEntity();
+            documentEntity.setId(serializedDocument.getId());
+            documentEntity.setProject(projectEntity);
+            documentEntity.setName(serializedDocument.getName());
+            documentEntity.setContent(serializedDocument.getContent());
+            documentEntity.setContentHash(serializedDocument.getContentHash());
+            documents.add(new DocumentMapper().toDTO(documentEntity));
+        }
+        return documents;
+    }
 }
@@ -12,20 +12,34 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.editingcontext;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.eclipse.emf.common.command.BasicCommandStack;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.edit.domain.AdapterFactoryEditingDomain;
 import org.eclipse.emf.edit.provider.ComposedAdapterFactory;
 import org.eclipse.sirius.emfjson.resource.JsonResource;
@@ -36,10 +50,13 @@ import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
 import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
-import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.services.authorization.ProjectAccessCache;
+import org.eclipse.sirius.web.services.documents.DocumentContentInputStream;
 import org.eclipse.sirius.web.services.documents.DocumentMetadataAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -52,13 +69,17 @@ import io.micrometer.core.instrument.Timer;
  * @author sbegaudeau
  */
 @Service
-public class EditingContextSearchService implements IEditingContextSearchService {
+public class EditingContextSearchService implements IEditingContextSearchService, DisposableBean {
 
     private static final String TIMER_NAME = "siriusweb_editingcontext_load"; //$NON-NLS-1$
 
+    private static final String DOCUMENTS = "documents"; //$NON-NLS-1$
+
+    private static final String PARALLELISM = "parallelism"; //$NON-NLS-1$
+
     private final Logger logger = LoggerFactory.getLogger(EditingContextSearchService.class);
 
-    private final IProjectRepository projectRepository;
+    private final ProjectAccessCache projectAccessCache;
 
     private final IDocumentRepository documentRepository;
 
@@ -68,23 +89,30 @@ public class EditingContextSearchService implements IEditingContextSearchService
 
     private final EPackage.Registry globalEPackageRegistry;
 
-    private final Timer timer;
+    private final EditingContextWriteBehindQueue writeBehindQueue;
+
+    private final MeterRegistry meterRegistry;
 
-    public EditingContextSearchService(IProjectRepository projectRepository, IDocumentRepository documentRepository, IEditingContextEPackageService editingContextEPackageService,
-            ComposedAdapterFactory composedAdapterFactory, EPackage.Registry globalEPackageRegistry, MeterRegistry meterRegistry) {
-        this.projectRepository = Objects.requireNonNull(projectRepository);
+    private final ForkJoinPool forkJoinPool;
+
+    public EditingContextSearchService(ProjectAccessCache projectAccessCache, IDocumentRepository documentRepository, IEditingContextEPackageService editingContextEPackageService,
+            ComposedAdapterFactory composedAdapterFactory, EPackage.Registry globalEPackageRegistry, EditingContextWriteBehindQueue writeBehindQueue, MeterRegistry meterRegistry,
+            @Value("${sirius.web.editingcontext.load.parallelism:1}") int parallelism) {
+        this.projectAccessCache = Objects.requireNonNull(projectAccessCache);
         this.documentRepository = Objects.requireNonNull(documentRepository);
         this.editingContextEPackageService = Objects.requireNonNull(editingContextEPackageService);
         this.composedAdapterFactory = Objects.requireNonNull(composedAdapterFactory);
         this.globalEPackageRegistry = Objects.requireNonNull(globalEPackageRegistry);
+        this.writeBehindQueue = Objects.requireNonNull(writeBehindQueue);
 
-        this.timer = Timer.builder(TIMER_NAME).register(meterRegistry);
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+        this.forkJoinPool = new ForkJoinPool(Math.max(1, parallelism));
     }
 
     @Override
     public boolean existsById(UUID editingContextId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return this.projectRepository.existsByIdAndIsVisibleBy(editingContextId, username);
+        return this.projectAccessCache.isVisibleBy(editingContextId, username);
     }
 
     @Override
@@ -93,6 +121,9 @@ public class EditingContextSearchService implements IEditingContextSearchService
 
         this.logger.debug("Loading the editing context {}", editingContextId); //$NON-NLS-1$
 
+        // Make sure that the latest version of the documents will be loaded
+        this.writeBehindQueue.flush(editingContextId);
+
         AdapterFactoryEditingDomain editingDomain = new AdapterFactoryEditingDomain(this.composedAdapterFactory, new BasicCommandStack());
 
         ResourceSet resourceSet = editingDomain.getResourceSet();
@@ -105,26 +136,177 @@ public class EditingContextSearchService implements IEditingContextSearchService
         resourceSet.setPackageRegistry(ePackageRegistry);
 
         List<DocumentEntity> documentEntities = this.documentRepository.findAllByProjectId(editingContextId);
-        for (DocumentEntity documentEntity : documentEntities) {
-            URI uri = URI.createURI(documentEntity.getId().toString());
-            JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
-            try (var inputStream = new ByteArrayInputStream(documentEntity.getContent().getBytes())) {
-                resourceSet.getResources().add(resource);
-                resource.load(inputStream, null);
-
-                resource.eAdapters().add(new DocumentMetadataAdapter(documentEntity.getName()));
-            } catch (IOException | IllegalArgumentException exception) {
-                this.logger.warn("An error occured while loading document {}: {}.", documentEntity.getId(), exception.getMessage()); //$NON-NLS-1$
-                resourceSet.getResources().remove(resource);
+        int parallelism = Math.max(1, Math.min(this.forkJoinPool.getParallelism(), documentEntities.size()));
+        if (parallelism > 1) {
+            this.prepareParallelLoading(ePackageRegistry, additionalEPackages);
+            List<JsonResource> resources = this.loadInParallel(documentEntities, ePackageRegistry);
+            resourceSet.getResources().addAll(resources);
+
+            // The modifications are tracked once the proxies have been replaced, the resources are thus not modified
+            this.resolveCrossDocumentProxies(resourceSet);
+            resources.forEach(resource -> resource.setTrackingModification(true));
+        } else {
+            for (DocumentEntity documentEntity : documentEntities) {
+                this.load(documentEntity, resourceSet);
             }
         }
 
         this.logger.debug("{} documents loaded for the editing context {}", resourceSet.getResources().size(), editingContextId); //$NON-NLS-1$
 
         long end = System.currentTimeMillis();
-        this.timer.record(end - start, TimeUnit.MILLISECONDS);
+
+        // @formatter:off
+        Timer timer = Timer.builder(TIMER_NAME)
+                .tag(DOCUMENTS, this.getDocumentCountRange(documentEntities.size()))
+                .tag(PARALLELISM, String.valueOf(parallelism))
+                .register(this.meterRegistry);
+        // @formatter:on
+        timer.record(end - start, TimeUnit.MILLISECONDS);
 
         return Optional.of(new EditingContext(editingContextId, editingDomain));
     }
 
+    private void load(DocumentEntity documentEntity, ResourceSet resourceSet) {
+        URI uri = URI.createURI(documentEntity.getId().toString());
+        JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
+        try (var inputStream = new DocumentContentInputStream(documentEntity.getContent())) {
+            resourceSet.getResources().add(resource);
+            resource.load(inputStream, null);
+            resource.setTrackingModification(true);
+
+            resource.eAdapters().add(this.createDocumentMetadataAdapter(documentEntity));
+        } catch (IOException | IllegalArgumentException exception) {
+            this.logger.warn("An error occured while loading document {}: {}.", documentEntity.getId(), exception.getMessage()); //$NON-NLS-1$
+            resourceSet.getResources().remove(resource);
+        }
+    }
+
+    /**
+     * Loads the given documents concurrently, each of them in its own resource set sharing the given package registry.
+     * The references between documents are thus loaded as proxies. One task is submitted to the pool for each document
+     * and the tasks are joined in the order of the documents, which is thus kept.
+     *
+     * @param documentEntities
+     *            The documents to load
+     * @param ePackageRegistry
+     *            The package registry of the editing context
+     * @return The resources which have been loaded successfully
+     */
+    private List<JsonResource> loadInParallel(List<DocumentEntity> documentEntities, EPackage.Registry ePackageRegistry) {
+        List<ForkJoinTask<Optional<JsonResource>>> tasks = new ArrayList<>(documentEntities.size());
+        for (DocumentEntity documentEntity : documentEntities) {
+            tasks.add(this.forkJoinPool.submit(() -> this.loadInOwnResourceSet(documentEntity, ePackageRegistry)));
+        }
+
+        // @formatter:off
+        return tasks.stream()
+                .map(ForkJoinTask::join)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        // @formatter:on
+    }
+
+    private Optional<JsonResource> loadInOwnResourceSet(DocumentEntity documentEntity, EPackage.Registry ePackageRegistry) {
+        Optional<JsonResource> optionalResource = Optional.empty();
+
+        ResourceSet loadingResourceSet = new ResourceSetImpl();
+        loadingResourceSet.setPackageRegistry(ePackageRegistry);
+
+        URI uri = URI.createURI(documentEntity.getId().toString());
+        JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
+        try (var inputStream = new DocumentContentInputStream(documentEntity.getContent())) {
+            loadingResourceSet.getResources().add(resource);
+            resource.load(inputStream, null);
+
+            resource.eAdapters().add(this.createDocumentMetadataAdapter(documentEntity));
+            optionalResource = Optional.of(resource);
+        } catch (IOException | IllegalArgumentException exception) {
+            this.logger.warn("An error occured while loading document {}: {}.", documentEntity.getId(), exception.getMessage()); //$NON-NLS-1$
+        }
+        return optionalResource;
+    }
+
+    private DocumentMetadataAdapter createDocumentMetadataAdapter(DocumentEntity documentEntity) {
+        DocumentMetadataAdapter documentMetadataAdapter = new DocumentMetadataAdapter(documentEntity.getName());
+        documentMetadataAdapter.setContentHash(documentEntity.getContentHash());
+        return documentMetadataAdapter;
+    }
+
+    /**
+     * Makes sure that the packages used while loading can be read concurrently. The package descriptors are resolved
+     * since the registry would be modified otherwise, and the lazily computed data of the dynamic classes are computed
+     * once.
+     *
+     * @param ePackageRegistry
+     *            The package registry of the editing context
+     * @param additionalEPackages
+     *            The dynamic packages of the editing context
+     */
+    private void prepareParallelLoading(EPackage.Registry ePackageRegistry, List<EPackage> additionalEPackages) {
+        for (String nsURI : List.copyOf(ePackageRegistry.keySet())) {
+            if (ePackageRegistry.get(nsURI) instanceof EPackage.Descriptor) {
+                try {
+                    ePackageRegistry.getEPackage(nsURI);
+                } catch (WrappedException exception) {
+                    this.logger.warn(exception.getMessage(), exception);
+                }
+            }
+        }
+
+        // @formatter:off
+        additionalEPackages.stream()
+                .flatMap(ePackage -> ePackage.getEClassifiers().stream())
+                .filter(EClass.class::isInstance)
+                .map(EClass.class::cast)
+                .forEach(eClass -> {
+                    eClass.getEAllStructuralFeatures();
+                    eClass.getEAllSuperTypes();
+                });
+        // @formatter:on
+    }
+
+    /**
+     * Replaces the proxies targeting an object of a document of the resource set by this object.
+     *
+     * @param resourceSet
+     *            The resource set
+     */
+    private void resolveCrossDocumentProxies(ResourceSet resourceSet) {
+        Map<EObject, Collection<Setting>> proxies = EcoreUtil.ProxyCrossReferencer.find(resourceSet);
+        for (Entry<EObject, Collection<Setting>> entry : proxies.entrySet()) {
+            EObject proxy = entry.getKey();
+            URI proxyURI = ((InternalEObject) proxy).eProxyURI();
+            Resource resource = resourceSet.getResource(proxyURI.trimFragment(), false);
+            if (resource != null) {
+                EObject eObject = resource.getEObject(proxyURI.fragment());
+                if (eObject != null) {
+                    for (Setting setting : entry.getValue()) {
+                        if (setting.getEStructuralFeature().isChangeable()) {
+                            EcoreUtil.replace(setting, proxy, eObject);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private String getDocumentCountRange(int documentCount) {
+        String range = "1000+"; //$NON-NLS-1$
+        if (documentCount <= 1) {
+            range = "0-1"; //$NON-NLS-1$
+        } else if (documentCount <= 10) {
+            range = "2-10"; //$NON-NLS-1$
+        } else if (documentCount <= 100) {
+            range = "11-100"; //$NON-NLS-1$
+        } else if (documentCount <= 1000) {
+            range = "101-1000"; //$NON-NLS-1$
+        }
+        return range;
+    }
+
+    @Override
+    public void destroy() {
+        this.forkJoinPool.shutdown();
+    }
+
 }
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.editingcontext;
+
+import com.google.common.util.concurrent.Striped;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Queue used to write the content of the documents of an editing context asynchronously.
+ *
+ * <p>
+ * When the write-behind mode is enabled, the contents submitted for an editing context during a configurable delay are
+ * coalesced, only the latest content of each document is kept, and they are written once on a dedicated executor with
+ * a bounded number of threads. There is at most one pending flush per editing context and the flushes of a given
+ * editing context are never performed concurrently in order to keep the writes ordered.
+ * </p>
+ *
+ * <p>
+ * A write which fails is submitted again, without replacing the contents submitted since then, up to a configurable
+ * number of retries. Once the retries are exhausted, or immediately if the write-behind mode is disabled, the failure
+ * handler receives the ids of the documents which have not been written so that they can be written again later.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class EditingContextWriteBehindQueue {
+
+    private static final String PENDING_GAUGE_NAME = "siriusweb_editingcontext_writebehind_pending"; //$NON-NLS-1$
+
+    private static final String COALESCED_SUMMARY_NAME = "siriusweb_editingcontext_writebehind_coalesced"; //$NON-NLS-1$
+
+    private static final String FLUSH_TIMER_NAME = "siriusweb_editingcontext_writebehind_flush"; //$NON-NLS-1$
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(EditingContextWriteBehindQueue.class);
+
+    private final boolean isEnabled;
+
+    private final long delay;
+
+    private final int retries;
+
+    private final ScheduledExecutorService executorService;
+
+    private final Map<UUID, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    private final Striped<Lock> flushLocks = Striped.lock(LOCK_STRIPES);
+
+    private final DistributionSummary coalescedSummary;
+
+    private final Timer flushTimer;
+
+    public EditingContextWriteBehindQueue(MeterRegistry meterRegistry, @Value("${sirius.web.persistence.writeBehind.enabled:false}") boolean isEnabled,
+            @Value("${sirius.web.persistence.writeBehind.delay:500}") long delay, @Value("${sirius.web.persistence.writeBehind.threads:2}") int threads,
+            @Value("${sirius.web.persistence.writeBehind.retries:3}") int retries) {
+        this.isEnabled = isEnabled;
+        this.delay = delay;
+        this.retries = retries;
+        if (isEnabled) {
+            this.executorService = Executors.newScheduledThreadPool(threads);
+        } else {
+            this.executorService = null;
+        }
+
+        Gauge.builder(PENDING_GAUGE_NAME, this.pendingWrites, Map::size).register(meterRegistry);
+        this.coalescedSummary = DistributionSummary.builder(COALESCED_SUMMARY_NAME).register(meterRegistry);
+        this.flushTimer = Timer.builder(FLUSH_TIMER_NAME).register(meterRegistry);
+    }
+
+    /**
+     * Submits the contents of some documents of the given editing context. They will be coalesced with the contents
+     * already pending for this editing context and written later by the given writer. If the write-behind mode is
+     * disabled or if the application is shutting down, the contents are written immediately and the exception thrown
+     * by a failed write is propagated once the failure handler has been notified.
+     *
+     * @param editingContextId
+     *            The id of the editing context
+     * @param serializedDocuments
+     *            The serialized documents to write, indexed by document id
+     * @param writer
+     *            The writer which will receive all the contents pending for the editing context
+     * @param failureHandler
+     *            The handler which will receive the ids of the documents which could not be written
+     */
+    public void submit(UUID editingContextId, Map<UUID, SerializedDocument> serializedDocuments, Consumer<Map<UUID, SerializedDocument>> writer, Consumer<Set<UUID>> failureHandler) {
+        if (!this.isEnabled || this.executorService.isShutdown()) {
+            this.write(serializedDocuments, writer, failureHandler);
+        } else {
+            try {
+                this.pendingWrites.compute(editingContextId, (id, pendingWrite) -> {
+                    PendingWrite newPendingWrite = pendingWrite;
+                    if (newPendingWrite == null) {
+                        newPendingWrite = new PendingWrite(writer, failureHandler, 0);
+                        this.executorService.schedule(() -> this.flush(id), this.delay, TimeUnit.MILLISECONDS);
+                    }
+                    newPendingWrite.add(serializedDocuments);
+                    return newPendingWrite;
+                });
+            } catch (RejectedExecutionException exception) {
+                // The executor has been shut down since it has been checked, nothing is pending for this editing context
+                this.write(serializedDocuments, writer, failureHandler);
+            }
+        }
+    }
+
+    private void write(Map<UUID, SerializedDocument> serializedDocuments, Consumer<Map<UUID, SerializedDocument>> writer, Consumer<Set<UUID>> failureHandler) {
+        try {
+            writer.accept(serializedDocuments);
+        } catch (RuntimeException exception) {
+            failureHandler.accept(serializedDocuments.keySet());
+            throw exception;
+        }
+    }
+
+    /**
+     * Writes synchronously the contents pending for the given editing context, if any.
+     *
+     * @param editingContextId
+     *            The id of the editing context
+     */
+    public void flush(UUID editingContextId) {
+        Lock lock = this.flushLocks.get(editingContextId);
+        lock.lock();
+        try {
+            PendingWrite pendingWrite = this.pendingWrites.remove(editingContextId);
+            if (pendingWrite != null) {
+                long start = System.currentTimeMillis();
+                try {
+                    pendingWrite.getWriter().accept(pendingWrite.getSerializedDocuments());
+                } catch (RuntimeException exception) {
+                    this.retry(editingContextId, pendingWrite, exception);
+                }
+                long end = System.currentTimeMillis();
+
+                this.flushTimer.record(end - start, TimeUnit.MILLISECONDS);
+                this.coalescedSummary.record(pendingWrite.getRequestCount());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Submits again the contents of a failed write. The contents submitted since the failed write has been removed from
+     * the queue are newer and they are thus kept. This method is called while holding the flush lock of the editing
+     * context, no newer content can thus have been written in the meantime.
+     *
+     * @param editingContextId
+     *            The id of the editing context
+     * @param failedWrite
+     *            The write which has failed
+     * @param exception
+     *            The exception thrown by the write
+     */
+    private void retry(UUID editingContextId, PendingWrite failedWrite, RuntimeException exception) {
+        Set<UUID> documentIds = failedWrite.getSerializedDocuments().keySet();
+        boolean isRetried = false;
+        if (failedWrite.getAttempt() < this.retries && !this.executorService.isShutdown()) {
+            try {
+                this.pendingWrites.compute(editingContextId, (id, pendingWrite) -> {
+                    PendingWrite newPendingWrite = new PendingWrite(failedWrite.getWriter(), failedWrite.getFailureHandler(), failedWrite.getAttempt() + 1);
+                    newPendingWrite.add(failedWrite.getSerializedDocuments());
+                    if (pendingWrite == null) {
+                        this.executorService.schedule(() -> this.flush(id), this.delay, TimeUnit.MILLISECONDS);
+                    } else {
+                        newPendingWrite.add(pendingWrite.getSerializedDocuments());
+                    }
+                    return newPendingWrite;
+                });
+                isRetried = true;
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                exception.addSuppressed(rejectedExecutionException);
+            }
+        }
+
+        if (isRetried) {
+            this.logger.warn("The documents {} could not be written, the write will be retried", documentIds, exception); //$NON-NLS-1$
+        } else {
+            this.logger.error("The documents {} could not be written", documentIds, exception); //$NON-NLS-1$
+            failedWrite.getFailureHandler().accept(documentIds);
+        }
+    }
+
+    /**
+     * Writes synchronously all the pending contents and stops accepting new flushes, used when the application is
+     * shutting down.
+     */
+    public void flushAll() {
+        Set<UUID> editingContextIds = Set.copyOf(this.pendingWrites.keySet());
+        editingContextIds.forEach(this::flush);
+        if (this.executorService != null) {
+            this.executorService.shutdown();
+        }
+    }
+
+    /**
+     * The contents waiting to be written for an editing context.
+     *
+     * @author sbegaudeau
+     */
+    private static final class PendingWrite {
+        private final Consumer<Map<UUID, SerializedDocument>> writer;
+
+        private final Consumer<Set<UUID>> failureHandler;
+
+        private final int attempt;
+
+        private final Map<UUID, SerializedDocument> serializedDocuments = new LinkedHashMap<>();
+
+        private int requestCount;
+
+        PendingWrite(Consumer<Map<UUID, SerializedDocument>> writer, Consumer<Set<UUID>> failureHandler, int attempt) {
+            this.writer = Objects.requireNonNull(writer);
+            this.failureHandler = Objects.requireNonNull(failureHandler);
+            this.attempt = attempt;
+        }
+
+        public void add(Map<UUID, SerializedDocument> documents) {
+            documents.forEach((documentId, serializedDocument) -> this.serializedDocuments.merge(documentId, serializedDocument, (older, newer) -> newer.replacing(older)));
+            this.requestCount++;
+        }
+
+        public Consumer<Map<UUID, SerializedDocument>> getWriter() {
+            return this.writer;
+        }
+
+        public Consumer<Set<UUID>> getFailureHandler() {
+            return this.failureHandler;
+        }
+
+        public int getAttempt() {
+            return this.attempt;
+        }
+
+        public Map<UUID, SerializedDocument> getSerializedDocuments() {
+            return this.serializedDocuments;
+        }
+
+        public int getRequestCount() {
+            return this.requestCount;
+        }
+    }
+}
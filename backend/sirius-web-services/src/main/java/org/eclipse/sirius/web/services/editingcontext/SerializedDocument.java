@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.editingcontext;
+
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The serialized content of a document waiting to be written in the database.
+ *
+ * @author sbegaudeau
+ */
+public final class SerializedDocument {
+
+    private final UUID id;
+
+    private final String name;
+
+    private final String content;
+
+    private final String contentHash;
+
+    private final Set<String> objectIds;
+
+    private final Set<String> previousObjectIds;
+
+    public SerializedDocument(UUID id, String name, String content, String contentHash, Set<String> objectIds, Set<String> previousObjectIds) {
+        this.id = Objects.requireNonNull(id);
+        this.name = Objects.requireNonNull(name);
+        this.content = Objects.requireNonNull(content);
+        this.contentHash = Objects.requireNonNull(contentHash);
+        this.objectIds = Set.copyOf(objectIds);
+        this.previousObjectIds = Optional.ofNullable(previousObjectIds).map(Set::copyOf).orElse(null);
+    }
+
+    public UUID getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getContent() {
+        return this.content;
+    }
+
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    /**
+     * Returns the ids of the objects serialized in the content.
+     *
+     * @return The ids of the objects
+     */
+    public Set<String> getObjectIds() {
+        return this.objectIds;
+    }
+
+    /**
+     * Returns the ids of the objects of the content stored when this document has been serialized.
+     *
+     * @return The ids of the objects or an empty optional if they are not known
+     */
+    public Optional<Set<String>> getPreviousObjectIds() {
+        return Optional.ofNullable(this.previousObjectIds);
+    }
+
+    /**
+     * Returns the document which has to be written instead of both the given older serialization, which has not been
+     * written, and this one. Its content is this one and its previous object ids are those of the older serialization
+     * since they are still the ones stored.
+     *
+     * @param olderSerializedDocument
+     *            An older serialization of the same document which has not been written
+     * @return The document to write
+     */
+    public SerializedDocument replacing(SerializedDocument olderSerializedDocument) {
+        return new SerializedDocument(this.id, this.name, this.content, this.contentHash, this.objectIds, olderSerializedDocument.previousObjectIds);
+    }
+
+    @Override
+    public String toString() {
+        String pattern = "{0} '{'id: {1}, name: {2}, contentHash: {3}'}'"; //$NON-NLS-1$
+        return MessageFormat.format(pattern, this.getClass().getSimpleName(), this.id, this.name, this.contentHash);
+    }
+}
@@ -14,9 +14,11 @@ package org.eclipse.sirius.web.services.explorer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -32,6 +34,7 @@ import org.eclipse.sirius.web.representations.IRepresentation;
 import org.eclipse.sirius.web.representations.VariableManager;
 import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
 import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
 import org.eclipse.sirius.web.services.documents.DocumentMetadataAdapter;
 import org.eclipse.sirius.web.spring.collaborative.api.IRepresentationImageProvider;
 import org.eclipse.sirius.web.spring.collaborative.trees.api.IExplorerDescriptionProvider;
@@ -55,6 +58,12 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
 
     private final List<IRepresentationImageProvider> representationImageProviders;
 
+    /**
+     * The image of a representation only depends on its kind, the image providers will thus only be invoked for the
+     * first representation of each kind. The default image is kept too for the kinds without any image.
+     */
+    private final Map<String, String> representationKind2ImageURL = new ConcurrentHashMap<>();
+
     public ExplorerDescriptionProvider(IObjectService objectService, IRepresentationService representationService, List<IRepresentationImageProvider> representationImageProviders) {
         this.objectService = Objects.requireNonNull(objectService);
         this.representationService = Objects.requireNonNull(representationService);
@@ -88,8 +97,8 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
         Object self = variableManager.getVariables().get(VariableManager.SELF);
 
         String id = null;
-        if (self instanceof RepresentationDescriptor) {
-            id = ((RepresentationDescriptor) self).getId().toString();
+        if (self instanceof RepresentationMetadata) {
+            id = ((RepresentationMetadata) self).getId().toString();
         } else if (self instanceof Resource) {
             Resource resource = (Resource) self;
             id = resource.getURI().toString();
@@ -102,9 +111,8 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
     private String getKind(VariableManager variableManager) {
         String kind = ""; //$NON-NLS-1$
         Object self = variableManager.getVariables().get(VariableManager.SELF);
-        if (self instanceof RepresentationDescriptor) {
-            IRepresentation representation = ((RepresentationDescriptor) self).getRepresentation();
-            kind = representation.getKind();
+        if (self instanceof RepresentationMetadata) {
+            kind = ((RepresentationMetadata) self).getKind();
         } else if (self instanceof Resource) {
             kind = DOCUMENT_KIND;
         } else {
@@ -117,8 +125,8 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
         Object self = variableManager.getVariables().get(VariableManager.SELF);
 
         String label = ""; //$NON-NLS-1$
-        if (self instanceof RepresentationDescriptor) {
-            label = ((RepresentationDescriptor) self).getLabel();
+        if (self instanceof RepresentationMetadata) {
+            label = ((RepresentationMetadata) self).getLabel();
         } else if (self instanceof Resource) {
             Resource resource = (Resource) self;
             // @formatter:off
@@ -139,7 +147,7 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
         Object self = variableManager.getVariables().get(VariableManager.SELF);
 
         boolean editable = false;
-        if (self instanceof RepresentationDescriptor) {
+        if (self instanceof RepresentationMetadata) {
             editable = true;
         } else if (self instanceof Resource) {
             editable = true;
@@ -156,22 +164,34 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
         String imageURL = null;
         if (self instanceof EObject) {
             imageURL = this.objectService.getImagePath(self);
-        } else if (self instanceof RepresentationDescriptor) {
-            RepresentationDescriptor representationDescriptor = (RepresentationDescriptor) self;
-
-            // @formatter:off
-            imageURL = this.representationImageProviders.stream()
-                    .map(representationImageProvider -> representationImageProvider.getImageURL(representationDescriptor.getRepresentation()))
-                    .flatMap(Optional::stream)
-                    .findFirst()
-                    .orElse(ImageConstants.RESOURCE_SVG);
-            // @formatter:on
+        } else if (self instanceof RepresentationMetadata) {
+            imageURL = this.getRepresentationImageURL((RepresentationMetadata) self);
         } else if (self instanceof Resource) {
             imageURL = ImageConstants.RESOURCE_SVG;
         }
         return Optional.ofNullable(imageURL).orElse(ImageConstants.DEFAULT_SVG);
     }
 
+    private String getRepresentationImageURL(RepresentationMetadata representationMetadata) {
+        String imageURL = this.representationKind2ImageURL.get(representationMetadata.getKind());
+        if (imageURL == null) {
+            imageURL = ImageConstants.RESOURCE_SVG;
+            var optionalRepresentation = this.representationService.getRepresentation(representationMetadata.getId()).map(RepresentationDescriptor::getRepresentation);
+            if (optionalRepresentation.isPresent()) {
+                IRepresentation representation = optionalRepresentation.get();
+                // @formatter:off
+                imageURL = this.representationImageProviders.stream()
+                        .map(representationImageProvider -> representationImageProvider.getImageURL(representation))
+                        .flatMap(Optional::stream)
+                        .findFirst()
+                        .orElse(ImageConstants.RESOURCE_SVG);
+                // @formatter:on
+                this.representationKind2ImageURL.putIfAbsent(representationMetadata.getKind(), imageURL);
+            }
+        }
+        return imageURL;
+    }
+
     private List<Object> getElements(VariableManager variableManager) {
         var optionalEditingContext = Optional.of(variableManager.getVariables().get(IEditingContext.EDITING_CONTEXT));
         // @formatter:off
@@ -202,7 +222,12 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
 
             if (!hasChildren) {
                 String id = this.objectService.getId(eObject);
-                hasChildren = this.representationService.hasRepresentations(id);
+                Object editingContext = variableManager.getVariables().get(IEditingContext.EDITING_CONTEXT);
+                if (editingContext instanceof IEditingContext) {
+                    hasChildren = this.representationService.hasRepresentations(((IEditingContext) editingContext).getId(), id);
+                } else {
+                    hasChildren = this.representationService.hasRepresentations(id);
+                }
             }
         }
         return hasChildren;
@@ -231,9 +256,9 @@ public class ExplorerDescriptionProvider implements IExplorerDescriptionProvider
                     Resource resource = (Resource) self;
                     result.addAll(resource.getContents());
                 } else if (self instanceof EObject) {
-                    var representationDescriptors = new ArrayList<>(this.representationService.getRepresentationDescriptorsForObjectId(id));
-                    representationDescriptors.sort((descriptor1, descriptor2) -> descriptor1.getLabel().compareTo(descriptor2.getLabel()));
-                    result.addAll(representationDescriptors);
+                    var representationMetadata = new ArrayList<>(this.representationService.getRepresentationMetadataForObjectId(id));
+                    representationMetadata.sort((metadata1, metadata2) -> metadata1.getLabel().compareTo(metadata2.getLabel()));
+                    result.addAll(representationMetadata);
                     List<Object> contents = this.objectService.getContents(context, id);
                     result.addAll(contents);
                 }
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.projects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.sirius.web.persistence.entities.IdMappingEntity;
+import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.repositories.IIdMappingRepository;
+import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.document.IDocumentService;
+import org.eclipse.sirius.web.services.api.projects.ProjectManifest;
+import org.eclipse.sirius.web.services.api.projects.RepresentationManifest;
+import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.documents.UploadedDocumentConverter;
+import org.eclipse.sirius.web.services.representations.RepresentationCodecs;
+import org.eclipse.sirius.web.services.representations.RepresentationMapper;
+import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Class used to import a project by writing its documents and its representations directly in the database.
+ *
+ * <p>
+ * Contrary to the {@link ProjectImporter}, the documents and the representations are not created one by one by the
+ * editing context event processor of the project. The documents are converted and saved without any editing context
+ * and the representations are stored as they have been exported, once the ids of their semantic elements have been
+ * replaced by the new ids given to those elements. The representations will thus only be rendered again when they are
+ * opened. The whole import is performed in a single transaction, nothing is thus written if a document or a
+ * representation cannot be imported.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class ProjectBulkImporter {
+
+    private static final String TARGET_OBJECT_ID = "targetObjectId"; //$NON-NLS-1$
+
+    private static final String ID = "id"; //$NON-NLS-1$
+
+    private static final String DESCRIPTION_ID = "descriptionId"; //$NON-NLS-1$
+
+    private final Logger logger = LoggerFactory.getLogger(ProjectBulkImporter.class);
+
+    private final UUID projectId;
+
+    private final Map<String, UploadFile> documents;
+
+    private final List<RepresentationDescriptor> representations;
+
+    private final ProjectManifest projectManifest;
+
+    private final IIdMappingRepository idMappingRepository;
+
+    private final IDocumentService documentService;
+
+    private final IRepresentationRepository representationRepository;
+
+    private final RepresentationCodecs representationCodecs;
+
+    private final ObjectMapper objectMapper;
+
+    private final EPackage.Registry registry;
+
+    /**
+     * The new id of each object of the imported documents, per old document id and then per old object id.
+     */
+    private final Map<String, Map<String, String>> oldDocumentIdToObjectIds = new HashMap<>();
+
+    /**
+     * The new id of each object of the imported documents, per old object id.
+     */
+    private final Map<String, String> oldObjectIdToNewObjectId = new HashMap<>();
+
+    private long documentsDuration;
+
+    private long representationsDuration;
+
+    public ProjectBulkImporter(UUID projectId, Map<String, UploadFile> documents, List<RepresentationDescriptor> representations, ProjectManifest projectManifest,
+            IIdMappingRepository idMappingRepository, IDocumentService documentService, IRepresentationRepository representationRepository, RepresentationCodecs representationCodecs,
+            ObjectMapper objectMapper, EPackage.Registry registry) {
+        this.projectId = Objects.requireNonNull(projectId);
+        this.documents = Objects.requireNonNull(documents);
+        this.representations = Objects.requireNonNull(representations);
+        this.projectManifest = Objects.requireNonNull(projectManifest);
+        this.idMappingRepository = Objects.requireNonNull(idMappingRepository);
+        this.documentService = Objects.requireNonNull(documentService);
+        this.representationRepository = Objects.requireNonNull(representationRepository);
+        this.representationCodecs = Objects.requireNonNull(representationCodecs);
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    /**
+     * Imports the documents and then the representations of the project in a single transaction. The transaction is
+     * rolled back if at least one document or one representation has not been created.
+     *
+     * @param transactionOperations
+     *            The operations used to run the import in a transaction
+     * @return <code>true</code> whether the whole project has been imported, <code>false</code> otherwise
+     */
+    public boolean importProject(TransactionOperations transactionOperations) {
+        Boolean hasBeenImported = transactionOperations.execute(status -> {
+            long start = System.nanoTime();
+            boolean imported = this.importDocuments();
+            long documentsEnd = System.nanoTime();
+            imported = imported && this.importRepresentations();
+            long representationsEnd = System.nanoTime();
+
+            this.documentsDuration = documentsEnd - start;
+            this.representationsDuration = representationsEnd - documentsEnd;
+            if (!imported) {
+                status.setRollbackOnly();
+            }
+            return imported;
+        });
+        return Boolean.TRUE.equals(hasBeenImported);
+    }
+
+    /**
+     * Returns the time spent importing the documents during the last import.
+     *
+     * @return The duration in nanoseconds
+     */
+    public long getDocumentsDuration() {
+        return this.documentsDuration;
+    }
+
+    /**
+     * Returns the time spent importing the representations during the last import.
+     *
+     * @return The duration in nanoseconds
+     */
+    public long getRepresentationsDuration() {
+        return this.representationsDuration;
+    }
+
+    /**
+     * Converts and saves all the documents of the project. If at least one document has not been created it will
+     * return <code>false</code>.
+     *
+     * @return <code>true</code> whether all documents has been created, <code>false</code> otherwise
+     */
+    private boolean importDocuments() {
+        UploadedDocumentConverter converter = new UploadedDocumentConverter(this.registry);
+        for (Entry<String, UploadFile> entry : this.documents.entrySet()) {
+            String oldDocumentId = entry.getKey();
+            UploadFile uploadFile = entry.getValue();
+
+            Map<String, String> uriFragmentToId = new HashMap<>();
+            String content = converter.toJson(uploadFile, uriFragmentToId);
+
+            Optional<Document> optionalDocument = Optional.empty();
+            if (!content.isEmpty()) {
+                optionalDocument = this.documentService.createDocument(this.projectId, uploadFile.getName().trim(), content);
+            }
+            if (optionalDocument.isEmpty()) {
+                this.logger.warn("The document {} has not been created", this.projectManifest.getDocumentIdsToName().get(oldDocumentId)); //$NON-NLS-1$
+                return false;
+            }
+
+            this.oldDocumentIdToObjectIds.put(oldDocumentId, uriFragmentToId);
+            this.oldObjectIdToNewObjectId.putAll(uriFragmentToId);
+        }
+        return true;
+    }
+
+    /**
+     * Saves all the representations of the project, without rendering them. If at least one representation has not
+     * been created it will return <code>false</code>.
+     *
+     * @return <code>true</code> whether all representations has been created, <code>false</code> otherwise
+     */
+    private boolean importRepresentations() {
+        ProjectEntity projectEntity = new ProjectEntity();
+        projectEntity.setId(this.projectId);
+
+        RepresentationMapper representationMapper = new RepresentationMapper(this.representationCodecs);
+        for (RepresentationDescriptor representationDescriptor : this.representations) {
+            Optional<RepresentationEntity> optionalRepresentationEntity = Optional.empty();
+            try {
+                // @formatter:off
+                optionalRepresentationEntity = this.getRepresentationDescriptor(representationDescriptor)
+                        .map(descriptor -> representationMapper.toEntity(descriptor, projectEntity));
+                // @formatter:on
+            } catch (UncheckedIOException exception) {
+                this.logger.warn(exception.getMessage(), exception);
+            }
+            if (optionalRepresentationEntity.isEmpty()) {
+                this.logger.warn("The representation {} has not been created", representationDescriptor.getLabel()); //$NON-NLS-1$
+                return false;
+            }
+
+            RepresentationEntity representationEntity = optionalRepresentationEntity.get();
+            // @formatter:off
+            this.representationRepository.upsert(representationEntity.getId(), this.projectId, representationEntity.getTargetObjectId(), representationEntity.getLabel(),
+                    representationEntity.getKind(), representationEntity.getDescriptionId(), representationEntity.getContentType(), representationEntity.getFormat(),
+                    representationEntity.getContent(), representationEntity.getBinaryContent());
+            // @formatter:on
+        }
+        return true;
+    }
+
+    /**
+     * Returns the descriptor of the new representation matching the given exported representation. The new
+     * representation has a new id and references the new ids of its semantic elements.
+     *
+     * @param representationDescriptor
+     *            The descriptor of the exported representation
+     * @return The descriptor of the new representation or an empty optional if it could not be computed
+     */
+    private Optional<RepresentationDescriptor> getRepresentationDescriptor(RepresentationDescriptor representationDescriptor) {
+        RepresentationManifest representationManifest = this.projectManifest.getRepresentations().get(representationDescriptor.getId().toString());
+        if (representationManifest == null) {
+            return Optional.empty();
+        }
+
+        URI targetObjectURI = URI.create(representationManifest.getTargetObjectURI());
+        // @formatter:off
+        Optional<String> optionalTargetObjectId = Optional.ofNullable(this.oldDocumentIdToObjectIds.get(targetObjectURI.getPath()))
+                .map(objectIds -> objectIds.get(targetObjectURI.getFragment()));
+        // @formatter:on
+        if (optionalTargetObjectId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String descriptionURI = representationManifest.getDescriptionURI();
+        // @formatter:off
+        UUID representationDescriptionId = this.idMappingRepository.findByExternalId(descriptionURI)
+                .map(IdMappingEntity::getId)
+                /*
+                 * If the given descriptionURI does not match with an existing IdMappingEntity, the current representation is
+                 * based on a custom description. We use the descriptionURI as representationDescriptionId.
+                 */
+                .orElseGet(() -> UUID.fromString(descriptionURI));
+        // @formatter:on
+
+        UUID representationId = UUID.randomUUID();
+        JsonNode representationNode = this.objectMapper.valueToTree(representationDescriptor.getRepresentation());
+        if (!(representationNode instanceof ObjectNode)) {
+            return Optional.empty();
+        }
+        ObjectNode representationObjectNode = (ObjectNode) representationNode;
+        this.replaceTargetObjectIds(representationObjectNode);
+        representationObjectNode.put(ID, representationId.toString());
+        representationObjectNode.put(DESCRIPTION_ID, representationDescriptionId.toString());
+        representationObjectNode.put(TARGET_OBJECT_ID, optionalTargetObjectId.get());
+
+        try {
+            IRepresentation representation = this.objectMapper.treeToValue(representationObjectNode, IRepresentation.class);
+            // @formatter:off
+            RepresentationDescriptor newRepresentationDescriptor = RepresentationDescriptor.newRepresentationDescriptor(representationId)
+                    .projectId(this.projectId)
+                    .descriptionId(representationDescriptionId)
+                    .targetObjectId(optionalTargetObjectId.get())
+                    .label(representationDescriptor.getLabel())
+                    .representation(representation)
+                    .build();
+            // @formatter:on
+            return Optional.of(newRepresentationDescriptor);
+        } catch (JsonProcessingException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Replaces, in the given JSON tree, the ids of the semantic elements of the imported documents by their new ids.
+     *
+     * @param jsonNode
+     *            The JSON tree of a representation
+     */
+    private void replaceTargetObjectIds(JsonNode jsonNode) {
+        if (jsonNode instanceof ObjectNode) {
+            ObjectNode objectNode = (ObjectNode) jsonNode;
+            JsonNode targetObjectIdNode = objectNode.get(TARGET_OBJECT_ID);
+            if (targetObjectIdNode != null && targetObjectIdNode.isTextual()) {
+                String newTargetObjectId = this.oldObjectIdToNewObjectId.get(targetObjectIdNode.asText());
+                if (newTargetObjectId != null) {
+                    objectNode.put(TARGET_OBJECT_ID, newTargetObjectId);
+                }
+            }
+        }
+
+        Iterator<JsonNode> iterator = jsonNode.elements();
+        while (iterator.hasNext()) {
+            this.replaceTargetObjectIds(iterator.next());
+        }
+    }
+
+}
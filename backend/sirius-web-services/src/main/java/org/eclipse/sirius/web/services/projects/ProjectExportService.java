@@ -12,49 +12,57 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.projects;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
-import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
-import org.eclipse.emf.ecore.util.EcoreUtil;
-import org.eclipse.sirius.emfjson.resource.JsonResource;
 import org.eclipse.sirius.emfjson.resource.JsonResourceFactoryImpl;
 import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
-import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
+import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.entities.IdMappingEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.ITargetObjectLocation;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
 import org.eclipse.sirius.web.persistence.repositories.IIdMappingRepository;
-import org.eclipse.sirius.web.representations.IRepresentation;
-import org.eclipse.sirius.web.services.api.document.Document;
-import org.eclipse.sirius.web.services.api.document.IDocumentService;
+import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
 import org.eclipse.sirius.web.services.api.projects.IProjectExportService;
 import org.eclipse.sirius.web.services.api.projects.IProjectService;
 import org.eclipse.sirius.web.services.api.projects.Project;
 import org.eclipse.sirius.web.services.api.projects.ProjectManifest;
 import org.eclipse.sirius.web.services.api.projects.RepresentationManifest;
 import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
-import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
+import org.eclipse.sirius.web.services.editingcontext.EditingContextWriteBehindQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.info.BuildProperties;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
 /**
  * Service used to export a project in zip.
@@ -72,10 +80,16 @@ import org.springframework.stereotype.Service;
  * </ul>
  * </p>
  *
+ * <p>
+ * The content of the entries is prepared in parallel, by a bounded number of threads running with the security context
+ * of the caller, while the entries are written in the zip in order. Only the entries being prepared are held in
+ * memory.
+ * </p>
+ *
  * @author gcoutable
  */
 @Service
-public class ProjectExportService implements IProjectExportService {
+public class ProjectExportService implements IProjectExportService, DisposableBean {
 
     private static final String CURRENT_MANIFEST_VERSION = "1.0"; //$NON-NLS-1$
 
@@ -87,53 +101,75 @@ public class ProjectExportService implements IProjectExportService {
 
     private final IProjectService projectService;
 
-    private final IDocumentService documentService;
-
     private final IRepresentationService representationService;
 
     private final IIdMappingRepository idMappingRepository;
 
+    private final IDocumentRepository documentRepository;
+
+    private final IRepresentationRepository representationRepository;
+
     private final IEditingContextEPackageService editingContextEPackageService;
 
-    public ProjectExportService(IProjectService projectService, IDocumentService documentService, IRepresentationService representationService,
-            IEditingContextEPackageService editingContextEPackageService, IIdMappingRepository idMappingRepository, ObjectMapper objectMapper, BuildProperties buildProperties) {
+    private final EditingContextWriteBehindQueue writeBehindQueue;
+
+    private final int threads;
+
+    private final ExecutorService executorService;
+
+    public ProjectExportService(IProjectService projectService, IRepresentationService representationService, IEditingContextEPackageService editingContextEPackageService,
+            IIdMappingRepository idMappingRepository, IDocumentRepository documentRepository, IRepresentationRepository representationRepository, ObjectMapper objectMapper,
+            BuildProperties buildProperties, EditingContextWriteBehindQueue writeBehindQueue, @Value("${sirius.web.projects.export.threads:4}") int threads) {
         this.projectService = Objects.requireNonNull(projectService);
-        this.documentService = Objects.requireNonNull(documentService);
         this.representationService = Objects.requireNonNull(representationService);
         this.editingContextEPackageService = Objects.requireNonNull(editingContextEPackageService);
         this.idMappingRepository = Objects.requireNonNull(idMappingRepository);
+        this.documentRepository = Objects.requireNonNull(documentRepository);
+        this.representationRepository = Objects.requireNonNull(representationRepository);
         this.objectMapper = Objects.requireNonNull(objectMapper);
         this.buildProperties = Objects.requireNonNull(buildProperties);
+        this.writeBehindQueue = Objects.requireNonNull(writeBehindQueue);
+        this.threads = Math.max(1, threads);
+        // The services and repositories used to prepare the entries may rely on the security context of the caller
+        this.executorService = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(this.threads));
+    }
+
+    @Override
+    public void exportProjectAsZip(UUID projectId, OutputStream outputStream) throws IOException {
+        this.writeBehindQueue.flush(projectId);
+        Optional<Project> optionalProject = this.projectService.getProject(projectId);
+        if (optionalProject.isPresent()) {
+            this.writeZip(optionalProject.get(), outputStream);
+        }
     }
 
     @Override
-    public byte[] exportProjectAsZip(UUID projectId) {
-        return this.projectService.getProject(projectId).map(this::toZip).orElse(new byte[0]);
+    public void destroy() {
+        this.executorService.shutdown();
     }
 
-    private byte[] toZip(Project project) {
-        byte[] zip = new byte[0];
+    /**
+     * Writes the zip of the given project in the given output stream. The zip is streamed, only the entries being
+     * prepared are held in memory.
+     *
+     * @param project
+     *            The project to export
+     * @param outputStream
+     *            The output stream in which the zip will be written, it will not be closed
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    private void writeZip(Project project, OutputStream outputStream) throws IOException {
         UUID projectId = project.getId();
         String projectName = project.getName();
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        try (var zippedOut = new ZipOutputStream(outputStream)) {
-
+        try (var zippedOut = new ZipOutputStream(StreamUtils.nonClosing(outputStream))) {
             Map<String, String> id2DocumentName = this.addDocuments(projectId, projectName, zippedOut);
 
             Map<String, RepresentationManifest> representationsManifests = this.addRepresentation(projectId, projectName, zippedOut);
 
             this.addManifest(projectId, projectName, id2DocumentName, representationsManifests, zippedOut);
-        } catch (IOException exception) {
-            this.logger.warn(exception.getMessage(), exception);
-            outputStream.reset();
-        }
-
-        if (outputStream.size() > 0) {
-            zip = outputStream.toByteArray();
         }
-
-        return zip;
     }
 
     /**
@@ -141,7 +177,7 @@ public class ProjectExportService implements IProjectExportService {
      *
      * <p>
      * The name of the {@link ZipEntry} is [projectName]/documents/[documentId], where '/' are used as path separator in
-     * the zip.
+     * the zip. The content of each document is read once from the database.
      * </p>
      *
      * <p>
@@ -160,20 +196,25 @@ public class ProjectExportService implements IProjectExportService {
      *             if an I/O error occurred
      */
     private Map<String, String> addDocuments(UUID projectId, String projectName, ZipOutputStream zippedOut) throws IOException {
-        List<Document> documents = this.documentService.getDocuments(projectId);
+        List<IDocumentMetadata> documentsMetadata = this.documentRepository.findAllMetadataByProjectId(projectId);
+
+        Function<IDocumentMetadata, Optional<PreparedEntry>> preparer = documentMetadata -> {
+            String name = projectName + "/documents/" + documentMetadata.getId() + "." + JsonResourceFactoryImpl.EXTENSION; //$NON-NLS-1$ //$NON-NLS-2$
+            // @formatter:off
+            return this.documentRepository.findById(UUID.fromString(documentMetadata.getId()))
+                    .map(DocumentEntity::getContent)
+                    .map(content -> new PreparedEntry(name, content.getBytes(StandardCharsets.UTF_8)));
+            // @formatter:on
+        };
+        List<IDocumentMetadata> writtenDocumentsMetadata = this.writeEntries(documentsMetadata, preparer, zippedOut);
+
         Map<String, String> id2DocumentName = new HashMap<>();
-        for (Document document : documents) {
-            Optional<byte[]> optionalBytes = this.documentService.getBytes(document, IDocumentService.RESOURCE_KIND_JSON);
-            if (optionalBytes.isPresent()) {
-                byte[] bytes = optionalBytes.get();
-                id2DocumentName.put(document.getId().toString(), document.getName());
-                String name = projectName + "/documents/" + document.getId() + "." + JsonResourceFactoryImpl.EXTENSION; //$NON-NLS-1$ //$NON-NLS-2$
-                ZipEntry zipEntry = this.createZipEntry(name, bytes.length);
-                zippedOut.putNextEntry(zipEntry);
-                zippedOut.write(bytes);
-                zippedOut.closeEntry();
-            } else {
-                this.logger.warn("The serialization of the document {} has failed.", document.getName()); //$NON-NLS-1$
+        for (IDocumentMetadata documentMetadata : writtenDocumentsMetadata) {
+            id2DocumentName.put(documentMetadata.getId(), documentMetadata.getName());
+        }
+        for (IDocumentMetadata documentMetadata : documentsMetadata) {
+            if (!id2DocumentName.containsKey(documentMetadata.getId())) {
+                this.logger.warn("The serialization of the document {} has failed.", documentMetadata.getName()); //$NON-NLS-1$
             }
         }
         return id2DocumentName;
@@ -203,38 +244,122 @@ public class ProjectExportService implements IProjectExportService {
      *             if an I/O error occurred
      */
     private Map<String, RepresentationManifest> addRepresentation(UUID projectId, String projectName, ZipOutputStream zippedout) throws IOException {
-        List<RepresentationDescriptor> representationsDescriptor = this.representationService.getRepresentationDescriptorsForProjectId(projectId);
-        Map<String, RepresentationManifest> representationManifests = new HashMap<>();
-        ResourceSet resourceSet = this.loadAllDocuments(projectId);
-
-        for (RepresentationDescriptor representationDescriptor : representationsDescriptor) {
-            RepresentationManifest representationManifest = this.createRepresentationManifest(representationDescriptor, resourceSet);
-            UUID representationId = representationDescriptor.getId();
-            representationManifests.put(representationId.toString(), representationManifest);
-
-            byte[] bytes = new ObjectMapper().writeValueAsBytes(representationDescriptor);
-            String name = projectName + "/representations/" + representationId + "." + JsonResourceFactoryImpl.EXTENSION; //$NON-NLS-1$ //$NON-NLS-2$
-            ZipEntry zipEntry = this.createZipEntry(name, bytes.length);
-            zippedout.putNextEntry(zipEntry);
-            zippedout.write(bytes);
-            zippedout.closeEntry();
+        List<RepresentationMetadata> representationsMetadata = this.representationService.getRepresentationMetadataForProjectId(projectId);
+
+        ObjectMapper representationMapper = new ObjectMapper();
+        Function<RepresentationMetadata, Optional<PreparedEntry>> preparer = representationMetadata -> {
+            String name = projectName + "/representations/" + representationMetadata.getId() + "." + JsonResourceFactoryImpl.EXTENSION; //$NON-NLS-1$ //$NON-NLS-2$
+            return this.representationService.getRepresentation(representationMetadata.getId()).map(representationDescriptor -> {
+                try {
+                    return new PreparedEntry(name, representationMapper.writeValueAsBytes(representationDescriptor));
+                } catch (JsonProcessingException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        };
+        List<RepresentationMetadata> writtenRepresentationsMetadata = this.writeEntries(representationsMetadata, preparer, zippedout);
+
+        Map<String, String> targetObjectId2DocumentId = new HashMap<>();
+        if (!writtenRepresentationsMetadata.isEmpty()) {
+            for (ITargetObjectLocation targetObjectLocation : this.representationRepository.findAllTargetObjectLocationsByProjectId(projectId)) {
+                targetObjectId2DocumentId.putIfAbsent(targetObjectLocation.getTargetObjectId(), targetObjectLocation.getDocumentId());
+            }
         }
 
+        Map<String, RepresentationManifest> representationManifests = new HashMap<>();
+        for (RepresentationMetadata representationMetadata : writtenRepresentationsMetadata) {
+            RepresentationManifest representationManifest = this.createRepresentationManifest(representationMetadata, targetObjectId2DocumentId);
+            representationManifests.put(representationMetadata.getId().toString(), representationManifest);
+        }
         return representationManifests;
     }
 
     /**
-     * Creates a {@link RepresentationManifest} for the given {@link RepresentationDescriptor}.
+     * Prepares the content of the entries of the given elements in parallel and writes them in order in the given
+     * {@link ZipOutputStream}. At most one entry per thread is prepared in advance.
      *
-     * @param representationDescriptor
-     *            The {@link RepresentationDescriptor}
-     * @param resourceSet
-     *            The {@link ResourceSet} containing all loaded documents
-     * @return the {@link RepresentationManifest} for the given {@link RepresentationDescriptor}
+     * @param <T>
+     *            The type of the elements
+     * @param elements
+     *            The elements to write
+     * @param preparer
+     *            The function used to prepare the entry of an element, it may return an empty optional if the element
+     *            cannot be written
+     * @param zippedOut
+     *            The {@link ZipOutputStream} used to build the zip
+     * @return The elements which have been written
+     * @throws IOException
+     *             if an I/O error occurred
      */
-    private RepresentationManifest createRepresentationManifest(RepresentationDescriptor representationDescriptor, ResourceSet resourceSet) {
-        IRepresentation representation = representationDescriptor.getRepresentation();
-        UUID descriptionId = representationDescriptor.getDescriptionId();
+    private <T> List<T> writeEntries(List<T> elements, Function<T, Optional<PreparedEntry>> preparer, ZipOutputStream zippedOut) throws IOException {
+        List<T> writtenElements = new ArrayList<>();
+        Deque<PendingEntry<T>> pendingEntries = new ArrayDeque<>();
+        try {
+            for (T element : elements) {
+                pendingEntries.add(new PendingEntry<>(element, CompletableFuture.supplyAsync(() -> preparer.apply(element), this.executorService)));
+                if (pendingEntries.size() > this.threads) {
+                    this.writeEntry(pendingEntries.removeFirst(), zippedOut).ifPresent(writtenElements::add);
+                }
+            }
+            while (!pendingEntries.isEmpty()) {
+                this.writeEntry(pendingEntries.removeFirst(), zippedOut).ifPresent(writtenElements::add);
+            }
+        } finally {
+            pendingEntries.forEach(pendingEntry -> pendingEntry.getFuture().cancel(true));
+        }
+        return writtenElements;
+    }
+
+    /**
+     * Waits for the preparation of the given entry and writes it in the given {@link ZipOutputStream}.
+     *
+     * @param <T>
+     *            The type of the element
+     * @param pendingEntry
+     *            The entry being prepared
+     * @param zippedOut
+     *            The {@link ZipOutputStream} used to build the zip
+     * @return The element of the entry if it has been written
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    private <T> Optional<T> writeEntry(PendingEntry<T> pendingEntry, ZipOutputStream zippedOut) throws IOException {
+        Optional<PreparedEntry> optionalPreparedEntry;
+        try {
+            optionalPreparedEntry = pendingEntry.getFuture().join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) exception.getCause()).getCause();
+            }
+            throw exception;
+        }
+
+        if (optionalPreparedEntry.isPresent()) {
+            PreparedEntry preparedEntry = optionalPreparedEntry.get();
+            zippedOut.putNextEntry(this.createZipEntry(preparedEntry.getName(), preparedEntry.getContent().length));
+            zippedOut.write(preparedEntry.getContent());
+            zippedOut.closeEntry();
+            return Optional.of(pendingEntry.getElement());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates a {@link RepresentationManifest} for the given {@link RepresentationMetadata}.
+     *
+     * <p>
+     * The URI of the target object is computed from the id of the document containing it, retrieved from the index of
+     * the objects of the documents, since the id of the object is used as its URI fragment.
+     * </p>
+     *
+     * @param representationMetadata
+     *            The {@link RepresentationMetadata}
+     * @param targetObjectId2DocumentId
+     *            The id of the document containing each target object
+     * @return the {@link RepresentationManifest} for the given {@link RepresentationMetadata}
+     */
+    private RepresentationManifest createRepresentationManifest(RepresentationMetadata representationMetadata, Map<String, String> targetObjectId2DocumentId) {
+        UUID descriptionId = representationMetadata.getDescriptionId();
 
         /*
          * If the given descriptionId does not match with an existing IdMappingEntity, the current representation is
@@ -247,57 +372,22 @@ public class ProjectExportService implements IProjectExportService {
         // @formatter:on
 
         String uriFragment = ""; //$NON-NLS-1$
-        String targetObjectId = representationDescriptor.getTargetObjectId();
-        for (Resource resource : resourceSet.getResources()) {
-            EObject eObject = resource.getEObject(targetObjectId);
-            if (eObject != null) {
-                uriFragment = EcoreUtil.getURI(eObject).toString();
-                break;
-            }
-        }
-        if (uriFragment.isEmpty()) {
+        String targetObjectId = representationMetadata.getTargetObjectId();
+        String documentId = targetObjectId2DocumentId.get(targetObjectId);
+        if (documentId != null) {
+            uriFragment = documentId + "#" + targetObjectId; //$NON-NLS-1$
+        } else {
             this.logger.warn("The serialization of the representationManifest won't be complete."); //$NON-NLS-1$
         }
         // @formatter:off
         return RepresentationManifest.newRepresentationManifest()
-            .type(representation.getKind())
+            .type(representationMetadata.getKind())
             .descriptionURI(descriptionURI)
             .targetObjectURI(uriFragment)
             .build();
         // @formatter:on
     }
 
-    /**
-     * Load all documents of the given project in a {@link ResourceSet}.
-     *
-     * @param projectId
-     *            the ID of the project to export.
-     * @return a {@link ResourceSet} containing all project documents.
-     */
-    private ResourceSet loadAllDocuments(UUID projectId) {
-        List<Document> documents = this.documentService.getDocuments(projectId);
-        EPackageRegistryImpl ePackageRegistry = new EPackageRegistryImpl();
-        this.editingContextEPackageService.getEPackages(projectId).forEach(ePackage -> ePackageRegistry.put(ePackage.getNsURI(), ePackage));
-        ResourceSet resourceSet = new ResourceSetImpl();
-        for (Document document : documents) {
-            ResourceSet loadingResourceSet = new ResourceSetImpl();
-            loadingResourceSet.setPackageRegistry(ePackageRegistry);
-            URI uri = URI.createURI(document.getId().toString());
-            JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
-            loadingResourceSet.getResources().add(resource);
-            Optional<byte[]> optionalBytes = this.documentService.getBytes(document, IDocumentService.RESOURCE_KIND_JSON);
-            if (optionalBytes.isPresent()) {
-                try (var inputStream = new ByteArrayInputStream(optionalBytes.get())) {
-                    resource.load(inputStream, null);
-                    resourceSet.getResources().add(resource);
-                } catch (IOException exception) {
-                    this.logger.warn(exception.getMessage(), exception);
-                }
-            }
-        }
-        return resourceSet;
-    }
-
     /**
      * Adds a {@link ZipEntry} for the manifest file in the given {@link ZipOutputStream}.
      *
@@ -348,4 +438,54 @@ public class ProjectExportService implements IProjectExportService {
         return zipEntry;
     }
 
+    /**
+     * The name and the content of an entry ready to be written in the zip.
+     *
+     * @author sbegaudeau
+     */
+    private static final class PreparedEntry {
+        private final String name;
+
+        private final byte[] content;
+
+        PreparedEntry(String name, byte[] content) {
+            this.name = Objects.requireNonNull(name);
+            this.content = Objects.requireNonNull(content);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public byte[] getContent() {
+            return this.content;
+        }
+    }
+
+    /**
+     * An element whose entry is being prepared.
+     *
+     * @param <T>
+     *            The type of the element
+     * @author sbegaudeau
+     */
+    private static final class PendingEntry<T> {
+        private final T element;
+
+        private final CompletableFuture<Optional<PreparedEntry>> future;
+
+        PendingEntry(T element, CompletableFuture<Optional<PreparedEntry>> future) {
+            this.element = Objects.requireNonNull(element);
+            this.future = Objects.requireNonNull(future);
+        }
+
+        public T getElement() {
+            return this.element;
+        }
+
+        public CompletableFuture<Optional<PreparedEntry>> getFuture() {
+            return this.future;
+        }
+    }
+
 }
@@ -19,10 +19,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
 import org.eclipse.sirius.web.core.api.ErrorPayload;
 import org.eclipse.sirius.web.core.api.IPayload;
+import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
 import org.eclipse.sirius.web.persistence.repositories.IIdMappingRepository;
+import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
+import org.eclipse.sirius.web.services.api.document.IDocumentService;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectInput;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectSuccessPayload;
 import org.eclipse.sirius.web.services.api.projects.IProjectImportService;
@@ -34,10 +40,19 @@ import org.eclipse.sirius.web.services.api.projects.UploadProjectSuccessPayload;
 import org.eclipse.sirius.web.services.api.projects.Visibility;
 import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
 import org.eclipse.sirius.web.services.messages.IServicesMessageService;
+import org.eclipse.sirius.web.services.representations.RepresentationCodecs;
 import org.eclipse.sirius.web.spring.collaborative.api.IEditingContextEventProcessor;
 import org.eclipse.sirius.web.spring.collaborative.api.IEditingContextEventProcessorRegistry;
 import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Service used to import a project.
@@ -47,6 +62,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class ProjectImportService implements IProjectImportService {
 
+    private static final String THROUGHPUT_SUMMARY_NAME = "siriusweb_project_import_throughput"; //$NON-NLS-1$
+
+    private static final String ELEMENT = "element"; //$NON-NLS-1$
+
+    private final Logger logger = LoggerFactory.getLogger(ProjectImportService.class);
+
     private final IProjectService projectService;
 
     private final IEditingContextEventProcessorRegistry editingContextEventProcessorRegistry;
@@ -57,13 +78,52 @@ public class ProjectImportService implements IProjectImportService {
 
     private final IIdMappingRepository idMappingRepository;
 
+    private final IDocumentService documentService;
+
+    private final IRepresentationRepository representationRepository;
+
+    private final RepresentationCodecs representationCodecs;
+
+    private final IEditingContextEPackageService editingContextEPackageService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DistributionSummary documentsThroughputSummary;
+
+    private final DistributionSummary representationsThroughputSummary;
+
+    private final long maximumInMemorySize;
+
+    private final boolean bulk;
+
     public ProjectImportService(IProjectService projectService, IEditingContextEventProcessorRegistry editingContextEventProcessorRegistry, ObjectMapper objectMapper,
-            IServicesMessageService messageService, IIdMappingRepository repository) {
+            IServicesMessageService messageService, IIdMappingRepository repository, IDocumentService documentService, IRepresentationRepository representationRepository,
+            RepresentationCodecs representationCodecs, IEditingContextEPackageService editingContextEPackageService, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, @Value("${sirius.web.projects.import.maximumInMemorySize:33554432}") long maximumInMemorySize,
+            @Value("${sirius.web.projects.import.bulk:true}") boolean bulk) {
         this.idMappingRepository = Objects.requireNonNull(repository);
         this.projectService = Objects.requireNonNull(projectService);
         this.editingContextEventProcessorRegistry = Objects.requireNonNull(editingContextEventProcessorRegistry);
         this.objectMapper = Objects.requireNonNull(objectMapper);
         this.messageService = Objects.requireNonNull(messageService);
+        this.documentService = Objects.requireNonNull(documentService);
+        this.representationRepository = Objects.requireNonNull(representationRepository);
+        this.representationCodecs = Objects.requireNonNull(representationCodecs);
+        this.editingContextEPackageService = Objects.requireNonNull(editingContextEPackageService);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.maximumInMemorySize = maximumInMemorySize;
+        this.bulk = bulk;
+
+        // @formatter:off
+        this.documentsThroughputSummary = DistributionSummary.builder(THROUGHPUT_SUMMARY_NAME)
+                .tag(ELEMENT, "documents") //$NON-NLS-1$
+                .baseUnit("documents/s") //$NON-NLS-1$
+                .register(meterRegistry);
+        this.representationsThroughputSummary = DistributionSummary.builder(THROUGHPUT_SUMMARY_NAME)
+                .tag(ELEMENT, "representations") //$NON-NLS-1$
+                .baseUnit("representations/s") //$NON-NLS-1$
+                .register(meterRegistry);
+        // @formatter:on
     }
 
     /**
@@ -77,6 +137,17 @@ public class ProjectImportService implements IProjectImportService {
      * the created project in order to keep the server in the same state before the project upload attempt.
      * </p>
      *
+     * <p>
+     * When the bulk import is enabled, the {@link ProjectBulkImporter} is used instead to write all the documents and
+     * the representations in a single transaction, the editing context of the project is then loaded once at the end
+     * of the import.
+     * </p>
+     *
+     * <p>
+     * The entries of the zip which do not fit in the configured memory limit are spooled to temporary files, deleted
+     * once the import is over.
+     * </p>
+     *
      * @param inputId
      *            The identifier of the input which has triggered the upload
      * @param file
@@ -86,13 +157,64 @@ public class ProjectImportService implements IProjectImportService {
      */
     @Override
     public IPayload importProject(UUID inputId, UploadFile file) {
+        try (ProjectUnzipper unzipper = new ProjectUnzipper(file.getInputStream(), this.objectMapper, this.maximumInMemorySize)) {
+            Optional<UnzippedProject> optionalUnzippedProject = unzipper.unzipProject();
+            if (optionalUnzippedProject.isEmpty()) {
+                return new ErrorPayload(inputId, this.messageService.unexpectedError());
+            }
+            if (this.bulk) {
+                return this.bulkImportProject(inputId, optionalUnzippedProject.get());
+            }
+            return this.importProject(inputId, optionalUnzippedProject.get());
+        }
+    }
+
+    private IPayload bulkImportProject(UUID inputId, UnzippedProject unzippedProject) {
         IPayload payload = new ErrorPayload(inputId, this.messageService.unexpectedError());
-        ProjectUnzipper unzipper = new ProjectUnzipper(file.getInputStream(), this.objectMapper);
-        Optional<UnzippedProject> optionalUnzippedProject = unzipper.unzipProject();
-        if (optionalUnzippedProject.isEmpty()) {
-            return new ErrorPayload(inputId, this.messageService.unexpectedError());
+
+        CreateProjectInput createProjectInput = new CreateProjectInput(inputId, unzippedProject.getProjectName(), Visibility.PRIVATE);
+        IPayload createProjectPayload = this.projectService.createProject(createProjectInput);
+        if (createProjectPayload instanceof CreateProjectSuccessPayload) {
+            Project project = ((CreateProjectSuccessPayload) createProjectPayload).getProject();
+
+            EPackage.Registry registry = new EPackageRegistryImpl();
+            this.editingContextEPackageService.getEPackages(project.getId()).forEach(ePackage -> registry.put(ePackage.getNsURI(), ePackage));
+
+            Map<String, UploadFile> documents = unzippedProject.getDocumentIdToUploadFile();
+            List<RepresentationDescriptor> representations = unzippedProject.getRepresentationDescriptors();
+            ProjectBulkImporter projectBulkImporter = new ProjectBulkImporter(project.getId(), documents, representations, unzippedProject.getManifest(), this.idMappingRepository,
+                    this.documentService, this.representationRepository, this.representationCodecs, this.objectMapper, registry);
+
+            boolean hasBeenImported = projectBulkImporter.importProject(this.transactionTemplate);
+            if (hasBeenImported) {
+                this.recordThroughput(documents.size(), representations.size(), projectBulkImporter.getDocumentsDuration(), projectBulkImporter.getRepresentationsDuration());
+            }
+
+            if (hasBeenImported && this.editingContextEventProcessorRegistry.getOrCreateEditingContextEventProcessor(project.getId()).isPresent()) {
+                payload = new UploadProjectSuccessPayload(inputId, project);
+            } else {
+                this.editingContextEventProcessorRegistry.disposeEditingContextEventProcessor(project.getId());
+                this.projectService.delete(project.getId());
+            }
         }
-        UnzippedProject unzippedProject = optionalUnzippedProject.get();
+        return payload;
+    }
+
+    private void recordThroughput(int documentsCount, int representationsCount, long documentsDuration, long representationsDuration) {
+        double documentsPerSecond = this.getThroughput(documentsCount, documentsDuration);
+        double representationsPerSecond = this.getThroughput(representationsCount, representationsDuration);
+        this.documentsThroughputSummary.record(documentsPerSecond);
+        this.representationsThroughputSummary.record(representationsPerSecond);
+        this.logger.info("{} documents imported at {} documents/s and {} representations imported at {} representations/s", documentsCount, documentsPerSecond, representationsCount, //$NON-NLS-1$
+                representationsPerSecond);
+    }
+
+    private double getThroughput(int count, long durationInNanoseconds) {
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(durationInNanoseconds, 1);
+    }
+
+    private IPayload importProject(UUID inputId, UnzippedProject unzippedProject) {
+        IPayload payload = new ErrorPayload(inputId, this.messageService.unexpectedError());
         ProjectManifest manifest = unzippedProject.getManifest();
         String projectName = unzippedProject.getProjectName();
 
@@ -26,12 +26,15 @@ import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
 import org.eclipse.sirius.web.persistence.entities.VisibilityEntity;
 import org.eclipse.sirius.web.persistence.repositories.IAccountRepository;
 import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.services.api.events.ProjectModifiedEvent;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectInput;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectSuccessPayload;
 import org.eclipse.sirius.web.services.api.projects.IProjectService;
 import org.eclipse.sirius.web.services.api.projects.Project;
 import org.eclipse.sirius.web.services.api.projects.Visibility;
+import org.eclipse.sirius.web.services.authorization.ProjectAccessCache;
 import org.eclipse.sirius.web.services.messages.IServicesMessageService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -51,12 +54,19 @@ public class ProjectService implements IProjectService {
 
     private final IAccountRepository accountRepository;
 
+    private final ProjectAccessCache projectAccessCache;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     private final ProjectMapper projectMapper;
 
-    public ProjectService(IServicesMessageService messageService, IProjectRepository projectRepository, IAccountRepository accountRepository) {
+    public ProjectService(IServicesMessageService messageService, IProjectRepository projectRepository, IAccountRepository accountRepository, ProjectAccessCache projectAccessCache,
+            ApplicationEventPublisher applicationEventPublisher) {
         this.messageService = Objects.requireNonNull(messageService);
         this.projectRepository = Objects.requireNonNull(projectRepository);
         this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.projectAccessCache = Objects.requireNonNull(projectAccessCache);
+        this.applicationEventPublisher = Objects.requireNonNull(applicationEventPublisher);
         this.projectMapper = new ProjectMapper();
     }
 
@@ -67,7 +77,15 @@ public class ProjectService implements IProjectService {
 
     @Override
     public Optional<Project> getProject(UUID projectId) {
-        return this.projectRepository.findByIdIfVisibleBy(projectId, this.getCurrentUserName()).map(this.projectMapper::toDTO);
+        String username = this.getCurrentUserName();
+        if (Boolean.FALSE.equals(this.projectAccessCache.get(projectId, username).orElse(null))) {
+            return Optional.empty();
+        }
+
+        long generation = this.projectAccessCache.getGeneration(projectId);
+        Optional<ProjectEntity> optionalProjectEntity = this.projectRepository.findByIdIfVisibleBy(projectId, username);
+        this.projectAccessCache.put(projectId, username, optionalProjectEntity.isPresent(), generation);
+        return optionalProjectEntity.map(this.projectMapper::toDTO);
     }
 
     @Override
@@ -92,6 +110,7 @@ public class ProjectService implements IProjectService {
             if (!optionalOwner.isEmpty()) {
                 ProjectEntity projectEntity = this.createProjectEntity(name, optionalOwner.get(), input.getVisibility());
                 projectEntity = this.projectRepository.save(projectEntity);
+                this.applicationEventPublisher.publishEvent(new ProjectModifiedEvent(projectEntity.getId()));
 
                 Project project = this.projectMapper.toDTO(projectEntity);
                 payload = new CreateProjectSuccessPayload(input.getId(), project);
@@ -118,8 +137,9 @@ public class ProjectService implements IProjectService {
 
     @Override
     public void delete(UUID projectId) {
-        if (this.projectRepository.existsByIdAndIsVisibleBy(projectId, this.getCurrentUserName())) {
+        if (this.projectAccessCache.isVisibleBy(projectId, this.getCurrentUserName())) {
             this.projectRepository.deleteById(projectId);
+            this.applicationEventPublisher.publishEvent(new ProjectModifiedEvent(projectId));
         }
     }
 
@@ -129,7 +149,9 @@ public class ProjectService implements IProjectService {
         if (optionalProjectEntity.isPresent()) {
             ProjectEntity projectEntity = optionalProjectEntity.get();
             projectEntity.setName(newName);
-            return Optional.of(this.projectRepository.save(projectEntity)).map(this.projectMapper::toDTO);
+            projectEntity = this.projectRepository.save(projectEntity);
+            this.applicationEventPublisher.publishEvent(new ProjectModifiedEvent(projectId));
+            return Optional.of(projectEntity).map(this.projectMapper::toDTO);
         }
         return Optional.empty();
     }
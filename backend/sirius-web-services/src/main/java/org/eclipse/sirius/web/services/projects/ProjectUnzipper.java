@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -18,12 +18,17 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -40,9 +45,15 @@ import org.slf4j.LoggerFactory;
 /**
  * Class used to unzip a project and ease access to models, representations and manifest.json.
  *
+ * <p>
+ * The entries of the zip are read once and kept in memory as long as their total size stays below a given limit, the
+ * other entries are spooled to temporary files. The unzipper must thus be closed once the unzipped project has been
+ * imported in order to delete those files.
+ * </p>
+ *
  * @author gcoutable
  */
-public class ProjectUnzipper {
+public class ProjectUnzipper implements AutoCloseable {
 
     private static final String ZIP_FOLDER_SEPARATOR = "/"; //$NON-NLS-1$
 
@@ -52,15 +63,24 @@ public class ProjectUnzipper {
 
     private static final String DOCUMENTS_FOLDER = "documents"; //$NON-NLS-1$
 
+    private static final String SPOOL_FILE_PREFIX = "sirius-web-import"; //$NON-NLS-1$
+
+    private static final int BUFFER_SIZE = 8192;
+
     private final Logger logger = LoggerFactory.getLogger(ProjectUnzipper.class);
 
     private final InputStream inputStream;
 
     private final ObjectMapper objectMapper;
 
-    public ProjectUnzipper(InputStream inputStream, ObjectMapper objectMapper) {
+    private final List<Path> spoolFiles = new ArrayList<>();
+
+    private long remainingInMemorySize;
+
+    public ProjectUnzipper(InputStream inputStream, ObjectMapper objectMapper, long maximumInMemorySize) {
         this.inputStream = inputStream;
         this.objectMapper = objectMapper;
+        this.remainingInMemorySize = maximumInMemorySize;
     }
 
     /**
@@ -79,7 +99,7 @@ public class ProjectUnzipper {
      */
     public Optional<UnzippedProject> unzipProject() {
         Optional<UnzippedProject> optionalUnzippedProject = Optional.empty();
-        Map<String, ByteArrayOutputStream> zipEntryNameToContent = this.readZipFile();
+        Map<String, SpooledEntry> zipEntryNameToContent = this.readZipFile();
 
         Optional<String> optionalProjectName = this.handleProjectName(zipEntryNameToContent);
         if (optionalProjectName.isPresent()) {
@@ -90,8 +110,8 @@ public class ProjectUnzipper {
             String manifestPathInZip = projectName + ZIP_FOLDER_SEPARATOR + MANIFEST_JSON_FILE;
 
             Optional<ProjectManifest> optionalManifest = this.getProjectManifest(zipEntryNameToContent, manifestPathInZip);
-            Map<String, ByteArrayOutputStream> documentIdToDocumentContent = this.selectAndTransformIntoDocumentIdToDocumentContent(zipEntryNameToContent, documentsFolderInZip);
-            List<ByteArrayOutputStream> representationDescritorsContent = this.selectAndTransformIntoRepresentationDescriptorsContent(zipEntryNameToContent, representationsFolderInZip);
+            Map<String, SpooledEntry> documentIdToDocumentContent = this.selectAndTransformIntoDocumentIdToDocumentContent(zipEntryNameToContent, documentsFolderInZip);
+            List<SpooledEntry> representationDescritorsContent = this.selectAndTransformIntoRepresentationDescriptorsContent(zipEntryNameToContent, representationsFolderInZip);
 
             if (!optionalManifest.isEmpty() && this.validateDocuments(documentIdToDocumentContent, optionalManifest.get())) {
                 ProjectManifest manifest = optionalManifest.get();
@@ -133,9 +153,9 @@ public class ProjectUnzipper {
      *            The path of representations folder in zip
      * @return The list of {@link RepresentationDescriptor}
      */
-    private List<ByteArrayOutputStream> selectAndTransformIntoRepresentationDescriptorsContent(Map<String, ByteArrayOutputStream> zipEntryNameToContent, String representationsFolderInZip) {
+    private List<SpooledEntry> selectAndTransformIntoRepresentationDescriptorsContent(Map<String, SpooledEntry> zipEntryNameToContent, String representationsFolderInZip) {
         // @formatter:off
-        List<ByteArrayOutputStream> outputStreamOfRepresentationDescritors = zipEntryNameToContent.entrySet().stream()
+        List<SpooledEntry> outputStreamOfRepresentationDescritors = zipEntryNameToContent.entrySet().stream()
                 .filter(entry -> entry.getKey().startsWith(representationsFolderInZip))
                 .map(Entry::getValue)
                 .collect(Collectors.toList());
@@ -159,8 +179,8 @@ public class ProjectUnzipper {
      *            The path of documents folder in zip
      * @return The map of document id to document content
      */
-    private Map<String, ByteArrayOutputStream> selectAndTransformIntoDocumentIdToDocumentContent(Map<String, ByteArrayOutputStream> zipEntryNameToContent, String documentsFolderInZip) {
-        Function<Entry<String, ByteArrayOutputStream>, String> mapZipEntryNameToDocumentId = e -> {
+    private Map<String, SpooledEntry> selectAndTransformIntoDocumentIdToDocumentContent(Map<String, SpooledEntry> zipEntryNameToContent, String documentsFolderInZip) {
+        Function<Entry<String, SpooledEntry>, String> mapZipEntryNameToDocumentId = e -> {
             String fullPath = e.getKey();
             String fileName = fullPath.substring(documentsFolderInZip.length());
             int extensionIndex = fileName.lastIndexOf('.');
@@ -172,7 +192,7 @@ public class ProjectUnzipper {
         };
 
         // @formatter:off
-        Map<String, ByteArrayOutputStream> documentIdToDocumentContent = zipEntryNameToContent.entrySet().stream()
+        Map<String, SpooledEntry> documentIdToDocumentContent = zipEntryNameToContent.entrySet().stream()
                 .filter(entry -> entry.getKey().startsWith(documentsFolderInZip))
                 .collect(Collectors.toMap(mapZipEntryNameToDocumentId::apply, Entry::getValue));
         // @formatter:on
@@ -189,7 +209,7 @@ public class ProjectUnzipper {
      * @return <code>true</code> whether all document id are associated with a document name thanks to the
      *         {@link ProjectManifest}, <code>false</code> otherwise
      */
-    private boolean validateDocuments(Map<String, ByteArrayOutputStream> documentIdToDocumentContent, ProjectManifest projectManifest) {
+    private boolean validateDocuments(Map<String, SpooledEntry> documentIdToDocumentContent, ProjectManifest projectManifest) {
         // @formatter:off
         return documentIdToDocumentContent.entrySet().stream()
                 .map(Entry::getKey)
@@ -202,16 +222,14 @@ public class ProjectUnzipper {
      *
      * @return The zip entry names mapped to its zip entry contents
      */
-    private Map<String, ByteArrayOutputStream> readZipFile() {
-        Map<String, ByteArrayOutputStream> entryToHandle = new HashMap<>();
+    private Map<String, SpooledEntry> readZipFile() {
+        Map<String, SpooledEntry> entryToHandle = new LinkedHashMap<>();
         try (var zipperProjectInputStream = new ZipInputStream(this.inputStream)) {
             ZipEntry zipEntry = zipperProjectInputStream.getNextEntry();
             while (zipEntry != null) {
                 if (!zipEntry.isDirectory()) {
                     String name = zipEntry.getName();
-                    ByteArrayOutputStream entryBaos = new ByteArrayOutputStream();
-                    zipperProjectInputStream.transferTo(entryBaos);
-                    entryToHandle.put(name, entryBaos);
+                    entryToHandle.put(name, this.spool(zipperProjectInputStream));
                 }
                 zipEntry = zipperProjectInputStream.getNextEntry();
             }
@@ -222,6 +240,54 @@ public class ProjectUnzipper {
         return entryToHandle;
     }
 
+    /**
+     * Reads the current entry of the zip. The entry is kept in memory if the limit of the memory used by the entries is
+     * not reached, it is spooled to a temporary file otherwise.
+     *
+     * @param zipInputStream
+     *            The input stream of the zip, positioned on the entry to read
+     * @return The content of the entry
+     * @throws IOException
+     *             if an I/O error occurred
+     */
+    private SpooledEntry spool(ZipInputStream zipInputStream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[BUFFER_SIZE];
+        int read = zipInputStream.read(chunk);
+        while (read != -1) {
+            if (buffer.size() + read > this.remainingInMemorySize) {
+                Path spoolFile = Files.createTempFile(SPOOL_FILE_PREFIX, null);
+                this.spoolFiles.add(spoolFile);
+                long size = buffer.size() + read;
+                try (OutputStream outputStream = Files.newOutputStream(spoolFile)) {
+                    buffer.writeTo(outputStream);
+                    outputStream.write(chunk, 0, read);
+                    size = size + zipInputStream.transferTo(outputStream);
+                }
+                return new SpooledEntry(null, spoolFile, size);
+            }
+            buffer.write(chunk, 0, read);
+            read = zipInputStream.read(chunk);
+        }
+        this.remainingInMemorySize = this.remainingInMemorySize - buffer.size();
+        return new SpooledEntry(buffer.toByteArray(), null, buffer.size());
+    }
+
+    /**
+     * Deletes the temporary files used to spool the entries of the zip.
+     */
+    @Override
+    public void close() {
+        for (Path spoolFile : this.spoolFiles) {
+            try {
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException exception) {
+                this.logger.warn(exception.getMessage(), exception);
+            }
+        }
+        this.spoolFiles.clear();
+    }
+
     /**
      * Returns the project name if all zip entries represented by couple (zipEntry name -> OutputStream) in the given
      * {@link Map}, have their zip entry name starting by the project name, which should be the first segment of the
@@ -231,7 +297,7 @@ public class ProjectUnzipper {
      *            The map of zip entry name to the zip entry content
      * @return The name of the project
      */
-    private Optional<String> handleProjectName(Map<String, ByteArrayOutputStream> zipEntryToOutputStreams) {
+    private Optional<String> handleProjectName(Map<String, SpooledEntry> zipEntryToOutputStreams) {
         Iterator<String> iterator = zipEntryToOutputStreams.keySet().iterator();
         if (!iterator.hasNext()) {
             // zip was empty
@@ -256,13 +322,13 @@ public class ProjectUnzipper {
      *            The project manifest holding the map of document id to document name
      * @return the transformed map of zip entry to document content, to the map of document id to {@link UploadFile}
      */
-    private Map<String, UploadFile> getUploadFiles(Map<String, ByteArrayOutputStream> documentIdToDocumentContent, ProjectManifest projectManifest) {
+    private Map<String, UploadFile> getUploadFiles(Map<String, SpooledEntry> documentIdToDocumentContent, ProjectManifest projectManifest) {
         Map<String, UploadFile> documentIdToUploadFile = new HashMap<>();
-        for (Entry<String, ByteArrayOutputStream> entry : documentIdToDocumentContent.entrySet()) {
+        for (Entry<String, SpooledEntry> entry : documentIdToDocumentContent.entrySet()) {
             String documentId = entry.getKey();
-            ByteArrayOutputStream outputStream = entry.getValue();
+            SpooledEntry spooledEntry = entry.getValue();
             String documentName = projectManifest.getDocumentIdsToName().get(documentId);
-            UploadFile uploadFile = new UploadFile(documentName, new ByteArrayInputStream(outputStream.toByteArray()));
+            UploadFile uploadFile = new UploadFile(documentName, spooledEntry.getInputStream());
             documentIdToUploadFile.put(documentId, uploadFile);
         }
         return documentIdToUploadFile;
@@ -278,12 +344,13 @@ public class ProjectUnzipper {
      * @throws IOException
      *             If the deserialization has failed
      */
-    private List<RepresentationDescriptor> getRepresentationDescriptors(List<ByteArrayOutputStream> outputStreamToTransformToRepresentationDescriptor) throws IOException {
+    private List<RepresentationDescriptor> getRepresentationDescriptors(List<SpooledEntry> outputStreamToTransformToRepresentationDescriptor) throws IOException {
         List<RepresentationDescriptor> representations = new ArrayList<>();
-        for (ByteArrayOutputStream outputStream : outputStreamToTransformToRepresentationDescriptor) {
-            byte[] representationDescriptorBytes = outputStream.toByteArray();
-            RepresentationDescriptor representationDescriptor = this.objectMapper.readValue(representationDescriptorBytes, RepresentationDescriptor.class);
-            representations.add(representationDescriptor);
+        for (SpooledEntry spooledEntry : outputStreamToTransformToRepresentationDescriptor) {
+            try (InputStream representationDescriptorInputStream = spooledEntry.getInputStream()) {
+                RepresentationDescriptor representationDescriptor = this.objectMapper.readValue(representationDescriptorInputStream, RepresentationDescriptor.class);
+                representations.add(representationDescriptor);
+            }
         }
         return representations;
     }
@@ -298,23 +365,16 @@ public class ProjectUnzipper {
      * @return The {@link ProjectManifest} whether it is present in the given map and it has been deserialized
      *         successfully, {@link Optional#empty()} otherwise
      */
-    private Optional<ProjectManifest> getProjectManifest(Map<String, ByteArrayOutputStream> zipEntryNameToContent, String manifestPathInZip) {
+    private Optional<ProjectManifest> getProjectManifest(Map<String, SpooledEntry> zipEntryNameToContent, String manifestPathInZip) {
         Optional<ProjectManifest> optionalProjectManifest = Optional.empty();
 
-        // @formatter:off
-        byte[] manifestBytes = zipEntryNameToContent.entrySet().stream()
-                .filter(e -> e.getKey().equals(manifestPathInZip))
-                .map(Entry::getValue)
-                .map(ByteArrayOutputStream::toByteArray)
-                .findFirst()
-                .orElse(new byte[0]);
-        // @formatter:on
-        if (manifestBytes.length <= 0) {
+        SpooledEntry manifestEntry = zipEntryNameToContent.get(manifestPathInZip);
+        if (manifestEntry == null || manifestEntry.isEmpty()) {
             return Optional.empty();
         }
 
-        try {
-            ProjectManifest projectManifest = this.objectMapper.readValue(manifestBytes, ProjectManifest.class);
+        try (InputStream manifestInputStream = manifestEntry.getInputStream()) {
+            ProjectManifest projectManifest = this.objectMapper.readValue(manifestInputStream, ProjectManifest.class);
             optionalProjectManifest = Optional.of(projectManifest);
         } catch (IOException exception) {
             this.logger.warn(exception.getMessage(), exception);
@@ -322,4 +382,96 @@ public class ProjectUnzipper {
 
         return optionalProjectManifest;
     }
+
+    /**
+     * The content of an entry of the zip, either kept in memory or spooled to a temporary file.
+     *
+     * @author gcoutable
+     */
+    private static final class SpooledEntry {
+        private final byte[] bytes;
+
+        private final Path file;
+
+        private final long size;
+
+        SpooledEntry(byte[] bytes, Path file, long size) {
+            this.bytes = bytes;
+            this.file = file;
+            this.size = size;
+        }
+
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        /**
+         * Returns a new input stream on the content of the entry. The temporary file is only opened when the input
+         * stream is read for the first time, in order to keep a single file opened while the documents are imported
+         * one at a time.
+         *
+         * @return A new input stream on the content of the entry
+         */
+        public InputStream getInputStream() {
+            if (this.bytes != null) {
+                return new ByteArrayInputStream(this.bytes);
+            }
+            return new LazyFileInputStream(this.file);
+        }
+    }
+
+    /**
+     * Input stream opening a file when it is read for the first time.
+     *
+     * @author gcoutable
+     */
+    private static final class LazyFileInputStream extends InputStream {
+        private final Path file;
+
+        private InputStream delegate;
+
+        private boolean isClosed;
+
+        LazyFileInputStream(Path file) {
+            this.file = Objects.requireNonNull(file);
+        }
+
+        private InputStream getDelegate() throws IOException {
+            if (this.isClosed) {
+                throw new IOException("Stream closed"); //$NON-NLS-1$
+            }
+            if (this.delegate == null) {
+                this.delegate = Files.newInputStream(this.file);
+            }
+            return this.delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.getDelegate().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return this.getDelegate().read(buffer, offset, length);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return this.getDelegate().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.getDelegate().available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.isClosed = true;
+            if (this.delegate != null) {
+                this.delegate.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Index of the elements converted from the documents of a given type, by id.
+ *
+ * <p>
+ * The lookups are served from an immutable map. This map is rebuilt by the first lookup performed once the index has
+ * been invalidated or once the refresh interval has elapsed, which catches the documents created or deleted without
+ * invalidation. Only one lookup at a time performs the refresh, the other lookups are served from the previous map
+ * instead of waiting for the database. Only the versions of the documents are retrieved during a refresh, the content
+ * of a document is only loaded and converted again if its version has changed since its last conversion.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the elements converted from the documents
+ * @author sbegaudeau
+ */
+public class ConvertedDocumentIndex<T> {
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    private static final String RESULT_HIT = "hit"; //$NON-NLS-1$
+
+    private static final String RESULT_MISS = "miss"; //$NON-NLS-1$
+
+    private final Logger logger = LoggerFactory.getLogger(ConvertedDocumentIndex.class);
+
+    private final IDocumentRepository documentRepository;
+
+    private final String nsPrefix;
+
+    private final String nsURI;
+
+    private final Function<DocumentEntity, List<T>> converter;
+
+    private final Function<T, UUID> idProvider;
+
+    private final long refreshInterval;
+
+    private final Counter cacheHitCounter;
+
+    private final Counter cacheMissCounter;
+
+    private final Lock refreshLock = new ReentrantLock();
+
+    /**
+     * The elements converted from each document, by document id. It is only modified while holding the refresh lock.
+     */
+    private final Map<UUID, ConvertedDocument<T>> convertedDocuments = new ConcurrentHashMap<>();
+
+    /**
+     * The elements by id, <code>null</code> until the index has been built for the first time.
+     */
+    private volatile Map<UUID, T> elementsById;
+
+    private volatile boolean isStale = true;
+
+    private volatile long lastRefresh;
+
+    public ConvertedDocumentIndex(IDocumentRepository documentRepository, String nsPrefix, String nsURI, Function<DocumentEntity, List<T>> converter, Function<T, UUID> idProvider,
+            long refreshInterval, String cacheCounterName, MeterRegistry meterRegistry) {
+        this.documentRepository = Objects.requireNonNull(documentRepository);
+        this.nsPrefix = Objects.requireNonNull(nsPrefix);
+        this.nsURI = Objects.requireNonNull(nsURI);
+        this.converter = Objects.requireNonNull(converter);
+        this.idProvider = Objects.requireNonNull(idProvider);
+        this.refreshInterval = refreshInterval;
+
+        this.cacheHitCounter = Counter.builder(cacheCounterName).tag(RESULT, RESULT_HIT).register(meterRegistry);
+        this.cacheMissCounter = Counter.builder(cacheCounterName).tag(RESULT, RESULT_MISS).register(meterRegistry);
+    }
+
+    /**
+     * Returns the elements converted from the documents, by id.
+     *
+     * @return The elements by id
+     */
+    public Map<UUID, T> getElementsById() {
+        Map<UUID, T> currentElementsById = this.elementsById;
+        if (currentElementsById == null) {
+            // Nothing can be served before the first build, the lookups thus wait for it
+            this.refreshLock.lock();
+            try {
+                if (this.elementsById == null) {
+                    this.refresh();
+                }
+            } finally {
+                this.refreshLock.unlock();
+            }
+            currentElementsById = this.elementsById;
+        } else if (this.needsRefresh() && this.refreshLock.tryLock()) {
+            try {
+                this.refresh();
+            } catch (RuntimeException exception) {
+                this.isStale = true;
+                this.logger.warn(exception.getMessage(), exception);
+            } finally {
+                this.refreshLock.unlock();
+            }
+            currentElementsById = this.elementsById;
+        }
+        return currentElementsById;
+    }
+
+    /**
+     * Indicates if the given document has been converted by this index.
+     *
+     * @param documentId
+     *            The id of a document
+     * @return <code>true</code> if the document has been converted, <code>false</code> otherwise
+     */
+    public boolean isIndexed(UUID documentId) {
+        return this.convertedDocuments.containsKey(documentId);
+    }
+
+    /**
+     * Invalidates the index, it will be refreshed by the next lookup.
+     */
+    public void invalidate() {
+        this.isStale = true;
+    }
+
+    private boolean needsRefresh() {
+        return this.isStale || System.currentTimeMillis() - this.lastRefresh >= this.refreshInterval;
+    }
+
+    private void refresh() {
+        // Cleared before the query so that an invalidation performed during the refresh triggers another one
+        this.isStale = false;
+        this.lastRefresh = System.currentTimeMillis();
+
+        List<IDocumentVersion> documentVersions = this.documentRepository.findAllVersionsByType(this.nsPrefix, this.nsURI);
+
+        List<UUID> documentIds = new ArrayList<>();
+        List<UUID> staleDocumentIds = new ArrayList<>();
+        for (IDocumentVersion documentVersion : documentVersions) {
+            UUID documentId = UUID.fromString(documentVersion.getId());
+            documentIds.add(documentId);
+
+            ConvertedDocument<T> convertedDocument = this.convertedDocuments.get(documentId);
+            if (convertedDocument != null && convertedDocument.getVersion().equals(documentVersion.getContentHash())) {
+                this.cacheHitCounter.increment();
+            } else {
+                this.cacheMissCounter.increment();
+                staleDocumentIds.add(documentId);
+            }
+        }
+
+        if (!staleDocumentIds.isEmpty()) {
+            for (DocumentEntity documentEntity : this.documentRepository.findAllById(staleDocumentIds)) {
+                // A document without content hash is never considered as up to date since its version is unknown
+                String version = Objects.requireNonNullElse(documentEntity.getContentHash(), ""); //$NON-NLS-1$
+                this.convertedDocuments.put(documentEntity.getId(), new ConvertedDocument<>(version, this.converter.apply(documentEntity)));
+            }
+        }
+
+        boolean hasDeletedDocuments = this.convertedDocuments.keySet().retainAll(documentIds);
+        if (this.elementsById == null || !staleDocumentIds.isEmpty() || hasDeletedDocuments) {
+            Map<UUID, T> newElementsById = new LinkedHashMap<>();
+            for (UUID documentId : documentIds) {
+                ConvertedDocument<T> convertedDocument = this.convertedDocuments.get(documentId);
+                if (convertedDocument != null) {
+                    convertedDocument.getElements().forEach(element -> newElementsById.put(this.idProvider.apply(element), element));
+                }
+            }
+            this.elementsById = Collections.unmodifiableMap(newElementsById);
+        }
+    }
+
+    /**
+     * The elements converted from a version of a document.
+     *
+     * @param <T>
+     *            The type of the elements
+     * @author sbegaudeau
+     */
+    private static final class ConvertedDocument<T> {
+        private final String version;
+
+        private final List<T> elements;
+
+        ConvertedDocument(String version, List<T> elements) {
+            this.version = Objects.requireNonNull(version);
+            this.elements = List.copyOf(elements);
+        }
+
+        public String getVersion() {
+            return this.version;
+        }
+
+        public List<T> getElements() {
+            return this.elements;
+        }
+    }
+}
@@ -12,13 +12,12 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.representations;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EPackage;
@@ -34,14 +33,19 @@ import org.eclipse.sirius.web.emf.view.ViewConverter;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
 import org.eclipse.sirius.web.representations.IRepresentationDescription;
+import org.eclipse.sirius.web.services.api.events.DocumentsModifiedEvent;
 import org.eclipse.sirius.web.services.api.representations.IDynamicRepresentationDescriptionService;
+import org.eclipse.sirius.web.services.documents.DocumentContentInputStream;
 import org.eclipse.sirius.web.view.View;
 import org.eclipse.sirius.web.view.ViewPackage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Service to discover diagram descriptions dynamically from the existing user-defined documents.
  *
@@ -49,29 +53,55 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class DynamicRepresentationDescriptionService implements IDynamicRepresentationDescriptionService {
-    private final Logger logger = LoggerFactory.getLogger(DynamicRepresentationDescriptionService.class);
+    private static final String CACHE_COUNTER_NAME = "siriusweb_view_descriptions_cache"; //$NON-NLS-1$
 
-    private final IDocumentRepository documentRepository;
+    private final Logger logger = LoggerFactory.getLogger(DynamicRepresentationDescriptionService.class);
 
     private final EPackage.Registry ePackageRegistry;
 
     private final ViewConverter viewConverter;
 
+    private final ConvertedDocumentIndex<IRepresentationDescription> representationDescriptionIndex;
+
     public DynamicRepresentationDescriptionService(IDocumentRepository documentRepository, EPackage.Registry ePackageRegistry, IObjectService objectService, IEditService editService,
-            List<IJavaServiceProvider> javaServiceProviders, @Value("${org.eclipse.sirius.web.features.studioDefinition:false}") boolean isStudioDefinitionEnabled) {
-        this.documentRepository = Objects.requireNonNull(documentRepository);
+            List<IJavaServiceProvider> javaServiceProviders, @Value("${org.eclipse.sirius.web.features.studioDefinition:false}") boolean isStudioDefinitionEnabled,
+            @Value("${sirius.web.views.descriptions.refreshInterval:5000}") long refreshInterval, MeterRegistry meterRegistry) {
         this.ePackageRegistry = Objects.requireNonNull(ePackageRegistry);
         this.viewConverter = new ViewConverter(javaServiceProviders, objectService, editService, isStudioDefinitionEnabled);
+        this.representationDescriptionIndex = new ConvertedDocumentIndex<>(documentRepository, ViewPackage.eNAME, ViewPackage.eNS_URI, this::convert, IRepresentationDescription::getId,
+                refreshInterval, CACHE_COUNTER_NAME, meterRegistry);
     }
 
     @Override
     public List<IRepresentationDescription> findDynamicRepresentationDescriptions(UUID editingContextId) {
-        List<IRepresentationDescription> dynamicRepresentationDescriptions = new ArrayList<>();
-        this.documentRepository.findAllByType(ViewPackage.eNAME, ViewPackage.eNS_URI).forEach(documentEntity -> {
-            Resource res = this.loadDocumentAsEMF(documentEntity);
-            this.getViewDefinition(res).ifPresent(view -> this.viewConverter.convert(view).stream().filter(Objects::nonNull).forEach(dynamicRepresentationDescriptions::add));
-        });
-        return dynamicRepresentationDescriptions;
+        return List.copyOf(this.representationDescriptionIndex.getElementsById().values());
+    }
+
+    @Override
+    public Optional<IRepresentationDescription> findDynamicRepresentationDescriptionById(UUID editingContextId, UUID representationDescriptionId) {
+        return Optional.ofNullable(this.representationDescriptionIndex.getElementsById().get(representationDescriptionId));
+    }
+
+    /**
+     * Invalidates the representation descriptions if a view document has been modified.
+     *
+     * @param documentsModifiedEvent
+     *            The event indicating which documents have been modified
+     */
+    @EventListener
+    public void onDocumentsModified(DocumentsModifiedEvent documentsModifiedEvent) {
+        if (documentsModifiedEvent.getDocuments().stream().anyMatch(document -> this.representationDescriptionIndex.isIndexed(document.getId()))) {
+            this.representationDescriptionIndex.invalidate();
+        }
+    }
+
+    private List<IRepresentationDescription> convert(DocumentEntity documentEntity) {
+        Resource res = this.loadDocumentAsEMF(documentEntity);
+        // @formatter:off
+        return this.getViewDefinition(res)
+                .map(view -> this.viewConverter.convert(view).stream().filter(Objects::nonNull).collect(Collectors.toList()))
+                .orElse(List.of());
+        // @formatter:on
     }
 
     private Optional<View> getViewDefinition(Resource res) {
@@ -88,7 +118,7 @@ public class DynamicRepresentationDescriptionService implements IDynamicRepresen
         URI uri = URI.createURI(documentEntity.getId().toString());
         JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(uri);
         resourceSet.getResources().add(resource);
-        try (var inputStream = new ByteArrayInputStream(documentEntity.getContent().getBytes())) {
+        try (var inputStream = new DocumentContentInputStream(documentEntity.getContent())) {
             resource.load(inputStream, null);
         } catch (IOException | IllegalArgumentException exception) {
             this.logger.warn(exception.getMessage(), exception);
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import java.io.IOException;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.representations.IRepresentation;
+
+/**
+ * Used to encode and decode the content of the representations stored in the database.
+ *
+ * @author sbegaudeau
+ */
+public interface IRepresentationCodec {
+    /**
+     * Returns the format of the content, stored with the representations encoded by this codec.
+     *
+     * @return The format of the content
+     */
+    String getFormat();
+
+    /**
+     * Encodes the given representation in the content of the given entity.
+     *
+     * @param representation
+     *            The representation
+     * @param representationEntity
+     *            The entity which will hold the content
+     * @throws IOException
+     *             If the representation cannot be encoded
+     */
+    void encode(IRepresentation representation, RepresentationEntity representationEntity) throws IOException;
+
+    /**
+     * Decodes the representation from the content of the given entity.
+     *
+     * @param representationEntity
+     *            The entity holding the content
+     * @return The representation
+     * @throws IOException
+     *             If the content cannot be decoded
+     */
+    IRepresentation decode(RepresentationEntity representationEntity) throws IOException;
+
+    /**
+     * Estimates the memory used by the representation once decoded from the content of the given entity.
+     *
+     * @param representationEntity
+     *            The entity holding the content
+     * @return The estimated size in bytes
+     */
+    int estimateSize(RepresentationEntity representationEntity);
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.representations.IRepresentation;
+
+/**
+ * Codec storing the representations as JSON text.
+ *
+ * @author sbegaudeau
+ */
+public class JsonRepresentationCodec implements IRepresentationCodec {
+
+    public static final String FORMAT = "json"; //$NON-NLS-1$
+
+    private final ObjectMapper objectMapper;
+
+    public JsonRepresentationCodec(ObjectMapper objectMapper) {
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public void encode(IRepresentation representation, RepresentationEntity representationEntity) throws IOException {
+        representationEntity.setContent(this.objectMapper.writeValueAsString(representation));
+        representationEntity.setBinaryContent(null);
+    }
+
+    @Override
+    public IRepresentation decode(RepresentationEntity representationEntity) throws IOException {
+        return this.objectMapper.readValue(representationEntity.getContent(), IRepresentation.class);
+    }
+
+    @Override
+    public int estimateSize(RepresentationEntity representationEntity) {
+        // Characters are stored on two bytes
+        return (int) Math.min(Integer.MAX_VALUE, 2L * representationEntity.getContent().length());
+    }
+}
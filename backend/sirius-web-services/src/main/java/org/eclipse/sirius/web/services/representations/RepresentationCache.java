@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache of the deserialized representations.
+ *
+ * <p>
+ * The cache is bounded by an estimation of the memory used by the representations, computed from the size of their
+ * stored content. Since all the representations are saved by this server, the cache is updated when they are saved
+ * instead of being invalidated.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class RepresentationCache {
+
+    private static final String CACHE_COUNTER_NAME = "siriusweb_representations_cache"; //$NON-NLS-1$
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    private final Cache<UUID, CachedRepresentation> representationsById;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public RepresentationCache(MeterRegistry meterRegistry, @Value("${sirius.web.representations.cache.maximumWeight:67108864}") long maximumWeight,
+            @Value("${sirius.web.representations.cache.expireAfterAccess:30}") long expireAfterAccess) {
+        // @formatter:off
+        this.representationsById = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((UUID representationId, CachedRepresentation cachedRepresentation) -> cachedRepresentation.getWeight())
+                .expireAfterAccess(expireAfterAccess, TimeUnit.MINUTES)
+                .build();
+
+        this.hitCounter = Counter.builder(CACHE_COUNTER_NAME)
+                .tag(RESULT, "hit") //$NON-NLS-1$
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(CACHE_COUNTER_NAME)
+                .tag(RESULT, "miss") //$NON-NLS-1$
+                .register(meterRegistry);
+        // @formatter:on
+    }
+
+    public Optional<IRepresentation> get(UUID projectId, UUID representationId) {
+        // @formatter:off
+        var optionalRepresentation = Optional.ofNullable(this.representationsById.getIfPresent(representationId))
+                .filter(cachedRepresentation -> cachedRepresentation.getProjectId().equals(projectId))
+                .map(CachedRepresentation::getRepresentation);
+        // @formatter:on
+
+        if (optionalRepresentation.isPresent()) {
+            this.hitCounter.increment();
+        } else {
+            this.missCounter.increment();
+        }
+        return optionalRepresentation;
+    }
+
+    /**
+     * Adds the given representation to the cache.
+     *
+     * @param projectId
+     *            The id of the project containing the representation
+     * @param representation
+     *            The representation
+     * @param estimatedSize
+     *            The estimated size of the representation in bytes
+     */
+    public void put(UUID projectId, IRepresentation representation, int estimatedSize) {
+        this.representationsById.put(representation.getId(), new CachedRepresentation(projectId, representation, estimatedSize));
+    }
+
+    /**
+     * Adds the given representation read from the database to the cache, unless a representation with the same id has
+     * been cached in the meantime. Such a representation has been written after the read and it must thus be kept.
+     *
+     * @param projectId
+     *            The id of the project containing the representation
+     * @param representation
+     *            The representation read from the database
+     * @param estimatedSize
+     *            The estimated size of the representation in bytes
+     * @return The representation in the cache
+     */
+    public IRepresentation putIfAbsent(UUID projectId, IRepresentation representation, int estimatedSize) {
+        CachedRepresentation cachedRepresentation = this.representationsById.asMap().putIfAbsent(representation.getId(), new CachedRepresentation(projectId, representation, estimatedSize));
+        if (cachedRepresentation != null) {
+            return cachedRepresentation.getRepresentation();
+        }
+        return representation;
+    }
+
+    public void evict(UUID representationId) {
+        this.representationsById.invalidate(representationId);
+    }
+
+    public void evictAll(UUID projectId) {
+        this.representationsById.asMap().values().removeIf(cachedRepresentation -> cachedRepresentation.getProjectId().equals(projectId));
+    }
+
+    /**
+     * A representation in the cache.
+     *
+     * @author sbegaudeau
+     */
+    private static final class CachedRepresentation {
+        private final UUID projectId;
+
+        private final IRepresentation representation;
+
+        private final int weight;
+
+        CachedRepresentation(UUID projectId, IRepresentation representation, int weight) {
+            this.projectId = Objects.requireNonNull(projectId);
+            this.representation = Objects.requireNonNull(representation);
+            this.weight = weight;
+        }
+
+        public UUID getProjectId() {
+            return this.projectId;
+        }
+
+        public IRepresentation getRepresentation() {
+            return this.representation;
+        }
+
+        public int getWeight() {
+            return this.weight;
+        }
+    }
+}
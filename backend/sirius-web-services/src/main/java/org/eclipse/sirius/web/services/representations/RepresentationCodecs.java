@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * The codecs used to store the content of the representations.
+ *
+ * <p>
+ * New representations are encoded with the codec of the configured format while existing ones are decoded with the
+ * codec of their own format. Representations stored before the introduction of the formats are read as JSON.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class RepresentationCodecs {
+
+    private final Logger logger = LoggerFactory.getLogger(RepresentationCodecs.class);
+
+    private final Map<String, IRepresentationCodec> format2Codec;
+
+    private final IRepresentationCodec encoder;
+
+    public RepresentationCodecs(ObjectMapper objectMapper, @Value("${sirius.web.representations.format:json}") String format) {
+        IRepresentationCodec jsonCodec = new JsonRepresentationCodec(objectMapper);
+        List<IRepresentationCodec> codecs = List.of(jsonCodec, new SmileRepresentationCodec(objectMapper, false), new SmileRepresentationCodec(objectMapper, true));
+        this.format2Codec = codecs.stream().collect(Collectors.toUnmodifiableMap(IRepresentationCodec::getFormat, Function.identity()));
+
+        this.encoder = Optional.ofNullable(this.format2Codec.get(format)).orElseGet(() -> {
+            this.logger.warn("The representation format {} is not supported, the representations will be stored as JSON", format); //$NON-NLS-1$
+            return jsonCodec;
+        });
+    }
+
+    public IRepresentationCodec getEncoder() {
+        return this.encoder;
+    }
+
+    public Optional<IRepresentationCodec> getDecoder(RepresentationEntity representationEntity) {
+        String format = Optional.ofNullable(representationEntity.getFormat()).orElse(JsonRepresentationCodec.FORMAT);
+        return Optional.ofNullable(this.format2Codec.get(format));
+    }
+}
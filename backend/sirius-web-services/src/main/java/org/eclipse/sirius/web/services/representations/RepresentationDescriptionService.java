@@ -80,7 +80,8 @@ public class RepresentationDescriptionService implements IRepresentationDescript
 
     @Override
     public Optional<IRepresentationDescription> findById(UUID id) {
-        return Optional.ofNullable(this.getAllRepresentationDescriptions().get(id));
+        // The dynamically discovered version wins over the version discovered on startup.
+        return this.dynamicRepresentationDescriptionService.findDynamicRepresentationDescriptionById(UUID.randomUUID(), id).or(() -> this.registry.getRepresentationDescription(id));
     }
 
 }
@@ -12,15 +12,18 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.representations;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
 import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.projections.IRepresentationMetadata;
 import org.eclipse.sirius.web.representations.IRepresentation;
 import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,15 +36,21 @@ public class RepresentationMapper {
 
     private final Logger logger = LoggerFactory.getLogger(RepresentationMapper.class);
 
-    private final ObjectMapper objectMapper;
+    private final RepresentationCodecs representationCodecs;
 
-    public RepresentationMapper(ObjectMapper objectMapper) {
-        this.objectMapper = Objects.requireNonNull(objectMapper);
+    public RepresentationMapper(RepresentationCodecs representationCodecs) {
+        this.representationCodecs = Objects.requireNonNull(representationCodecs);
     }
 
     public RepresentationDescriptor toDTO(RepresentationEntity representationEntity) {
+        var optionalDecoder = this.representationCodecs.getDecoder(representationEntity);
+        if (optionalDecoder.isEmpty()) {
+            this.logger.warn("The format {} of the representation {} is not supported", representationEntity.getFormat(), representationEntity.getId()); //$NON-NLS-1$
+            return null;
+        }
+
         try {
-            IRepresentation representation = this.objectMapper.readValue(representationEntity.getContent(), IRepresentation.class);
+            IRepresentation representation = optionalDecoder.get().decode(representationEntity);
             // @formatter:off
             return RepresentationDescriptor.newRepresentationDescriptor(representationEntity.getId())
                     .label(representationEntity.getLabel())
@@ -51,12 +60,57 @@ public class RepresentationMapper {
                     .representation(representation)
                     .build();
             // @formatter:on
-        } catch (JsonProcessingException exception) {
+        } catch (IOException exception) {
             this.logger.warn(exception.getMessage(), exception);
         }
         return null;
     }
 
+    /**
+     * Estimates the memory used by the representation of the given entity once decoded.
+     *
+     * @param representationEntity
+     *            The representation entity
+     * @return The estimated size in bytes or an empty optional if the representation has no content
+     */
+    public Optional<Integer> estimateSize(RepresentationEntity representationEntity) {
+        Optional<Integer> optionalSize = Optional.empty();
+        if (representationEntity.getContent() != null || representationEntity.getBinaryContent() != null) {
+            optionalSize = this.representationCodecs.getDecoder(representationEntity).map(codec -> codec.estimateSize(representationEntity));
+        }
+        return optionalSize;
+    }
+
+    public Optional<RepresentationMetadata> toMetadataDTO(IRepresentationMetadata representationMetadata) {
+        Optional<RepresentationMetadata> optionalRepresentationMetadata = Optional.empty();
+        if (representationMetadata.getKind() != null && representationMetadata.getDescriptionId() != null) {
+            // @formatter:off
+            var metadata = RepresentationMetadata.newRepresentationMetadata(UUID.fromString(representationMetadata.getId()))
+                    .label(representationMetadata.getLabel())
+                    .projectId(UUID.fromString(representationMetadata.getProjectId()))
+                    .descriptionId(UUID.fromString(representationMetadata.getDescriptionId()))
+                    .targetObjectId(representationMetadata.getTargetObjectId())
+                    .kind(representationMetadata.getKind())
+                    .build();
+            // @formatter:on
+            optionalRepresentationMetadata = Optional.of(metadata);
+        } else {
+            this.logger.warn("The metadata of the representation {} are incomplete", representationMetadata.getId()); //$NON-NLS-1$
+        }
+        return optionalRepresentationMetadata;
+    }
+
+    /**
+     * Converts the given representation descriptor to a representation entity holding the encoded representation.
+     *
+     * @param representationDescriptor
+     *            The representation descriptor
+     * @param projectEntity
+     *            The project of the representation
+     * @return The representation entity
+     * @throws UncheckedIOException
+     *             If the representation cannot be encoded
+     */
     public RepresentationEntity toEntity(RepresentationDescriptor representationDescriptor, ProjectEntity projectEntity) {
         RepresentationEntity representationEntity = new RepresentationEntity();
 
@@ -64,12 +118,15 @@ public class RepresentationMapper {
         representationEntity.setProject(projectEntity);
         representationEntity.setLabel(representationDescriptor.getLabel());
         representationEntity.setTargetObjectId(representationDescriptor.getTargetObjectId());
+        representationEntity.setKind(representationDescriptor.getRepresentation().getKind());
+        representationEntity.setDescriptionId(representationDescriptor.getDescriptionId().toString());
         representationEntity.setContentType(representationDescriptor.getRepresentation().getClass().getSimpleName());
         try {
-            String content = this.objectMapper.writeValueAsString(representationDescriptor.getRepresentation());
-            representationEntity.setContent(content);
-        } catch (JsonProcessingException exception) {
-            this.logger.warn(exception.getMessage(), exception);
+            IRepresentationCodec encoder = this.representationCodecs.getEncoder();
+            encoder.encode(representationDescriptor.getRepresentation(), representationEntity);
+            representationEntity.setFormat(encoder.getFormat());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
         }
 
         return representationEntity;
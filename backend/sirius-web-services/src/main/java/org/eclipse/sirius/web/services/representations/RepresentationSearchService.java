@@ -12,13 +12,12 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.representations;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.core.api.IEditingContext;
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
 import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
 import org.eclipse.sirius.web.representations.IRepresentation;
 import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
@@ -34,21 +33,46 @@ import org.springframework.stereotype.Service;
 public class RepresentationSearchService implements IRepresentationSearchService {
     private final IRepresentationRepository representationRepository;
 
-    private final ObjectMapper objectMapper;
+    private final RepresentationCodecs representationCodecs;
+
+    private final RepresentationCache representationCache;
+
+    private final RepresentationWriteBehindQueue writeBehindQueue;
 
-    public RepresentationSearchService(IRepresentationRepository representationRepository, ObjectMapper objectMapper) {
+    public RepresentationSearchService(IRepresentationRepository representationRepository, RepresentationCodecs representationCodecs, RepresentationCache representationCache,
+            RepresentationWriteBehindQueue writeBehindQueue) {
         this.representationRepository = Objects.requireNonNull(representationRepository);
-        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.representationCodecs = Objects.requireNonNull(representationCodecs);
+        this.representationCache = Objects.requireNonNull(representationCache);
+        this.writeBehindQueue = Objects.requireNonNull(writeBehindQueue);
     }
 
     @Override
     public <T extends IRepresentation> Optional<T> findById(IEditingContext editingContext, UUID representationId, Class<T> representationClass) {
+        var optionalRepresentation = this.representationCache.get(editingContext.getId(), representationId);
+        if (optionalRepresentation.isEmpty()) {
+            this.writeBehindQueue.flush(representationId);
+            optionalRepresentation = this.representationRepository.findById(representationId).flatMap(this::toRepresentation);
+        }
+
         // @formatter:off
-        return this.representationRepository.findById(representationId)
-                .map(new RepresentationMapper(this.objectMapper)::toDTO)
-                .map(RepresentationDescriptor::getRepresentation)
-                .filter(representationClass::isInstance)
+        return optionalRepresentation.filter(representationClass::isInstance)
                 .map(representationClass::cast);
         // @formatter:on
     }
+
+    private Optional<IRepresentation> toRepresentation(RepresentationEntity representationEntity) {
+        RepresentationMapper representationMapper = new RepresentationMapper(this.representationCodecs);
+        // @formatter:off
+        var optionalRepresentation = Optional.ofNullable(representationMapper.toDTO(representationEntity))
+                .map(RepresentationDescriptor::getRepresentation);
+        // @formatter:on
+
+        // The representation written while it was read, if any, is more recent than the one read
+        UUID projectId = representationEntity.getProject().getId();
+        return optionalRepresentation.map(representation -> {
+            int estimatedSize = representationMapper.estimateSize(representationEntity).orElse(0);
+            return this.representationCache.putIfAbsent(projectId, representation, estimatedSize);
+        });
+    }
 }
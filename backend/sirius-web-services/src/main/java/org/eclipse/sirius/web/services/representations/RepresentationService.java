@@ -12,25 +12,34 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.services.representations;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.sirius.web.core.api.IEditingContext;
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
 import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
-import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.persistence.projections.IRepresentationMetadata;
 import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
 import org.eclipse.sirius.web.representations.ISemanticRepresentation;
 import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
 import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
 import org.eclipse.sirius.web.spring.collaborative.api.IDanglingRepresentationDeletionService;
 import org.eclipse.sirius.web.spring.collaborative.api.IRepresentationPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import io.micrometer.core.instrument.MeterRegistry;
@@ -42,50 +51,88 @@ import io.micrometer.core.instrument.Timer;
  * @author gcoutable
  */
 @Service
-public class RepresentationService implements IRepresentationService, IRepresentationPersistenceService, IDanglingRepresentationDeletionService {
+public class RepresentationService implements IRepresentationService, IRepresentationPersistenceService, IDanglingRepresentationDeletionService, DisposableBean {
 
     private static final String TIMER_NAME = "siriusweb_representation_save"; //$NON-NLS-1$
 
-    private final IProjectRepository projectRepository;
+    private static final String OPERATION = "operation"; //$NON-NLS-1$
+
+    private final Logger logger = LoggerFactory.getLogger(RepresentationService.class);
 
     private final IRepresentationRepository representationRepository;
 
-    private final ObjectMapper objectMapper;
+    private final RepresentationCodecs representationCodecs;
+
+    private final RepresentationCache representationCache;
+
+    private final RepresentationWriteBehindQueue writeBehindQueue;
+
+    private final Timer submitTimer;
 
-    private final Timer timer;
+    private final Timer writeTimer;
 
-    public RepresentationService(IProjectRepository projectRepository, IRepresentationRepository representationRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
-        this.projectRepository = Objects.requireNonNull(projectRepository);
+    /**
+     * The ids of the objects targeted by at least one representation, per project.
+     */
+    private final Cache<UUID, Set<String>> targetObjectIdsByProjectId;
+
+    public RepresentationService(IRepresentationRepository representationRepository, RepresentationCodecs representationCodecs, RepresentationCache representationCache,
+            RepresentationWriteBehindQueue writeBehindQueue, MeterRegistry meterRegistry, @Value("${sirius.web.representations.targetObjectIds.cacheSize:1000}") int cacheSize) {
         this.representationRepository = Objects.requireNonNull(representationRepository);
-        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.representationCodecs = Objects.requireNonNull(representationCodecs);
+        this.representationCache = Objects.requireNonNull(representationCache);
+        this.writeBehindQueue = Objects.requireNonNull(writeBehindQueue);
+        this.targetObjectIdsByProjectId = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
 
-        this.timer = Timer.builder(TIMER_NAME).register(meterRegistry);
+        // The coalescing factor of the saves is the number of submitted saves divided by the number of writes
+        this.submitTimer = Timer.builder(TIMER_NAME).tag(OPERATION, "submit").register(meterRegistry); //$NON-NLS-1$
+        this.writeTimer = Timer.builder(TIMER_NAME).tag(OPERATION, "write").register(meterRegistry); //$NON-NLS-1$
     }
 
     @Override
     public boolean hasRepresentations(String objectId) {
+        this.flushAll(objectId);
         return this.representationRepository.hasRepresentations(objectId);
     }
 
+    @Override
+    public boolean hasRepresentations(UUID projectId, String objectId) {
+        try {
+            return this.targetObjectIdsByProjectId.get(projectId, () -> this.findAllTargetObjectIds(projectId)).contains(objectId);
+        } catch (ExecutionException exception) {
+            this.logger.warn(exception.getMessage(), exception);
+        }
+        return this.representationRepository.hasRepresentations(objectId);
+    }
+
+    private Set<String> findAllTargetObjectIds(UUID projectId) {
+        Set<String> targetObjectIds = ConcurrentHashMap.newKeySet();
+        targetObjectIds.addAll(this.representationRepository.findAllTargetObjectIdsByProjectId(projectId));
+        return targetObjectIds;
+    }
+
     @Override
     public Optional<RepresentationDescriptor> getRepresentationDescriptorForProjectId(UUID projectId, UUID representationId) {
-        return this.representationRepository.findByIdAndProjectId(representationId, projectId).map(new RepresentationMapper(this.objectMapper)::toDTO);
+        this.writeBehindQueue.flush(representationId);
+        return this.representationRepository.findByIdAndProjectId(representationId, projectId).map(new RepresentationMapper(this.representationCodecs)::toDTO);
     }
 
     @Override
     public List<RepresentationDescriptor> getRepresentationDescriptorsForProjectId(UUID projectId) {
+        this.flushAll(projectId);
         // @formatter:off
         return this.representationRepository.findAllByProjectId(projectId).stream()
-                .map(new RepresentationMapper(this.objectMapper)::toDTO)
+                .map(new RepresentationMapper(this.representationCodecs)::toDTO)
                 .collect(Collectors.toUnmodifiableList());
         // @formatter:on
     }
 
     @Override
     public List<RepresentationDescriptor> getRepresentationDescriptorsForObjectId(String objectId) {
+        this.flushAll(objectId);
         // @formatter:off
         return this.representationRepository.findAllByTargetObjectId(objectId).stream()
-                .map(new RepresentationMapper(this.objectMapper)::toDTO)
+                .map(new RepresentationMapper(this.representationCodecs)::toDTO)
                 .collect(Collectors.toUnmodifiableList());
         // @formatter:on
     }
@@ -93,17 +140,58 @@ public class RepresentationService implements IRepresentationService, IRepresent
     @Override
     public void save(IEditingContext editingContext, ISemanticRepresentation representation) {
         long start = System.currentTimeMillis();
-        RepresentationDescriptor representationDescriptor = this.getRepresentationDescriptor(editingContext.getId(), representation);
+        UUID projectId = editingContext.getId();
+        RepresentationDescriptor representationDescriptor = this.getRepresentationDescriptor(projectId, representation);
 
-        var optionalProjectEntity = this.projectRepository.findById(representationDescriptor.getProjectId());
-        if (optionalProjectEntity.isPresent()) {
-            ProjectEntity projectEntity = optionalProjectEntity.get();
-            RepresentationEntity representationEntity = new RepresentationMapper(this.objectMapper).toEntity(representationDescriptor, projectEntity);
-            this.representationRepository.save(representationEntity);
+        RepresentationMapper representationMapper = new RepresentationMapper(this.representationCodecs);
+        RepresentationEntity representationEntity = representationMapper.toEntity(representationDescriptor, this.getProjectReference(projectId));
+        var optionalEstimatedSize = representationMapper.estimateSize(representationEntity);
+        if (optionalEstimatedSize.isPresent()) {
+            this.representationCache.put(projectId, representation, optionalEstimatedSize.get());
+        } else {
+            // The representation cannot be decoded again, a previous state must not be served from the cache
+            this.logger.warn("The format {} of the representation {} is not supported", representationEntity.getFormat(), representationEntity.getId()); //$NON-NLS-1$
+            this.representationCache.evict(representationEntity.getId());
         }
 
+        Set<String> targetObjectIds = this.targetObjectIdsByProjectId.getIfPresent(projectId);
+        if (targetObjectIds != null) {
+            targetObjectIds.add(representationEntity.getTargetObjectId());
+        }
+
+        // A representation which cannot be written must not be served from the cache since it would not survive a restart
+        this.writeBehindQueue.submit(representationEntity, this::write, this.representationCache::evict);
+
+        long end = System.currentTimeMillis();
+        this.submitTimer.record(end - start, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a project entity only holding the id of the project, there is no need to load the project since the
+     * representations are written using the id of their project.
+     *
+     * @param projectId
+     *            The id of the project
+     * @return A project entity with only an id
+     */
+    private ProjectEntity getProjectReference(UUID projectId) {
+        ProjectEntity projectEntity = new ProjectEntity();
+        projectEntity.setId(projectId);
+        return projectEntity;
+    }
+
+    private void write(RepresentationWriteBehindQueue.PendingWrite pendingWrite) {
+        long start = System.currentTimeMillis();
+
+        RepresentationEntity representationEntity = pendingWrite.getRepresentationEntity();
+        // @formatter:off
+        this.representationRepository.upsert(representationEntity.getId(), representationEntity.getProject().getId(), representationEntity.getTargetObjectId(),
+                representationEntity.getLabel(), representationEntity.getKind(), representationEntity.getDescriptionId(), representationEntity.getContentType(),
+                representationEntity.getFormat(), representationEntity.getContent(), representationEntity.getBinaryContent());
+        // @formatter:on
+
         long end = System.currentTimeMillis();
-        this.timer.record(end - start, TimeUnit.MILLISECONDS);
+        this.writeTimer.record(end - start, TimeUnit.MILLISECONDS);
     }
 
     private RepresentationDescriptor getRepresentationDescriptor(UUID editingContextId, ISemanticRepresentation representation) {
@@ -120,24 +208,91 @@ public class RepresentationService implements IRepresentationService, IRepresent
 
     @Override
     public Optional<RepresentationDescriptor> getRepresentation(UUID representationId) {
+        this.writeBehindQueue.flush(representationId);
         // @formatter:off
         return this.representationRepository.findById(representationId)
-                .map(new RepresentationMapper(this.objectMapper)::toDTO);
+                .map(new RepresentationMapper(this.representationCodecs)::toDTO);
         // @formatter:off
     }
 
+    @Override
+    public List<RepresentationMetadata> getRepresentationMetadataForProjectId(UUID projectId) {
+        this.flushAll(projectId);
+        // @formatter:off
+        return this.representationRepository.findAllMetadataByProjectId(projectId).stream()
+                .map(new RepresentationMapper(this.representationCodecs)::toMetadataDTO)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toUnmodifiableList());
+        // @formatter:on
+    }
+
+    @Override
+    public List<RepresentationMetadata> getRepresentationMetadataForObjectId(String objectId) {
+        this.flushAll(objectId);
+        // @formatter:off
+        return this.representationRepository.findAllMetadataByTargetObjectId(objectId).stream()
+                .map(new RepresentationMapper(this.representationCodecs)::toMetadataDTO)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toUnmodifiableList());
+        // @formatter:on
+    }
+
+    @Override
+    public Optional<RepresentationMetadata> getRepresentationMetadata(UUID representationId) {
+        this.writeBehindQueue.flush(representationId);
+        // @formatter:off
+        return this.representationRepository.findMetadataById(representationId)
+                .flatMap(new RepresentationMapper(this.representationCodecs)::toMetadataDTO);
+        // @formatter:on
+    }
+
     @Override
     public boolean existsById(UUID representationId) {
+        this.writeBehindQueue.flush(representationId);
         return this.representationRepository.existsById(representationId);
     }
 
     @Override
     public void delete(UUID representationId) {
+        this.writeBehindQueue.discard(representationId);
+        var optionalRepresentationMetadata = this.representationRepository.findMetadataById(representationId);
         this.representationRepository.deleteById(representationId);
+        this.representationCache.evict(representationId);
+
+        // Other representations may still target the same object, the ids will thus be computed again if necessary
+        optionalRepresentationMetadata.map(IRepresentationMetadata::getProjectId).map(UUID::fromString).ifPresent(this.targetObjectIdsByProjectId::invalidate);
     }
 
     @Override
     public void deleteDanglingRepresentations(UUID editingContextId) {
+        this.flushAll(editingContextId);
         this.representationRepository.deleteDanglingRepresentations(editingContextId);
+        this.representationCache.evictAll(editingContextId);
+        this.targetObjectIdsByProjectId.invalidate(editingContextId);
+    }
+
+    @Override
+    public void destroy() {
+        this.writeBehindQueue.flushAll();
+    }
+
+    /**
+     * Writes the pending representations of the given project before reading them from the database.
+     *
+     * @param projectId
+     *            The id of the project
+     */
+    private void flushAll(UUID projectId) {
+        this.writeBehindQueue.flushAll(representationEntity -> projectId.equals(representationEntity.getProject().getId()));
+    }
+
+    /**
+     * Writes the pending representations of the given object before reading them from the database.
+     *
+     * @param targetObjectId
+     *            The id of the object targeted by the representations
+     */
+    private void flushAll(String targetObjectId) {
+        this.writeBehindQueue.flushAll(representationEntity -> targetObjectId.equals(representationEntity.getTargetObjectId()));
     }
 }
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import com.google.common.util.concurrent.Striped;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Queue used to coalesce the saves of the representations.
+ *
+ * <p>
+ * When the write-behind mode is enabled, the states of a representation submitted during a configurable delay are
+ * coalesced, only the latest one is kept and it is written once on a dedicated executor. The writes of a given
+ * representation are never performed concurrently in order to keep them ordered. When the write-behind mode is
+ * disabled, the representations are written immediately.
+ * </p>
+ *
+ * <p>
+ * A write which fails is submitted again, unless a newer state has been submitted since then, up to a configurable
+ * number of retries. Once the retries are exhausted the failure handler receives the id of the representation which
+ * has not been written. If the write-behind mode is disabled, the exception thrown by a failed write is propagated.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+@Service
+public class RepresentationWriteBehindQueue {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(RepresentationWriteBehindQueue.class);
+
+    private final boolean isEnabled;
+
+    private final long delay;
+
+    private final int retries;
+
+    private final ScheduledExecutorService executorService;
+
+    private final Map<UUID, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    private final Striped<Lock> flushLocks = Striped.lock(LOCK_STRIPES);
+
+    public RepresentationWriteBehindQueue(@Value("${sirius.web.representations.writeBehind.enabled:false}") boolean isEnabled,
+            @Value("${sirius.web.representations.writeBehind.delay:250}") long delay, @Value("${sirius.web.representations.writeBehind.threads:1}") int threads,
+            @Value("${sirius.web.representations.writeBehind.retries:3}") int retries) {
+        this.isEnabled = isEnabled;
+        this.delay = delay;
+        this.retries = retries;
+        if (isEnabled) {
+            this.executorService = Executors.newScheduledThreadPool(threads);
+        } else {
+            this.executorService = null;
+        }
+    }
+
+    /**
+     * Submits a new state of a representation. It will replace the state already pending for this representation and
+     * it will be written later by the given writer. If the write-behind mode is disabled or if the application is
+     * shutting down, the representation is written immediately.
+     *
+     * @param representationEntity
+     *            The representation to write
+     * @param writer
+     *            The writer which will receive the latest state of the representation
+     * @param failureHandler
+     *            The handler which will receive the id of the representation if it could not be written
+     */
+    public void submit(RepresentationEntity representationEntity, Consumer<PendingWrite> writer, Consumer<UUID> failureHandler) {
+        PendingWrite newPendingWrite = new PendingWrite(representationEntity, writer, failureHandler, 0);
+        if (!this.isEnabled || this.executorService.isShutdown()) {
+            writer.accept(newPendingWrite);
+        } else {
+            try {
+                this.pendingWrites.compute(representationEntity.getId(), (id, pendingWrite) -> {
+                    if (pendingWrite == null) {
+                        this.executorService.schedule(() -> this.flush(id), this.delay, TimeUnit.MILLISECONDS);
+                    }
+                    return newPendingWrite;
+                });
+            } catch (RejectedExecutionException exception) {
+                // The executor has been shut down since it has been checked, nothing is pending for this representation
+                writer.accept(newPendingWrite);
+            }
+        }
+    }
+
+    /**
+     * Writes synchronously the state pending for the given representation, if any.
+     *
+     * @param representationId
+     *            The id of the representation
+     */
+    public void flush(UUID representationId) {
+        Lock lock = this.flushLocks.get(representationId);
+        lock.lock();
+        try {
+            PendingWrite pendingWrite = this.pendingWrites.remove(representationId);
+            if (pendingWrite != null) {
+                try {
+                    pendingWrite.getWriter().accept(pendingWrite);
+                } catch (RuntimeException exception) {
+                    this.retry(representationId, pendingWrite, exception);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Submits again the state of a failed write, unless a newer state has been submitted since the failed write has
+     * been removed from the queue. This method is called while holding the flush lock of the representation, no newer
+     * state can thus have been written in the meantime.
+     *
+     * @param representationId
+     *            The id of the representation
+     * @param failedWrite
+     *            The write which has failed
+     * @param exception
+     *            The exception thrown by the write
+     */
+    private void retry(UUID representationId, PendingWrite failedWrite, RuntimeException exception) {
+        boolean isRetried = false;
+        if (failedWrite.getAttempt() < this.retries && !this.executorService.isShutdown()) {
+            try {
+                this.pendingWrites.compute(representationId, (id, pendingWrite) -> {
+                    PendingWrite newPendingWrite = pendingWrite;
+                    if (newPendingWrite == null) {
+                        RepresentationEntity representationEntity = failedWrite.getRepresentationEntity();
+                        newPendingWrite = new PendingWrite(representationEntity, failedWrite.getWriter(), failedWrite.getFailureHandler(), failedWrite.getAttempt() + 1);
+                        this.executorService.schedule(() -> this.flush(id), this.delay, TimeUnit.MILLISECONDS);
+                    }
+                    return newPendingWrite;
+                });
+                isRetried = true;
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                exception.addSuppressed(rejectedExecutionException);
+            }
+        }
+
+        if (isRetried) {
+            this.logger.warn("The representation {} could not be written, the write will be retried", representationId, exception); //$NON-NLS-1$
+        } else {
+            this.logger.error("The representation {} could not be written", representationId, exception); //$NON-NLS-1$
+            failedWrite.getFailureHandler().accept(representationId);
+        }
+    }
+
+    /**
+     * Writes synchronously the states pending for the representations matching the given predicate.
+     *
+     * @param predicate
+     *            The predicate used to select the representations to write
+     */
+    public void flushAll(Predicate<RepresentationEntity> predicate) {
+        // @formatter:off
+        Set<UUID> representationIds = this.pendingWrites.entrySet().stream()
+                .filter(entry -> predicate.test(entry.getValue().getRepresentationEntity()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        // @formatter:on
+        representationIds.forEach(this::flush);
+    }
+
+    /**
+     * Discards the state pending for the given representation, used when the representation is deleted. Once this
+     * method returns, the representation will not be written anymore.
+     *
+     * @param representationId
+     *            The id of the representation
+     */
+    public void discard(UUID representationId) {
+        Lock lock = this.flushLocks.get(representationId);
+        lock.lock();
+        try {
+            this.pendingWrites.remove(representationId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes synchronously all the pending states and stops accepting new flushes, used when the application is
+     * shutting down.
+     */
+    public void flushAll() {
+        Set<UUID> representationIds = Set.copyOf(this.pendingWrites.keySet());
+        representationIds.forEach(this::flush);
+        if (this.executorService != null) {
+            this.executorService.shutdown();
+        }
+    }
+
+    /**
+     * The latest state of a representation waiting to be written.
+     *
+     * @author sbegaudeau
+     */
+    public static final class PendingWrite {
+        private final RepresentationEntity representationEntity;
+
+        private final Consumer<PendingWrite> writer;
+
+        private final Consumer<UUID> failureHandler;
+
+        private final int attempt;
+
+        PendingWrite(RepresentationEntity representationEntity, Consumer<PendingWrite> writer, Consumer<UUID> failureHandler, int attempt) {
+            this.representationEntity = Objects.requireNonNull(representationEntity);
+            this.writer = Objects.requireNonNull(writer);
+            this.failureHandler = Objects.requireNonNull(failureHandler);
+            this.attempt = attempt;
+        }
+
+        public RepresentationEntity getRepresentationEntity() {
+            return this.representationEntity;
+        }
+
+        public Consumer<PendingWrite> getWriter() {
+            return this.writer;
+        }
+
+        public Consumer<UUID> getFailureHandler() {
+            return this.failureHandler;
+        }
+
+        public int getAttempt() {
+            return this.attempt;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.representations.IRepresentation;
+
+/**
+ * Codec storing the representations with the binary Smile format, optionally compressed.
+ *
+ * <p>
+ * The representations are serialized by the object mapper of the application, with its configuration and its modules,
+ * using a Smile generator and parser instead of JSON ones.
+ * </p>
+ *
+ * @author sbegaudeau
+ */
+public class SmileRepresentationCodec implements IRepresentationCodec {
+
+    public static final String FORMAT = "smile"; //$NON-NLS-1$
+
+    public static final String COMPRESSED_FORMAT = "smile+deflate"; //$NON-NLS-1$
+
+    /**
+     * Ratio between the memory used by a representation and the size of its Smile serialization.
+     */
+    private static final int SIZE_RATIO = 3;
+
+    /**
+     * Ratio between the memory used by a representation and the size of its compressed Smile serialization.
+     */
+    private static final int COMPRESSED_SIZE_RATIO = 15;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean isCompressed;
+
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    public SmileRepresentationCodec(ObjectMapper objectMapper, boolean isCompressed) {
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.isCompressed = isCompressed;
+    }
+
+    @Override
+    public String getFormat() {
+        if (this.isCompressed) {
+            return COMPRESSED_FORMAT;
+        }
+        return FORMAT;
+    }
+
+    @Override
+    public void encode(IRepresentation representation, RepresentationEntity representationEntity) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        if (this.isCompressed) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                this.write(representation, new DeflaterOutputStream(byteArrayOutputStream, deflater));
+            } finally {
+                deflater.end();
+            }
+        } else {
+            this.write(representation, byteArrayOutputStream);
+        }
+        representationEntity.setBinaryContent(byteArrayOutputStream.toByteArray());
+        representationEntity.setContent(null);
+    }
+
+    private void write(IRepresentation representation, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = this.smileFactory.createGenerator(outputStream)) {
+            this.objectMapper.writeValue(generator, representation);
+        }
+    }
+
+    @Override
+    public IRepresentation decode(RepresentationEntity representationEntity) throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(representationEntity.getBinaryContent());
+        if (this.isCompressed) {
+            inputStream = new InflaterInputStream(inputStream);
+        }
+        try (JsonParser parser = this.smileFactory.createParser(inputStream)) {
+            return this.objectMapper.readValue(parser, IRepresentation.class);
+        }
+    }
+
+    @Override
+    public int estimateSize(RepresentationEntity representationEntity) {
+        int ratio = SIZE_RATIO;
+        if (this.isCompressed) {
+            ratio = COMPRESSED_SIZE_RATIO;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) ratio * representationEntity.getBinaryContent().length);
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.services.api.events.ProjectModifiedEvent;
+import org.eclipse.sirius.web.services.projects.NoOpProjectRepository;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the project access cache.
+ *
+ * @author sbegaudeau
+ */
+public class ProjectAccessCacheTests {
+
+    private static final String USERNAME = "jdoe"; //$NON-NLS-1$
+
+    private static final String COUNTER_NAME = "siriusweb_project_access_cache"; //$NON-NLS-1$
+
+    private static final String RESULT = "result"; //$NON-NLS-1$
+
+    @Test
+    public void testVisibilityCachedUntilProjectModified() {
+        UUID projectId = UUID.randomUUID();
+        AtomicInteger queryCount = new AtomicInteger();
+        IProjectRepository projectRepository = new NoOpProjectRepository() {
+            @Override
+            public boolean existsByIdAndIsVisibleBy(UUID id, String userName) {
+                queryCount.incrementAndGet();
+                return projectId.equals(id);
+            }
+        };
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProjectAccessCache projectAccessCache = new ProjectAccessCache(projectRepository, meterRegistry, 60, 100);
+
+        assertThat(projectAccessCache.isVisibleBy(projectId, USERNAME)).isTrue();
+        assertThat(projectAccessCache.isVisibleBy(projectId, USERNAME)).isTrue();
+        assertThat(projectAccessCache.isVisibleBy(UUID.randomUUID(), USERNAME)).isFalse();
+        assertThat(queryCount.get()).isEqualTo(2);
+        assertThat(meterRegistry.get(COUNTER_NAME).tag(RESULT, "hit").counter().count()).isEqualTo(1); //$NON-NLS-1$
+        assertThat(meterRegistry.get(COUNTER_NAME).tag(RESULT, "miss").counter().count()).isEqualTo(2); //$NON-NLS-1$
+
+        projectAccessCache.onProjectModified(new ProjectModifiedEvent(projectId));
+        assertThat(projectAccessCache.isVisibleBy(projectId, USERNAME)).isTrue();
+        assertThat(queryCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testVisibilityNotCachedWhenProjectDeletedDuringLookup() {
+        UUID projectId = UUID.randomUUID();
+        AtomicReference<ProjectAccessCache> projectAccessCacheReference = new AtomicReference<>();
+        AtomicInteger queryCount = new AtomicInteger();
+        IProjectRepository projectRepository = new NoOpProjectRepository() {
+            @Override
+            public boolean existsByIdAndIsVisibleBy(UUID id, String userName) {
+                // The project is deleted while its visibility, read before the deletion, is being computed
+                boolean isVisible = queryCount.incrementAndGet() == 1;
+                if (isVisible) {
+                    projectAccessCacheReference.get().onProjectModified(new ProjectModifiedEvent(id));
+                }
+                return isVisible;
+            }
+        };
+
+        ProjectAccessCache projectAccessCache = new ProjectAccessCache(projectRepository, new SimpleMeterRegistry(), 60, 100);
+        projectAccessCacheReference.set(projectAccessCache);
+
+        assertThat(projectAccessCache.isVisibleBy(projectId, USERNAME)).isTrue();
+        assertThat(projectAccessCache.get(projectId, USERNAME)).isEmpty();
+        assertThat(projectAccessCache.isVisibleBy(projectId, USERNAME)).isFalse();
+        assertThat(queryCount.get()).isEqualTo(2);
+
+        long generation = projectAccessCache.getGeneration(projectId);
+        projectAccessCache.onProjectModified(new ProjectModifiedEvent(projectId));
+        projectAccessCache.put(projectId, USERNAME, true, generation);
+        assertThat(projectAccessCache.get(projectId, USERNAME)).isEmpty();
+    }
+
+}
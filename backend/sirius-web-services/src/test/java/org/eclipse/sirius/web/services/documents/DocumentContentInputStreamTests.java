@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.documents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the document content input stream.
+ *
+ * @author sbegaudeau
+ */
+public class DocumentContentInputStreamTests {
+
+    @Test
+    public void testEmptyContent() throws IOException {
+        try (InputStream inputStream = new DocumentContentInputStream("")) { //$NON-NLS-1$
+            assertThat(inputStream.read()).isEqualTo(-1);
+            assertThat(inputStream.readAllBytes()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testContentIsEncodedInUTF8() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("{\"name\": \"Élément ✓ 😀\"}"); //$NON-NLS-1$
+        }
+        String content = builder.toString();
+
+        try (InputStream inputStream = new DocumentContentInputStream(content)) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(content.getBytes(StandardCharsets.UTF_8));
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+}
@@ -54,6 +54,7 @@ import org.eclipse.sirius.web.services.projects.NoOpServicesMessageService;
 import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
 import org.junit.jupiter.api.Test;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
@@ -132,6 +133,13 @@ public class UploadDocumentEventHandlerTests {
         assertThat(root).isInstanceOf(EPackage.class);
     }
 
+    @Test
+    public void testUploadIsTimed() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        this.uploadDocument(new ByteArrayInputStream(XMI_CONTENT.getBytes()), meterRegistry);
+        assertThat(meterRegistry.get("siriusweb_document_upload").timer().count()).isEqualTo(1); //$NON-NLS-1$
+    }
+
     @Test
     public void testUploadEmptyDocument() {
         EditingDomain editingDomain = this.uploadDocument(new byte[0]);
@@ -155,6 +163,10 @@ public class UploadDocumentEventHandlerTests {
     }
 
     private EditingDomain uploadDocument(InputStream inputstream) {
+        return this.uploadDocument(inputstream, new SimpleMeterRegistry());
+    }
+
+    private EditingDomain uploadDocument(InputStream inputstream, MeterRegistry meterRegistry) {
         IDocumentService documentService = new IDocumentService.NoOp() {
             @Override
             public Optional<Document> createDocument(UUID projectId, String name, String content) {
@@ -163,7 +175,7 @@ public class UploadDocumentEventHandlerTests {
         };
         IServicesMessageService messageService = new NoOpServicesMessageService();
 
-        UploadDocumentEventHandler handler = new UploadDocumentEventHandler(documentService, messageService, new SimpleMeterRegistry());
+        UploadDocumentEventHandler handler = new UploadDocumentEventHandler(documentService, messageService, meterRegistry);
 
         UploadFile file = new UploadFile(FILE_NAME, inputstream);
         var input = new UploadDocumentInput(UUID.randomUUID(), UUID.randomUUID(), file);
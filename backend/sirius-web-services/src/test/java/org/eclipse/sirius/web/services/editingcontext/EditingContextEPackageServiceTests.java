@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.editingcontext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.sirius.emfjson.resource.IDManager;
+import org.eclipse.sirius.emfjson.resource.JsonResource;
+import org.eclipse.sirius.web.domain.Domain;
+import org.eclipse.sirius.web.domain.DomainFactory;
+import org.eclipse.sirius.web.domain.DomainPackage;
+import org.eclipse.sirius.web.domain.Entity;
+import org.eclipse.sirius.web.domain.Relation;
+import org.eclipse.sirius.web.emf.services.EObjectIDManager;
+import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
+import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.events.DocumentsModifiedEvent;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the editing context EPackage service.
+ *
+ * @author sbegaudeau
+ */
+public class EditingContextEPackageServiceTests {
+
+    private static final String CACHE_COUNTER_NAME = "siriusweb_domain_epackages_cache"; //$NON-NLS-1$
+
+    // @formatter:off
+    private static final String CONTENT = "{" + System.lineSeparator() //$NON-NLS-1$
+    + "  \"json\": {" + System.lineSeparator() //$NON-NLS-1$
+    + "    \"version\": \"1.0\"," + System.lineSeparator() //$NON-NLS-1$
+    + "    \"encoding\": \"utf-8\"" + System.lineSeparator() //$NON-NLS-1$
+    + "  }," + System.lineSeparator() //$NON-NLS-1$
+    + "  \"ns\": {" + System.lineSeparator() //$NON-NLS-1$
+    + "    \"" + DomainPackage.eNAME + "\": \"" + DomainPackage.eNS_URI + "\"" + System.lineSeparator() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    + "  }," + System.lineSeparator() //$NON-NLS-1$
+    + "  \"content\": []" + System.lineSeparator() //$NON-NLS-1$
+    + "}" + System.lineSeparator(); //$NON-NLS-1$
+    // @formatter:on
+
+    @Test
+    public void testDomainDocumentsAreConvertedOnlyWhenModified() {
+        DocumentEntity domainDocumentEntity = new DocumentEntity();
+        domainDocumentEntity.setId(UUID.randomUUID());
+        domainDocumentEntity.setName("Domain"); //$NON-NLS-1$
+        domainDocumentEntity.setContent(CONTENT);
+        domainDocumentEntity.setContentHash("first"); //$NON-NLS-1$
+
+        List<UUID> loadedDocumentIds = new ArrayList<>();
+        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+            @Override
+            public List<IDocumentVersion> findAllVersionsByType(String name, String uri) {
+                return List.of(new IDocumentVersion() {
+                    @Override
+                    public String getId() {
+                        return domainDocumentEntity.getId().toString();
+                    }
+
+                    @Override
+                    public String getContentHash() {
+                        return domainDocumentEntity.getContentHash();
+                    }
+                });
+            }
+
+            @Override
+            public Iterable<DocumentEntity> findAllById(Iterable<UUID> ids) {
+                ids.forEach(loadedDocumentIds::add);
+                return List.of(domainDocumentEntity);
+            }
+        };
+
+        EPackage.Registry ePackageRegistry = new EPackageRegistryImpl();
+        ePackageRegistry.put(EcorePackage.eNS_URI, EcorePackage.eINSTANCE);
+        ePackageRegistry.put(DomainPackage.eNS_URI, DomainPackage.eINSTANCE);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EditingContextEPackageService editingContextEPackageService = new EditingContextEPackageService(ePackageRegistry, documentRepository, true, meterRegistry);
+
+        UUID editingContextId = UUID.randomUUID();
+        editingContextEPackageService.getEPackages(editingContextId);
+        editingContextEPackageService.getEPackages(editingContextId);
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(1); //$NON-NLS-1$
+        assertThat(this.count(meterRegistry, "hit")).isEqualTo(1); //$NON-NLS-1$
+        assertThat(loadedDocumentIds).containsExactly(domainDocumentEntity.getId());
+
+        domainDocumentEntity.setContentHash("second"); //$NON-NLS-1$
+        editingContextEPackageService.getEPackages(editingContextId);
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(2); //$NON-NLS-1$
+        assertThat(loadedDocumentIds).hasSize(2);
+
+        Document document = new Document(domainDocumentEntity.getId(), null, domainDocumentEntity.getName(), domainDocumentEntity.getContent());
+        editingContextEPackageService.onDocumentsModified(new DocumentsModifiedEvent(editingContextId, List.of(document)));
+        editingContextEPackageService.getEPackages(editingContextId);
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(3); //$NON-NLS-1$
+        assertThat(this.count(meterRegistry, "hit")).isEqualTo(1); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testDomainDocumentsReferencingEachOtherAreConvertedTogether() throws IOException {
+        ResourceSet resourceSet = new ResourceSetImpl();
+        JsonResource firstResource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(UUID.randomUUID().toString()));
+        JsonResource secondResource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(UUID.randomUUID().toString()));
+        resourceSet.getResources().add(firstResource);
+        resourceSet.getResources().add(secondResource);
+
+        IDManager idManager = new EObjectIDManager();
+        Domain firstDomain = DomainFactory.eINSTANCE.createDomain();
+        firstDomain.setName("first"); //$NON-NLS-1$
+        idManager.setId(firstDomain, UUID.randomUUID().toString());
+        Entity target = DomainFactory.eINSTANCE.createEntity();
+        target.setName("Target"); //$NON-NLS-1$
+        idManager.setId(target, UUID.randomUUID().toString());
+        firstDomain.getTypes().add(target);
+        firstResource.getContents().add(firstDomain);
+
+        Domain secondDomain = DomainFactory.eINSTANCE.createDomain();
+        secondDomain.setName("second"); //$NON-NLS-1$
+        idManager.setId(secondDomain, UUID.randomUUID().toString());
+        Entity source = DomainFactory.eINSTANCE.createEntity();
+        source.setName("Source"); //$NON-NLS-1$
+        idManager.setId(source, UUID.randomUUID().toString());
+        Relation relation = DomainFactory.eINSTANCE.createRelation();
+        relation.setName("target"); //$NON-NLS-1$
+        relation.setTargetType(target);
+        idManager.setId(relation, UUID.randomUUID().toString());
+        source.getRelations().add(relation);
+        secondDomain.getTypes().add(source);
+        secondResource.getContents().add(secondDomain);
+
+        List<DocumentEntity> domainDocumentEntities = List.of(this.createDocumentEntity(firstResource), this.createDocumentEntity(secondResource));
+        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+            @Override
+            public List<IDocumentVersion> findAllVersionsByType(String name, String uri) {
+                return domainDocumentEntities.stream().map(EditingContextEPackageServiceTests.this::createDocumentVersion).collect(Collectors.toList());
+            }
+
+            @Override
+            public Iterable<DocumentEntity> findAllById(Iterable<UUID> ids) {
+                return domainDocumentEntities;
+            }
+        };
+
+        EPackage.Registry ePackageRegistry = new EPackageRegistryImpl();
+        ePackageRegistry.put(EcorePackage.eNS_URI, EcorePackage.eINSTANCE);
+        ePackageRegistry.put(DomainPackage.eNS_URI, DomainPackage.eINSTANCE);
+
+        EditingContextEPackageService editingContextEPackageService = new EditingContextEPackageService(ePackageRegistry, documentRepository, true, new SimpleMeterRegistry());
+        List<EPackage> ePackages = editingContextEPackageService.getEPackages(UUID.randomUUID());
+
+        EClass targetEClass = this.findEClass(ePackages, "first", "Target"); //$NON-NLS-1$ //$NON-NLS-2$
+        EClass sourceEClass = this.findEClass(ePackages, "second", "Source"); //$NON-NLS-1$ //$NON-NLS-2$
+        EReference targetEReference = (EReference) sourceEClass.getEStructuralFeature("target"); //$NON-NLS-1$
+        assertThat(targetEReference.getEType().eIsProxy()).isFalse();
+        assertThat(targetEReference.getEType()).isSameAs(targetEClass);
+    }
+
+    private EClass findEClass(List<EPackage> ePackages, String ePackageName, String eClassName) {
+        // @formatter:off
+        return ePackages.stream()
+                .filter(ePackage -> ePackageName.equals(ePackage.getName()))
+                .map(ePackage -> (EClass) ePackage.getEClassifier(eClassName))
+                .findFirst()
+                .orElseThrow();
+        // @formatter:on
+    }
+
+    private DocumentEntity createDocumentEntity(JsonResource resource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resource.save(outputStream, Map.of(JsonResource.OPTION_ID_MANAGER, new EObjectIDManager()));
+
+        DocumentEntity documentEntity = new DocumentEntity();
+        documentEntity.setId(UUID.fromString(resource.getURI().toString()));
+        documentEntity.setName("Domain"); //$NON-NLS-1$
+        documentEntity.setContent(outputStream.toString(StandardCharsets.UTF_8));
+        documentEntity.setContentHash(documentEntity.getId().toString());
+        return documentEntity;
+    }
+
+    private IDocumentVersion createDocumentVersion(DocumentEntity documentEntity) {
+        return new IDocumentVersion() {
+            @Override
+            public String getId() {
+                return documentEntity.getId().toString();
+            }
+
+            @Override
+            public String getContentHash() {
+                return documentEntity.getContentHash();
+            }
+        };
+    }
+
+    private double count(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get(CACHE_COUNTER_NAME).tag("result", result).counter().count(); //$NON-NLS-1$
+    }
+}
@@ -13,28 +13,39 @@
 package org.eclipse.sirius.web.services.editingcontext;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.edit.domain.AdapterFactoryEditingDomain;
 import org.eclipse.sirius.emfjson.resource.JsonResource;
+import org.eclipse.sirius.emfjson.resource.JsonResourceImpl;
 import org.eclipse.sirius.web.core.api.IEditingContext;
 import org.eclipse.sirius.web.core.api.IEditingContextPersistenceService;
 import org.eclipse.sirius.web.emf.services.EditingContext;
 import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
 import org.eclipse.sirius.web.persistence.entities.AccountEntity;
-import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
-import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.persistence.writers.DocumentContentUpdate;
+import org.eclipse.sirius.web.persistence.writers.IDocumentContentWriter;
+import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.events.DocumentsModifiedEvent;
 import org.eclipse.sirius.web.services.documents.DocumentMetadataAdapter;
 import org.eclipse.sirius.web.services.documents.EditingDomainFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
@@ -60,6 +71,276 @@ public class EditingContextPersistenceServiceTests {
         AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
         editingDomain.getResourceSet().getResources().add(resource);
 
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        List<Document> documents = new ArrayList<>();
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                this.createApplicationEventPublisher(documents), new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry());
+        assertThat(writtenDocuments).hasSize(0);
+
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getId()).isEqualTo(id);
+        assertThat(writtenDocuments.get(0).getContentHash()).hasSize(64);
+
+        assertThat(documents).hasSize(1);
+        Document document = documents.get(0);
+        assertThat(document.getId()).isEqualTo(id);
+        assertThat(document.getName()).isEqualTo(name);
+        assertThat(document.getProject().getId()).isEqualTo(projectId);
+    }
+
+    @Test
+    public void testOnlyModifiedDocumentsArePersisted() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+
+        UUID modifiedDocumentId = UUID.randomUUID();
+        JsonResource modifiedResource = this.createTrackedResource(modifiedDocumentId);
+        editingDomain.getResourceSet().getResources().add(modifiedResource);
+
+        UUID unmodifiedDocumentId = UUID.randomUUID();
+        JsonResource unmodifiedResource = this.createTrackedResource(unmodifiedDocumentId);
+        editingDomain.getResourceSet().getResources().add(unmodifiedResource);
+
+        ((EClass) modifiedResource.getContents().get(0)).setName("Renamed Concept"); //$NON-NLS-1$
+        assertThat(modifiedResource.isModified()).isTrue();
+        assertThat(unmodifiedResource.isModified()).isFalse();
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getId()).isEqualTo(modifiedDocumentId);
+        assertThat(modifiedResource.isModified()).isFalse();
+
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+    }
+
+    @Test
+    public void testDocumentsWithAnUnchangedContentAreNotPersisted() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = this.createTrackedResource(documentId);
+        resource.eAdapters().add(new DocumentMetadataAdapter("Document")); //$NON-NLS-1$
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        EClass eClass = (EClass) resource.getContents().get(0);
+        eClass.setName("Renamed Concept"); //$NON-NLS-1$
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+
+        eClass.setName("Temporary Name"); //$NON-NLS-1$
+        eClass.setName("Renamed Concept"); //$NON-NLS-1$
+        assertThat(resource.isModified()).isTrue();
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+    }
+
+    @Test
+    public void testDocumentsWhichCannotBeSerializedStayModified() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = new JsonResourceImpl(URI.createURI(documentId.toString())) {
+            @Override
+            public void save(OutputStream outputStream, Map<?, ?> options) throws IOException {
+                throw new IOException("Serialization failure"); //$NON-NLS-1$
+            }
+        };
+        EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+        eClass.setName("Concept"); //$NON-NLS-1$
+        resource.getContents().add(eClass);
+        resource.setTrackingModification(true);
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        eClass.setName("Renamed Concept"); //$NON-NLS-1$
+        assertThat(resource.isModified()).isTrue();
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).isEmpty();
+        assertThat(resource.isModified()).isTrue();
+    }
+
+    @Test
+    public void testWriteBehindCoalescesPersistRequests() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = this.createTrackedResource(documentId);
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        EditingContextWriteBehindQueue writeBehindQueue = new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), true, 60000, 1, 0);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), writeBehindQueue, new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        EClass eClass = (EClass) resource.getContents().get(0);
+        eClass.setName("First Name"); //$NON-NLS-1$
+        editingContextPersistenceService.persist(editingContext);
+        eClass.setName("Second Name"); //$NON-NLS-1$
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).isEmpty();
+
+        writeBehindQueue.flush(projectId);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getId()).isEqualTo(documentId);
+        assertThat(writtenDocuments.get(0).getContent()).contains("Second Name"); //$NON-NLS-1$
+
+        writeBehindQueue.flushAll();
+    }
+
+    @Test
+    public void testDocumentsWhoseWriteHasFailedAreWrittenAgain() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = this.createTrackedResource(documentId);
+        resource.eAdapters().add(new DocumentMetadataAdapter("Document")); //$NON-NLS-1$
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createFailingDocumentContentWriter(writtenDocuments);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        ((EClass) resource.getContents().get(0)).setName("Renamed Concept"); //$NON-NLS-1$
+        assertThatThrownBy(() -> editingContextPersistenceService.persist(editingContext)).isInstanceOf(IllegalStateException.class);
+        assertThat(writtenDocuments).isEmpty();
+
+        editingContextPersistenceService.persist(editingContext);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getContent()).contains("Renamed Concept"); //$NON-NLS-1$
+        assertThat(writtenDocuments.get(0).getPreviousObjectIds()).isEmpty();
+    }
+
+    @Test
+    public void testOnlyTheChangesOfTheObjectIdsAreWritten() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = this.createTrackedResource(documentId);
+        resource.eAdapters().add(new DocumentMetadataAdapter("Document")); //$NON-NLS-1$
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        EditingContextWriteBehindQueue writeBehindQueue = new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), true, 60000, 1, 0);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), writeBehindQueue, new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        // The object ids stored are not known until the document has been written once
+        ((EClass) resource.getContents().get(0)).setName("Renamed Concept"); //$NON-NLS-1$
+        editingContextPersistenceService.persist(editingContext);
+        writeBehindQueue.flush(projectId);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getPreviousObjectIds()).isEmpty();
+        Set<String> storedObjectIds = writtenDocuments.get(0).getObjectIds();
+        assertThat(storedObjectIds).hasSize(1);
+
+        // The writes coalesced are compared with the object ids which are still stored
+        resource.getContents().add(EcoreFactory.eINSTANCE.createEClass());
+        editingContextPersistenceService.persist(editingContext);
+        resource.getContents().add(EcoreFactory.eINSTANCE.createEClass());
+        editingContextPersistenceService.persist(editingContext);
+        writeBehindQueue.flush(projectId);
+        assertThat(writtenDocuments).hasSize(2);
+        assertThat(writtenDocuments.get(1).getPreviousObjectIds()).contains(storedObjectIds);
+        assertThat(writtenDocuments.get(1).getObjectIds()).hasSize(3).containsAll(storedObjectIds);
+
+        writeBehindQueue.flushAll();
+    }
+
+    @Test
+    public void testWriteBehindRetriesFailedWrites() {
+        UUID projectId = UUID.randomUUID();
+
+        AdapterFactoryEditingDomain editingDomain = new EditingDomainFactory().create();
+        UUID documentId = UUID.randomUUID();
+        JsonResource resource = this.createTrackedResource(documentId);
+        editingDomain.getResourceSet().getResources().add(resource);
+
+        List<DocumentContentUpdate> writtenDocuments = new ArrayList<>();
+        IDocumentContentWriter documentContentWriter = this.createFailingDocumentContentWriter(writtenDocuments);
+        EditingContextWriteBehindQueue writeBehindQueue = new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), true, 60000, 1, 1);
+        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentContentWriter, this.createProjectRepository(projectId),
+                new NoOpApplicationEventPublisher(), writeBehindQueue, new SimpleMeterRegistry());
+        IEditingContext editingContext = new EditingContext(projectId, editingDomain);
+
+        ((EClass) resource.getContents().get(0)).setName("Renamed Concept"); //$NON-NLS-1$
+        editingContextPersistenceService.persist(editingContext);
+
+        writeBehindQueue.flush(projectId);
+        assertThat(writtenDocuments).isEmpty();
+
+        writeBehindQueue.flush(projectId);
+        assertThat(writtenDocuments).hasSize(1);
+        assertThat(writtenDocuments.get(0).getId()).isEqualTo(documentId);
+
+        writeBehindQueue.flushAll();
+    }
+
+    private JsonResource createTrackedResource(UUID id) {
+        JsonResource resource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(id.toString()));
+        EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+        eClass.setName("Concept"); //$NON-NLS-1$
+        resource.getContents().add(eClass);
+        resource.setTrackingModification(true);
+        return resource;
+    }
+
+    private IDocumentContentWriter createDocumentContentWriter(List<DocumentContentUpdate> writtenDocuments) {
+        return documentContentUpdates -> {
+            List<UUID> ids = new ArrayList<>();
+            for (DocumentContentUpdate documentContentUpdate : documentContentUpdates) {
+                writtenDocuments.add(documentContentUpdate);
+                ids.add(documentContentUpdate.getId());
+            }
+            return ids;
+        };
+    }
+
+    private IDocumentContentWriter createFailingDocumentContentWriter(List<DocumentContentUpdate> writtenDocuments) {
+        IDocumentContentWriter documentContentWriter = this.createDocumentContentWriter(writtenDocuments);
+        AtomicBoolean shouldFail = new AtomicBoolean(true);
+        return documentContentUpdates -> {
+            if (shouldFail.getAndSet(false)) {
+                throw new IllegalStateException("Write failure"); //$NON-NLS-1$
+            }
+            return documentContentWriter.updateContents(documentContentUpdates);
+        };
+    }
+
+    private IProjectRepository createProjectRepository(UUID projectId) {
         ProjectEntity projectEntity = new ProjectEntity();
         projectEntity.setId(projectId);
         projectEntity.setName(""); //$NON-NLS-1$
@@ -68,36 +349,19 @@ public class EditingContextPersistenceServiceTests {
         owner.setUsername("jdoe"); //$NON-NLS-1$
         projectEntity.setOwner(owner);
 
-        DocumentEntity existingEntity = new DocumentEntity();
-        existingEntity.setId(id);
-        existingEntity.setProject(projectEntity);
-        existingEntity.setName(name);
-        existingEntity.setContent(""); //$NON-NLS-1$
-
-        List<DocumentEntity> entities = new ArrayList<>();
-        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+        return new NoOpProjectRepository() {
             @Override
-            public <S extends DocumentEntity> S save(S entity) {
-                entities.add(entity);
-                return entity;
+            public Optional<ProjectEntity> findById(UUID id) {
+                return Optional.of(projectEntity).filter(entity -> entity.getId().equals(id));
             }
+        };
+    }
 
-            @Override
-            public Optional<DocumentEntity> findById(UUID id) {
-                return Optional.of(existingEntity);
+    private ApplicationEventPublisher createApplicationEventPublisher(List<Document> documents) {
+        return event -> {
+            if (event instanceof DocumentsModifiedEvent) {
+                documents.addAll(((DocumentsModifiedEvent) event).getDocuments());
             }
         };
-        IEditingContextPersistenceService editingContextPersistenceService = new EditingContextPersistenceService(documentRepository, new NoOpApplicationEventPublisher(), new SimpleMeterRegistry());
-        assertThat(entities).hasSize(0);
-
-        IEditingContext editingContext = new EditingContext(UUID.randomUUID(), editingDomain);
-
-        editingContextPersistenceService.persist(editingContext);
-        assertThat(entities).hasSize(1);
-
-        DocumentEntity documentEntity = entities.get(0);
-        assertThat(documentEntity.getId()).isEqualTo(id);
-        assertThat(documentEntity.getName()).isEqualTo(name);
-        assertThat(documentEntity.getProject().getId()).isEqualTo(projectId);
     }
 }
@@ -14,25 +14,37 @@ package org.eclipse.sirius.web.services.editingcontext;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
 import org.eclipse.emf.edit.domain.EditingDomain;
 import org.eclipse.emf.edit.provider.ComposedAdapterFactory;
+import org.eclipse.sirius.emfjson.resource.IDManager;
+import org.eclipse.sirius.emfjson.resource.JsonResource;
 import org.eclipse.sirius.web.core.api.IEditingContext;
 import org.eclipse.sirius.web.core.api.IEditingContextSearchService;
+import org.eclipse.sirius.web.emf.services.EObjectIDManager;
 import org.eclipse.sirius.web.emf.services.EditingContext;
 import org.eclipse.sirius.web.emf.services.IEditingContextEPackageService;
+import org.eclipse.sirius.web.emf.services.SiriusWebJSONResourceFactoryImpl;
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
 import org.eclipse.sirius.web.persistence.entities.ProjectEntity;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
-import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
+import org.eclipse.sirius.web.services.authorization.ProjectAccessCache;
 import org.eclipse.sirius.web.services.documents.DocumentMetadataAdapter;
 import org.junit.jupiter.api.Test;
 
@@ -76,7 +88,7 @@ public class EditingContextSearchServiceTests {
 
     @Test
     public void testEditingContextWithNoDocuments() {
-        IProjectRepository projectRepository = new NoOpProjectRepository();
+        ProjectAccessCache projectAccessCache = new ProjectAccessCache(new NoOpProjectRepository(), new SimpleMeterRegistry(), 0, 0);
         IDocumentRepository documentRepository = new NoOpDocumentRepository();
         ComposedAdapterFactory composedAdapterFactory = new ComposedAdapterFactory();
         EPackage.Registry ePackageRegistry = new EPackageRegistryImpl();
@@ -85,8 +97,8 @@ public class EditingContextSearchServiceTests {
         UUID projectId = UUID.randomUUID();
 
         IEditingContextEPackageService editingContextEPackageService = editingContextId -> List.of();
-        IEditingContextSearchService editingContextSearchService = new EditingContextSearchService(projectRepository, documentRepository, editingContextEPackageService, composedAdapterFactory,
-                ePackageRegistry, new SimpleMeterRegistry());
+        IEditingContextSearchService editingContextSearchService = new EditingContextSearchService(projectAccessCache, documentRepository, editingContextEPackageService, composedAdapterFactory,
+                ePackageRegistry, new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry(), 1);
         IEditingContext editingContext = editingContextSearchService.findById(projectId).get();
 
         assertThat(editingContext).isInstanceOf(EditingContext.class);
@@ -96,6 +108,15 @@ public class EditingContextSearchServiceTests {
 
     @Test
     public void testEditingContextWithDocuments() {
+        this.testEditingContextWithDocuments(1);
+    }
+
+    @Test
+    public void testEditingContextWithDocumentsLoadedInParallel() {
+        this.testEditingContextWithDocuments(4);
+    }
+
+    private void testEditingContextWithDocuments(int parallelism) {
         UUID projectId = UUID.randomUUID();
 
         ProjectEntity projectEntity = new ProjectEntity();
@@ -114,7 +135,7 @@ public class EditingContextSearchServiceTests {
         secondDocumentEntity.setProject(projectEntity);
         secondDocumentEntity.setContent(CONTENT);
 
-        IProjectRepository projectRepository = new NoOpProjectRepository();
+        ProjectAccessCache projectAccessCache = new ProjectAccessCache(new NoOpProjectRepository(), new SimpleMeterRegistry(), 0, 0);
         IDocumentRepository documentRepository = new NoOpDocumentRepository() {
             @Override
             public List<DocumentEntity> findAllByProjectId(UUID projectId) {
@@ -127,14 +148,15 @@ public class EditingContextSearchServiceTests {
         ePackageRegistry.put(EcorePackage.eNS_URI, EcorePackage.eINSTANCE);
 
         IEditingContextEPackageService editingContextEPackageService = editingContextId -> List.of();
-        IEditingContextSearchService editingContextSearchService = new EditingContextSearchService(projectRepository, documentRepository, editingContextEPackageService, composedAdapterFactory,
-                ePackageRegistry, new SimpleMeterRegistry());
+        IEditingContextSearchService editingContextSearchService = new EditingContextSearchService(projectAccessCache, documentRepository, editingContextEPackageService, composedAdapterFactory,
+                ePackageRegistry, new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry(), parallelism);
         IEditingContext editingContext = editingContextSearchService.findById(projectId).get();
 
         assertThat(editingContext).isInstanceOf(EditingContext.class);
         EditingDomain editingDomain = ((EditingContext) editingContext).getDomain();
 
         assertThat(editingDomain.getResourceSet().getResources()).hasSize(2);
+        assertThat(editingDomain.getResourceSet().getResources().get(0).getURI().toString()).isEqualTo(firstDocumentEntity.getId().toString());
         Resource firstResource = editingDomain.getResourceSet().getResource(URI.createURI(firstDocumentEntity.getId().toString()), true);
         this.assertProperResourceLoading(firstResource, firstDocumentEntity);
 
@@ -142,9 +164,80 @@ public class EditingContextSearchServiceTests {
         this.assertProperResourceLoading(secondResource, secondDocumentEntity);
     }
 
+    @Test
+    public void testCrossDocumentReferencesResolvedWithoutModifyingTheResources() throws IOException {
+        UUID projectId = UUID.randomUUID();
+
+        ProjectEntity projectEntity = new ProjectEntity();
+        projectEntity.setId(projectId);
+        projectEntity.setName(""); //$NON-NLS-1$
+
+        ResourceSet resourceSet = new ResourceSetImpl();
+        JsonResource firstResource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(UUID.randomUUID().toString()));
+        JsonResource secondResource = new SiriusWebJSONResourceFactoryImpl().createResource(URI.createURI(UUID.randomUUID().toString()));
+        resourceSet.getResources().add(firstResource);
+        resourceSet.getResources().add(secondResource);
+
+        IDManager idManager = new EObjectIDManager();
+        EClass superType = EcoreFactory.eINSTANCE.createEClass();
+        superType.setName("SuperType"); //$NON-NLS-1$
+        idManager.setId(superType, UUID.randomUUID().toString());
+        firstResource.getContents().add(superType);
+
+        EClass subType = EcoreFactory.eINSTANCE.createEClass();
+        subType.setName("SubType"); //$NON-NLS-1$
+        subType.getESuperTypes().add(superType);
+        idManager.setId(subType, UUID.randomUUID().toString());
+        secondResource.getContents().add(subType);
+
+        DocumentEntity firstDocumentEntity = this.createDocumentEntity(projectEntity, firstResource);
+        DocumentEntity secondDocumentEntity = this.createDocumentEntity(projectEntity, secondResource);
+
+        ProjectAccessCache projectAccessCache = new ProjectAccessCache(new NoOpProjectRepository(), new SimpleMeterRegistry(), 0, 0);
+        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+            @Override
+            public List<DocumentEntity> findAllByProjectId(UUID projectId) {
+                return List.of(firstDocumentEntity, secondDocumentEntity);
+            }
+        };
+
+        EPackage.Registry ePackageRegistry = new EPackageRegistryImpl();
+        ePackageRegistry.put(EcorePackage.eNS_URI, EcorePackage.eINSTANCE);
+
+        IEditingContextEPackageService editingContextEPackageService = editingContextId -> List.of();
+        IEditingContextSearchService editingContextSearchService = new EditingContextSearchService(projectAccessCache, documentRepository, editingContextEPackageService,
+                new ComposedAdapterFactory(), ePackageRegistry, new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), new SimpleMeterRegistry(), 2);
+        IEditingContext editingContext = editingContextSearchService.findById(projectId).get();
+        ResourceSet loadedResourceSet = ((EditingContext) editingContext).getDomain().getResourceSet();
+
+        Resource loadedSecondResource = loadedResourceSet.getResource(URI.createURI(secondDocumentEntity.getId().toString()), false);
+        EClass loadedSubType = (EClass) loadedSecondResource.getContents().get(0);
+        assertThat(loadedSubType.getESuperTypes()).hasSize(1);
+        assertThat(loadedSubType.getESuperTypes().get(0).eIsProxy()).isFalse();
+
+        for (Resource resource : loadedResourceSet.getResources()) {
+            assertThat(resource.isTrackingModification()).isTrue();
+            assertThat(resource.isModified()).isFalse();
+        }
+    }
+
+    private DocumentEntity createDocumentEntity(ProjectEntity projectEntity, JsonResource resource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resource.save(outputStream, Map.of(JsonResource.OPTION_ID_MANAGER, new EObjectIDManager()));
+
+        DocumentEntity documentEntity = new DocumentEntity();
+        documentEntity.setId(UUID.fromString(resource.getURI().toString()));
+        documentEntity.setName("Document"); //$NON-NLS-1$
+        documentEntity.setProject(projectEntity);
+        documentEntity.setContent(outputStream.toString(StandardCharsets.UTF_8));
+        return documentEntity;
+    }
+
     private void assertProperResourceLoading(Resource resource, DocumentEntity documentEntity) {
         assertThat(resource).isNotNull();
         assertThat(resource.eAdapters()).hasSize(2);
+        assertThat(resource.isTrackingModification()).isTrue();
+        assertThat(resource.isModified()).isFalse();
         // @formatter:off
         var optionalDocumentMetadataAdapter = resource.eAdapters().stream()
                                                       .filter(DocumentMetadataAdapter.class::isInstance)
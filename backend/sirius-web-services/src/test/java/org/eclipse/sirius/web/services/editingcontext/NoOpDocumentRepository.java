@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Obeo.
+ * Copyright (c) 2019, 2021 Obeo.
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v2.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,9 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentContentSizes;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -101,6 +104,11 @@ public class NoOpDocumentRepository implements IDocumentRepository {
         return new ArrayList<>();
     }
 
+    @Override
+    public List<IDocumentMetadata> findAllMetadataByProjectId(UUID projectId) {
+        return new ArrayList<>();
+    }
+
     @Override
     public Optional<DocumentEntity> findByProjectIdAndId(UUID projectId, UUID documentId) {
         return Optional.empty();
@@ -111,4 +119,14 @@ public class NoOpDocumentRepository implements IDocumentRepository {
         return List.of();
     }
 
+    @Override
+    public List<IDocumentVersion> findAllVersionsByType(String name, String uri) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public IDocumentContentSizes sampleContentSizes(double percentage) {
+        return null;
+    }
+
 }
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.projects;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
+import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
+
+/**
+ * Implementation of the representation service which does nothing.
+ *
+ * @author sbegaudeau
+ */
+public class NoOpRepresentationService implements IRepresentationService {
+
+    @Override
+    public boolean hasRepresentations(String objectId) {
+        return false;
+    }
+
+    @Override
+    public boolean hasRepresentations(UUID projectId, String objectId) {
+        return false;
+    }
+
+    @Override
+    public Optional<RepresentationDescriptor> getRepresentationDescriptorForProjectId(UUID projectId, UUID representationId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<RepresentationDescriptor> getRepresentationDescriptorsForProjectId(UUID projectId) {
+        return List.of();
+    }
+
+    @Override
+    public List<RepresentationDescriptor> getRepresentationDescriptorsForObjectId(String objectId) {
+        return List.of();
+    }
+
+    @Override
+    public Optional<RepresentationDescriptor> getRepresentation(UUID representationId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<RepresentationMetadata> getRepresentationMetadataForProjectId(UUID projectId) {
+        return List.of();
+    }
+
+    @Override
+    public List<RepresentationMetadata> getRepresentationMetadataForObjectId(String objectId) {
+        return List.of();
+    }
+
+    @Override
+    public Optional<RepresentationMetadata> getRepresentationMetadata(UUID representationId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(UUID representationId) {
+        return false;
+    }
+
+    @Override
+    public void delete(UUID representationId) {
+    }
+
+}
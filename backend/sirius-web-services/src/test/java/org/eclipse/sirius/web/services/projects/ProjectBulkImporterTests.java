@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.projects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.sirius.web.persistence.entities.IdMappingEntity;
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.repositories.IIdMappingRepository;
+import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.document.IDocumentService;
+import org.eclipse.sirius.web.services.api.projects.ProjectManifest;
+import org.eclipse.sirius.web.services.api.projects.RepresentationManifest;
+import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.representations.NoOpRepresentationRepository;
+import org.eclipse.sirius.web.services.representations.RepresentationCodecs;
+import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests of the bulk import of the projects.
+ *
+ * @author sbegaudeau
+ */
+public class ProjectBulkImporterTests {
+
+    private static final String DOCUMENT_NAME = "sample.ecore"; //$NON-NLS-1$
+
+    private static final String DESCRIPTION_URI = "siriusweb://description/sample"; //$NON-NLS-1$
+
+    private static final String REPRESENTATION_LABEL = "Sample"; //$NON-NLS-1$
+
+    private static final String ID = "id"; //$NON-NLS-1$
+
+    private static final String TARGET_OBJECT_ID = "targetObjectId"; //$NON-NLS-1$
+
+    private static final String DESCRIPTION_ID = "descriptionId"; //$NON-NLS-1$
+
+    private static final String CHILDREN = "children"; //$NON-NLS-1$
+
+    private final String oldDocumentId = UUID.randomUUID().toString();
+
+    private final String oldPackageId = UUID.randomUUID().toString();
+
+    private final String oldClassId = UUID.randomUUID().toString();
+
+    private final UUID oldRepresentationId = UUID.randomUUID();
+
+    private final UUID newDescriptionId = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = this.createObjectMapper();
+
+    private final List<Document> createdDocuments = new ArrayList<>();
+
+    private final List<RepresentationEntity> upsertedRepresentations = new ArrayList<>();
+
+    @Test
+    public void testImportExportedProject() throws IOException {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        ProjectBulkImporter projectBulkImporter = this.createProjectBulkImporter(this.oldClassId);
+
+        assertThat(projectBulkImporter.importProject(new TransactionTemplate(transactionManager))).isTrue();
+        assertThat(transactionManager.isCommitted()).isTrue();
+        assertThat(transactionManager.isRolledBack()).isFalse();
+
+        // The objects of the documents have new ids
+        assertThat(this.createdDocuments).hasSize(1);
+        Document document = this.createdDocuments.get(0);
+        assertThat(document.getId()).isNotEqualTo(UUID.fromString(this.oldDocumentId));
+        assertThat(document.getName()).isEqualTo(DOCUMENT_NAME);
+        assertThat(document.getContent()).doesNotContain(this.oldPackageId).doesNotContain(this.oldClassId);
+
+        // The representations have new ids and reference the new ids of the semantic elements and of the description
+        assertThat(this.upsertedRepresentations).hasSize(1);
+        RepresentationEntity representationEntity = this.upsertedRepresentations.get(0);
+        assertThat(representationEntity.getId()).isNotEqualTo(this.oldRepresentationId);
+        assertThat(representationEntity.getLabel()).isEqualTo(REPRESENTATION_LABEL);
+        assertThat(representationEntity.getDescriptionId()).isEqualTo(this.newDescriptionId.toString());
+        assertThat(representationEntity.getTargetObjectId()).isNotEqualTo(this.oldClassId);
+        assertThat(document.getContent()).contains(representationEntity.getTargetObjectId());
+
+        JsonNode representationNode = this.objectMapper.readTree(representationEntity.getContent());
+        assertThat(representationNode.get(ID).asText()).isEqualTo(representationEntity.getId().toString());
+        assertThat(representationNode.get(DESCRIPTION_ID).asText()).isEqualTo(this.newDescriptionId.toString());
+        assertThat(representationNode.get(TARGET_OBJECT_ID).asText()).isEqualTo(representationEntity.getTargetObjectId());
+
+        String childTargetObjectId = representationNode.get(CHILDREN).get(0).get(TARGET_OBJECT_ID).asText();
+        assertThat(childTargetObjectId).isNotEqualTo(this.oldPackageId);
+        assertThat(document.getContent()).contains(childTargetObjectId);
+    }
+
+    @Test
+    public void testFailingRepresentationRollsBackTheDocuments() {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        ProjectBulkImporter projectBulkImporter = this.createProjectBulkImporter(UUID.randomUUID().toString());
+
+        assertThat(projectBulkImporter.importProject(new TransactionTemplate(transactionManager))).isFalse();
+        assertThat(this.createdDocuments).hasSize(1);
+        assertThat(this.upsertedRepresentations).isEmpty();
+        assertThat(transactionManager.isRolledBack()).isTrue();
+        assertThat(transactionManager.isCommitted()).isFalse();
+    }
+
+    /**
+     * Creates the importer of an exported project with one document and one representation targeting the object with
+     * the given id.
+     */
+    private ProjectBulkImporter createProjectBulkImporter(String targetObjectId) {
+        // @formatter:off
+        String documentContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + System.lineSeparator() //$NON-NLS-1$
+                + "<ecore:EPackage xmi:version=\"2.0\" xmlns:xmi=\"http://www.omg.org/XMI\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"" //$NON-NLS-1$
+                + " xmlns:ecore=\"http://www.eclipse.org/emf/2002/Ecore\" xmi:id=\"" + this.oldPackageId + "\" name=\"sample\">" + System.lineSeparator() //$NON-NLS-1$ //$NON-NLS-2$
+                + "  <eClassifiers xsi:type=\"ecore:EClass\" xmi:id=\"" + this.oldClassId + "\" name=\"Sample\"/>" + System.lineSeparator() //$NON-NLS-1$ //$NON-NLS-2$
+                + "</ecore:EPackage>" + System.lineSeparator(); //$NON-NLS-1$
+
+        RepresentationManifest representationManifest = RepresentationManifest.newRepresentationManifest()
+                .type(REPRESENTATION_LABEL)
+                .descriptionURI(DESCRIPTION_URI)
+                .targetObjectURI(this.oldDocumentId + "#" + targetObjectId) //$NON-NLS-1$
+                .build();
+        ProjectManifest projectManifest = ProjectManifest.newProjectManifest("1.0", "0.0.0") //$NON-NLS-1$ //$NON-NLS-2$
+                .metamodels(List.of())
+                .documentIdsToName(Map.of(this.oldDocumentId, DOCUMENT_NAME))
+                .representations(Map.of(this.oldRepresentationId.toString(), representationManifest))
+                .build();
+        // @formatter:on
+
+        ObjectNode childNode = this.objectMapper.createObjectNode();
+        childNode.put(TARGET_OBJECT_ID, this.oldPackageId);
+        ObjectNode representationNode = this.objectMapper.createObjectNode();
+        representationNode.put(ID, this.oldRepresentationId.toString());
+        representationNode.put("kind", REPRESENTATION_LABEL); //$NON-NLS-1$
+        representationNode.put("label", REPRESENTATION_LABEL); //$NON-NLS-1$
+        representationNode.put(DESCRIPTION_ID, UUID.randomUUID().toString());
+        representationNode.put(TARGET_OBJECT_ID, this.oldClassId);
+        representationNode.putArray(CHILDREN).add(childNode);
+
+        // @formatter:off
+        RepresentationDescriptor representationDescriptor = RepresentationDescriptor.newRepresentationDescriptor(this.oldRepresentationId)
+                .label(REPRESENTATION_LABEL)
+                .representation(this.createRepresentation(representationNode))
+                .build();
+        // @formatter:on
+
+        IIdMappingRepository idMappingRepository = new NoOpIdMappingRepository() {
+            @Override
+            public Optional<IdMappingEntity> findByExternalId(String externalId) {
+                IdMappingEntity idMappingEntity = new IdMappingEntity();
+                idMappingEntity.setId(ProjectBulkImporterTests.this.newDescriptionId);
+                idMappingEntity.setExternalId(externalId);
+                return Optional.of(idMappingEntity).filter(entity -> DESCRIPTION_URI.equals(externalId));
+            }
+        };
+
+        IDocumentService documentService = new IDocumentService.NoOp() {
+            @Override
+            public Optional<Document> createDocument(UUID projectId, String name, String content) {
+                Document document = new Document(UUID.randomUUID(), null, name, content);
+                ProjectBulkImporterTests.this.createdDocuments.add(document);
+                return Optional.of(document);
+            }
+        };
+
+        IRepresentationRepository representationRepository = new NoOpRepresentationRepository() {
+            @Override
+            public int upsert(UUID id, UUID projectId, String targetObjectId, String label, String kind, String descriptionId, String contentType, String format, String content,
+                    byte[] binaryContent) {
+                RepresentationEntity representationEntity = new RepresentationEntity();
+                representationEntity.setId(id);
+                representationEntity.setTargetObjectId(targetObjectId);
+                representationEntity.setLabel(label);
+                representationEntity.setDescriptionId(descriptionId);
+                representationEntity.setContent(content);
+                ProjectBulkImporterTests.this.upsertedRepresentations.add(representationEntity);
+                return 1;
+            }
+        };
+
+        EPackage.Registry registry = new EPackageRegistryImpl();
+        registry.put(EcorePackage.eNS_URI, EcorePackage.eINSTANCE);
+
+        UploadFile uploadFile = new UploadFile(DOCUMENT_NAME, new ByteArrayInputStream(documentContent.getBytes(StandardCharsets.UTF_8)));
+        return new ProjectBulkImporter(UUID.randomUUID(), Map.of(this.oldDocumentId, uploadFile), List.of(representationDescriptor), projectManifest, idMappingRepository,
+                documentService, representationRepository, new RepresentationCodecs(this.objectMapper, "json"), this.objectMapper, registry); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates an object mapper which reads and writes the representations as the JSON objects backing them, the concrete
+     * representations are not needed by the importer.
+     */
+    private ObjectMapper createObjectMapper() {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(IRepresentation.class, new JsonSerializer<IRepresentation>() {
+            @Override
+            public void serialize(IRepresentation representation, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+                generator.writeTree(((RepresentationInvocationHandler) Proxy.getInvocationHandler(representation)).getRepresentationNode());
+            }
+        });
+        module.addDeserializer(IRepresentation.class, new JsonDeserializer<IRepresentation>() {
+            @Override
+            public IRepresentation deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return ProjectBulkImporterTests.this.createRepresentation(parser.readValueAsTree());
+            }
+        });
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(module);
+        mapper.addMixIn(IRepresentation.class, UntypedRepresentationMixIn.class);
+        return mapper;
+    }
+
+    private IRepresentation createRepresentation(ObjectNode representationNode) {
+        Object representation = Proxy.newProxyInstance(IRepresentation.class.getClassLoader(), new Class<?>[] { IRepresentation.class },
+                new RepresentationInvocationHandler(representationNode));
+        return (IRepresentation) representation;
+    }
+
+    /**
+     * Removes the type information which may be required to read and write the representations.
+     *
+     * @author sbegaudeau
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NONE)
+    private abstract static class UntypedRepresentationMixIn {
+    }
+
+    /**
+     * Answers the getters of a representation with the properties of the JSON object backing it.
+     *
+     * @author sbegaudeau
+     */
+    private static final class RepresentationInvocationHandler implements InvocationHandler {
+        private static final String GETTER_PREFIX = "get"; //$NON-NLS-1$
+
+        private final ObjectNode representationNode;
+
+        RepresentationInvocationHandler(ObjectNode representationNode) {
+            this.representationNode = representationNode;
+        }
+
+        public ObjectNode getRepresentationNode() {
+            return this.representationNode;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Object result = null;
+            String name = method.getName();
+            if ("hashCode".equals(name)) { //$NON-NLS-1$
+                result = System.identityHashCode(proxy);
+            } else if ("equals".equals(name)) { //$NON-NLS-1$
+                result = proxy == args[0];
+            } else if ("toString".equals(name)) { //$NON-NLS-1$
+                result = this.representationNode.toString();
+            } else if (name.startsWith(GETTER_PREFIX) && name.length() > GETTER_PREFIX.length()) {
+                String property = Character.toLowerCase(name.charAt(GETTER_PREFIX.length())) + name.substring(GETTER_PREFIX.length() + 1);
+                JsonNode valueNode = this.representationNode.get(property);
+                if (valueNode != null && method.getReturnType() == UUID.class) {
+                    result = UUID.fromString(valueNode.asText());
+                } else if (valueNode != null && method.getReturnType() == String.class) {
+                    result = valueNode.asText();
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Transaction manager recording the outcome of the transaction.
+     *
+     * @author sbegaudeau
+     */
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private static final long serialVersionUID = 1L;
+
+        private boolean isCommitted;
+
+        private boolean isRolledBack;
+
+        public boolean isCommitted() {
+            return this.isCommitted;
+        }
+
+        public boolean isRolledBack() {
+            return this.isRolledBack;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            // Nothing to begin
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            this.isCommitted = true;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            this.isRolledBack = true;
+        }
+    }
+}
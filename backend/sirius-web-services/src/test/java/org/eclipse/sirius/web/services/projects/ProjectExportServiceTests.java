@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.projects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.ITargetObjectLocation;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.eclipse.sirius.web.services.api.accounts.Profile;
+import org.eclipse.sirius.web.services.api.projects.IProjectService;
+import org.eclipse.sirius.web.services.api.projects.Project;
+import org.eclipse.sirius.web.services.api.projects.Visibility;
+import org.eclipse.sirius.web.services.api.representations.IRepresentationService;
+import org.eclipse.sirius.web.services.api.representations.RepresentationDescriptor;
+import org.eclipse.sirius.web.services.api.representations.RepresentationMetadata;
+import org.eclipse.sirius.web.services.editingcontext.EditingContextWriteBehindQueue;
+import org.eclipse.sirius.web.services.editingcontext.NoOpDocumentRepository;
+import org.eclipse.sirius.web.services.representations.NoOpRepresentationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the export of the projects.
+ *
+ * @author sbegaudeau
+ */
+public class ProjectExportServiceTests {
+
+    private static final String PROJECT_NAME = "Project"; //$NON-NLS-1$
+
+    private static final String SIRIUS_WEB_VERSION = "1.0.0"; //$NON-NLS-1$
+
+    private static final String TARGET_OBJECT_ID = UUID.randomUUID().toString();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testExportProjectAsZip() throws IOException {
+        UUID projectId = UUID.randomUUID();
+        List<DocumentEntity> documentEntities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            DocumentEntity documentEntity = new DocumentEntity();
+            documentEntity.setId(UUID.randomUUID());
+            documentEntity.setName("Document " + i); //$NON-NLS-1$
+            documentEntity.setContent("{\"index\":" + i + "}"); //$NON-NLS-1$ //$NON-NLS-2$
+            documentEntities.add(documentEntity);
+        }
+        String targetDocumentId = documentEntities.get(0).getId().toString();
+
+        Authentication authentication = new TestingAuthenticationToken("user", "password"); //$NON-NLS-1$ //$NON-NLS-2$
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        List<Authentication> loadingAuthentications = Collections.synchronizedList(new ArrayList<>());
+
+        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+            @Override
+            public List<IDocumentMetadata> findAllMetadataByProjectId(UUID id) {
+                List<IDocumentMetadata> documentsMetadata = new ArrayList<>();
+                for (DocumentEntity documentEntity : documentEntities) {
+                    documentsMetadata.add(new IDocumentMetadata() {
+                        @Override
+                        public String getId() {
+                            return documentEntity.getId().toString();
+                        }
+
+                        @Override
+                        public String getName() {
+                            return documentEntity.getName();
+                        }
+                    });
+                }
+                return documentsMetadata;
+            }
+
+            @Override
+            public Optional<DocumentEntity> findById(UUID id) {
+                loadingAuthentications.add(SecurityContextHolder.getContext().getAuthentication());
+                return documentEntities.stream().filter(documentEntity -> documentEntity.getId().equals(id)).findFirst();
+            }
+        };
+
+        UUID representationId = UUID.randomUUID();
+        UUID descriptionId = UUID.randomUUID();
+        // @formatter:off
+        RepresentationMetadata representationMetadata = RepresentationMetadata.newRepresentationMetadata(representationId)
+                .projectId(projectId)
+                .descriptionId(descriptionId)
+                .targetObjectId(TARGET_OBJECT_ID)
+                .label("Representation") //$NON-NLS-1$
+                .kind("Diagram") //$NON-NLS-1$
+                .build();
+        // @formatter:on
+        IRepresentationService representationService = new NoOpRepresentationService() {
+            @Override
+            public List<RepresentationMetadata> getRepresentationMetadataForProjectId(UUID id) {
+                return List.of(representationMetadata);
+            }
+
+            @Override
+            public Optional<RepresentationDescriptor> getRepresentation(UUID id) {
+                // @formatter:off
+                return Optional.of(RepresentationDescriptor.newRepresentationDescriptor(id)
+                        .projectId(projectId)
+                        .descriptionId(descriptionId)
+                        .targetObjectId(TARGET_OBJECT_ID)
+                        .label(representationMetadata.getLabel())
+                        .representation(ProjectExportServiceTests.this.createRepresentation(id))
+                        .build());
+                // @formatter:on
+            }
+        };
+
+        IRepresentationRepository representationRepository = new NoOpRepresentationRepository() {
+            @Override
+            public List<ITargetObjectLocation> findAllTargetObjectLocationsByProjectId(UUID id) {
+                return List.of(new ITargetObjectLocation() {
+                    @Override
+                    public String getTargetObjectId() {
+                        return TARGET_OBJECT_ID;
+                    }
+
+                    @Override
+                    public String getDocumentId() {
+                        return targetDocumentId;
+                    }
+                });
+            }
+        };
+
+        IProjectService projectService = new IProjectService.NoOp() {
+            @Override
+            public Optional<Project> getProject(UUID id) {
+                return Optional.of(new Project(id, PROJECT_NAME, new Profile(UUID.randomUUID(), "user"), Visibility.PUBLIC)); //$NON-NLS-1$
+            }
+        };
+
+        Properties properties = new Properties();
+        properties.setProperty("version", SIRIUS_WEB_VERSION); //$NON-NLS-1$
+        ProjectExportService projectExportService = new ProjectExportService(projectService, representationService, editingContextId -> List.of(EcorePackage.eINSTANCE),
+                new NoOpIdMappingRepository(), documentRepository, representationRepository, this.objectMapper, new BuildProperties(properties),
+                new EditingContextWriteBehindQueue(new SimpleMeterRegistry(), false, 0, 1, 0), 4);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            projectExportService.exportProjectAsZip(projectId, outputStream);
+        } finally {
+            projectExportService.destroy();
+        }
+
+        Map<String, byte[]> entries = this.readEntries(outputStream.toByteArray());
+
+        List<String> expectedNames = new ArrayList<>();
+        for (DocumentEntity documentEntity : documentEntities) {
+            expectedNames.add(PROJECT_NAME + "/documents/" + documentEntity.getId() + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        expectedNames.add(PROJECT_NAME + "/representations/" + representationId + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        expectedNames.add(PROJECT_NAME + "/manifest.json"); //$NON-NLS-1$
+        assertThat(entries.keySet()).containsExactlyElementsOf(expectedNames);
+
+        for (DocumentEntity documentEntity : documentEntities) {
+            byte[] content = entries.get(PROJECT_NAME + "/documents/" + documentEntity.getId() + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+            assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo(documentEntity.getContent());
+        }
+
+        JsonNode manifest = this.objectMapper.readTree(entries.get(PROJECT_NAME + "/manifest.json")); //$NON-NLS-1$
+        assertThat(manifest.get("siriusWebVersion").asText()).isEqualTo(SIRIUS_WEB_VERSION); //$NON-NLS-1$
+        assertThat(manifest.get("metamodels").get(0).asText()).isEqualTo(EcorePackage.eNS_URI); //$NON-NLS-1$
+        assertThat(manifest.get("documentIdsToName")).hasSize(documentEntities.size()); //$NON-NLS-1$
+        for (DocumentEntity documentEntity : documentEntities) {
+            assertThat(manifest.get("documentIdsToName").get(documentEntity.getId().toString()).asText()).isEqualTo(documentEntity.getName()); //$NON-NLS-1$
+        }
+        JsonNode representationManifest = manifest.get("representations").get(representationId.toString()); //$NON-NLS-1$
+        assertThat(representationManifest.get("type").asText()).isEqualTo(representationMetadata.getKind()); //$NON-NLS-1$
+        assertThat(representationManifest.get("descriptionURI").asText()).isEqualTo(descriptionId.toString()); //$NON-NLS-1$
+        assertThat(representationManifest.get("targetObjectURI").asText()).isEqualTo(targetDocumentId + "#" + TARGET_OBJECT_ID); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // The documents are loaded by the threads of the export with the security context of the caller
+        assertThat(loadingAuthentications).hasSize(documentEntities.size()).containsOnly(authentication);
+    }
+
+    private Map<String, byte[]> readEntries(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry zipEntry = zipInputStream.getNextEntry();
+            while (zipEntry != null) {
+                entries.put(zipEntry.getName(), zipInputStream.readAllBytes());
+                zipEntry = zipInputStream.getNextEntry();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Creates a representation which only provides its id, the export only serializes it.
+     */
+    private IRepresentation createRepresentation(UUID id) {
+        Object representation = Proxy.newProxyInstance(IRepresentation.class.getClassLoader(), new Class<?>[] { IRepresentation.class }, (proxy, method, args) -> {
+            Object result = null;
+            if ("getId".equals(method.getName())) { //$NON-NLS-1$
+                result = id;
+            } else if ("hashCode".equals(method.getName())) { //$NON-NLS-1$
+                result = id.hashCode();
+            } else if ("equals".equals(method.getName())) { //$NON-NLS-1$
+                result = proxy == args[0];
+            } else if ("toString".equals(method.getName())) { //$NON-NLS-1$
+                result = id.toString();
+            }
+            return result;
+        });
+        return (IRepresentation) representation;
+    }
+}
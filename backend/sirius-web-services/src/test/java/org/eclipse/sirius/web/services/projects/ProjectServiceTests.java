@@ -28,12 +28,15 @@ import org.eclipse.sirius.web.persistence.repositories.IProjectRepository;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectInput;
 import org.eclipse.sirius.web.services.api.projects.CreateProjectSuccessPayload;
 import org.eclipse.sirius.web.services.api.projects.Visibility;
+import org.eclipse.sirius.web.services.authorization.ProjectAccessCache;
 import org.eclipse.sirius.web.services.messages.IServicesMessageService;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests of the project service.
  *
@@ -69,7 +72,10 @@ public class ProjectServiceTests {
         }
     };
 
-    private ProjectService projectService = new ProjectService(this.noOpMessageService, this.noOpProjectRepository, this.fakeAccountRepository);
+    private ProjectAccessCache projectAccessCache = new ProjectAccessCache(this.noOpProjectRepository, new SimpleMeterRegistry(), 60, 100);
+
+    private ProjectService projectService = new ProjectService(this.noOpMessageService, this.noOpProjectRepository, this.fakeAccountRepository, this.projectAccessCache,
+            new NoOpApplicationEventPublisher());
 
     @Test
     public void testProjectCreationWithInvalidName() {
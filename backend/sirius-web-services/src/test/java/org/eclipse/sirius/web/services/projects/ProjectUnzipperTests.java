@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.projects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.sirius.web.services.api.projects.ProjectManifest;
+import org.eclipse.sirius.web.services.api.projects.UnzippedProject;
+import org.eclipse.sirius.web.spring.graphql.api.UploadFile;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the project unzipper.
+ *
+ * @author gcoutable
+ */
+public class ProjectUnzipperTests {
+
+    private static final String PROJECT_NAME = "project"; //$NON-NLS-1$
+
+    private static final String DOCUMENT_NAME = "document"; //$NON-NLS-1$
+
+    private static final String DOCUMENT_CONTENT = "{ \"json\": { \"version\": \"1.0\", \"encoding\": \"utf-8\" }, \"ns\": {}, \"content\": [] }"; //$NON-NLS-1$
+
+    @Test
+    public void testUnzipProjectInMemory() throws IOException {
+        this.testUnzipProject(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testUnzipProjectWithSpooledEntries() throws IOException {
+        this.testUnzipProject(0);
+    }
+
+    private void testUnzipProject(long maximumInMemorySize) throws IOException {
+        String documentId = UUID.randomUUID().toString();
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] zip = this.createZip(objectMapper, documentId);
+
+        try (ProjectUnzipper unzipper = new ProjectUnzipper(new ByteArrayInputStream(zip), objectMapper, maximumInMemorySize)) {
+            Optional<UnzippedProject> optionalUnzippedProject = unzipper.unzipProject();
+            assertThat(optionalUnzippedProject).isPresent();
+
+            UnzippedProject unzippedProject = optionalUnzippedProject.get();
+            assertThat(unzippedProject.getProjectName()).isEqualTo(PROJECT_NAME);
+            assertThat(unzippedProject.getRepresentationDescriptors()).isEmpty();
+
+            UploadFile uploadFile = unzippedProject.getDocumentIdToUploadFile().get(documentId);
+            assertThat(uploadFile).isNotNull();
+            assertThat(uploadFile.getName()).isEqualTo(DOCUMENT_NAME);
+            try (InputStream inputStream = uploadFile.getInputStream()) {
+                assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(DOCUMENT_CONTENT);
+            }
+        }
+    }
+
+    private byte[] createZip(ObjectMapper objectMapper, String documentId) throws IOException {
+        // @formatter:off
+        ProjectManifest projectManifest = ProjectManifest.newProjectManifest("1.0", "0.0.0") //$NON-NLS-1$ //$NON-NLS-2$
+                .metamodels(List.of())
+                .documentIdsToName(Map.of(documentId, DOCUMENT_NAME))
+                .representations(Map.of())
+                .build();
+        // @formatter:on
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (var zippedOut = new ZipOutputStream(outputStream)) {
+            zippedOut.putNextEntry(new ZipEntry(PROJECT_NAME + "/documents/" + documentId + ".json")); //$NON-NLS-1$ //$NON-NLS-2$
+            zippedOut.write(DOCUMENT_CONTENT.getBytes(StandardCharsets.UTF_8));
+            zippedOut.closeEntry();
+
+            zippedOut.putNextEntry(new ZipEntry(PROJECT_NAME + "/manifest.json")); //$NON-NLS-1$
+            zippedOut.write(objectMapper.writeValueAsBytes(projectManifest));
+            zippedOut.closeEntry();
+        }
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
+import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the index of the elements converted from documents.
+ *
+ * @author sbegaudeau
+ */
+public class ConvertedDocumentIndexTests {
+
+    private static final String CACHE_COUNTER_NAME = "siriusweb_test_cache"; //$NON-NLS-1$
+
+    @Test
+    public void testLookupsServedFromTheIndex() {
+        DocumentEntity documentEntity = this.createDocumentEntity("first"); //$NON-NLS-1$
+        AtomicInteger versionQueryCount = new AtomicInteger();
+        AtomicInteger conversionCount = new AtomicInteger();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConvertedDocumentIndex<String> index = this.createIndex(documentEntity, versionQueryCount, conversionCount, meterRegistry);
+
+        assertThat(index.getElementsById()).containsValue("first"); //$NON-NLS-1$
+        assertThat(index.getElementsById()).containsValue("first"); //$NON-NLS-1$
+        assertThat(index.isIndexed(documentEntity.getId())).isTrue();
+        assertThat(versionQueryCount.get()).isEqualTo(1);
+        assertThat(conversionCount.get()).isEqualTo(1);
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(1); //$NON-NLS-1$
+
+        index.invalidate();
+        assertThat(index.getElementsById()).containsValue("first"); //$NON-NLS-1$
+        assertThat(versionQueryCount.get()).isEqualTo(2);
+        assertThat(conversionCount.get()).isEqualTo(1);
+        assertThat(this.count(meterRegistry, "hit")).isEqualTo(1); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testIndexRebuiltWhenVersionChanges() {
+        DocumentEntity documentEntity = this.createDocumentEntity("first"); //$NON-NLS-1$
+        AtomicInteger versionQueryCount = new AtomicInteger();
+        AtomicInteger conversionCount = new AtomicInteger();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConvertedDocumentIndex<String> index = this.createIndex(documentEntity, versionQueryCount, conversionCount, meterRegistry);
+        assertThat(index.getElementsById()).containsOnlyKeys(this.getId("first")); //$NON-NLS-1$
+
+        documentEntity.setContentHash("second"); //$NON-NLS-1$
+        assertThat(index.getElementsById()).containsOnlyKeys(this.getId("first")); //$NON-NLS-1$
+
+        index.invalidate();
+        assertThat(index.getElementsById()).containsOnlyKeys(this.getId("second")); //$NON-NLS-1$
+        assertThat(conversionCount.get()).isEqualTo(2);
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(2); //$NON-NLS-1$
+    }
+
+    private ConvertedDocumentIndex<String> createIndex(DocumentEntity documentEntity, AtomicInteger versionQueryCount, AtomicInteger conversionCount, MeterRegistry meterRegistry) {
+        IDocumentRepository documentRepository = new NoOpDocumentRepository() {
+            @Override
+            public List<IDocumentVersion> findAllVersionsByType(String name, String uri) {
+                versionQueryCount.incrementAndGet();
+                return List.of(new IDocumentVersion() {
+                    @Override
+                    public String getId() {
+                        return documentEntity.getId().toString();
+                    }
+
+                    @Override
+                    public String getContentHash() {
+                        return documentEntity.getContentHash();
+                    }
+                });
+            }
+
+            @Override
+            public Iterable<DocumentEntity> findAllById(Iterable<UUID> ids) {
+                return List.of(documentEntity);
+            }
+        };
+
+        return new ConvertedDocumentIndex<>(documentRepository, "view", "http://www.eclipse.org/sirius-web/view", entity -> { //$NON-NLS-1$ //$NON-NLS-2$
+            conversionCount.incrementAndGet();
+            return List.of(entity.getContentHash());
+        }, this::getId, Long.MAX_VALUE, CACHE_COUNTER_NAME, meterRegistry);
+    }
+
+    private DocumentEntity createDocumentEntity(String contentHash) {
+        DocumentEntity documentEntity = new DocumentEntity();
+        documentEntity.setId(UUID.randomUUID());
+        documentEntity.setName("View"); //$NON-NLS-1$
+        documentEntity.setContentHash(contentHash);
+        return documentEntity;
+    }
+
+    private UUID getId(String element) {
+        return UUID.nameUUIDFromBytes(element.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private double count(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get(CACHE_COUNTER_NAME).tag("result", result).counter().count(); //$NON-NLS-1$
+    }
+}
@@ -18,6 +18,9 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.persistence.entities.DocumentEntity;
+import org.eclipse.sirius.web.persistence.projections.IDocumentContentSizes;
+import org.eclipse.sirius.web.persistence.projections.IDocumentMetadata;
+import org.eclipse.sirius.web.persistence.projections.IDocumentVersion;
 import org.eclipse.sirius.web.persistence.repositories.IDocumentRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -97,6 +100,11 @@ public class NoOpDocumentRepository implements IDocumentRepository {
         return new ArrayList<>();
     }
 
+    @Override
+    public List<IDocumentMetadata> findAllMetadataByProjectId(UUID projectId) {
+        return new ArrayList<>();
+    }
+
     @Override
     public Optional<DocumentEntity> findByProjectIdAndId(UUID projectId, UUID documentId) {
         return Optional.empty();
@@ -111,4 +119,14 @@ public class NoOpDocumentRepository implements IDocumentRepository {
         return entity;
     }
 
+    @Override
+    public List<IDocumentVersion> findAllVersionsByType(String name, String uri) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public IDocumentContentSizes sampleContentSizes(double percentage) {
+        return null;
+    }
+
 }
@@ -18,6 +18,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.persistence.projections.IRepresentationMetadata;
+import org.eclipse.sirius.web.persistence.projections.ITargetObjectLocation;
 import org.eclipse.sirius.web.persistence.repositories.IRepresentationRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -102,16 +104,46 @@ public class NoOpRepresentationRepository implements IRepresentationRepository {
         return new ArrayList<>();
     }
 
+    @Override
+    public Optional<IRepresentationMetadata> findMetadataById(UUID id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<IRepresentationMetadata> findAllMetadataByTargetObjectId(String objectId) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<IRepresentationMetadata> findAllMetadataByProjectId(UUID projectId) {
+        return new ArrayList<>();
+    }
+
     @Override
     public boolean hasRepresentations(String objectId) {
         return false;
     }
 
+    @Override
+    public List<String> findAllTargetObjectIdsByProjectId(UUID projectId) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<ITargetObjectLocation> findAllTargetObjectLocationsByProjectId(UUID projectId) {
+        return new ArrayList<>();
+    }
+
     @Override
     public <S extends RepresentationEntity> S save(S representationEntity) {
         return representationEntity;
     }
 
+    @Override
+    public int upsert(UUID id, UUID projectId, String targetObjectId, String label, String kind, String descriptionId, String contentType, String format, String content, byte[] binaryContent) {
+        return 0;
+    }
+
     @Override
     public void deleteById(UUID id) {
     }
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests of the cache of the representations.
+ *
+ * @author sbegaudeau
+ */
+public class RepresentationCacheTests {
+
+    private static final String CACHE_COUNTER_NAME = "siriusweb_representations_cache"; //$NON-NLS-1$
+
+    @Test
+    public void testPutAndGet() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RepresentationCache representationCache = new RepresentationCache(meterRegistry, 1024, 30);
+
+        UUID projectId = UUID.randomUUID();
+        IRepresentation representation = this.createRepresentation(UUID.randomUUID());
+        assertThat(representationCache.get(projectId, representation.getId())).isEmpty();
+
+        representationCache.put(projectId, representation, 16);
+        assertThat(representationCache.get(projectId, representation.getId())).containsSame(representation);
+        assertThat(representationCache.get(UUID.randomUUID(), representation.getId())).isEmpty();
+
+        representationCache.evict(representation.getId());
+        assertThat(representationCache.get(projectId, representation.getId())).isEmpty();
+
+        assertThat(this.count(meterRegistry, "hit")).isEqualTo(1); //$NON-NLS-1$
+        assertThat(this.count(meterRegistry, "miss")).isEqualTo(3); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsTheWrittenRepresentation() {
+        RepresentationCache representationCache = new RepresentationCache(new SimpleMeterRegistry(), 1024, 30);
+
+        UUID projectId = UUID.randomUUID();
+        UUID representationId = UUID.randomUUID();
+        IRepresentation writtenRepresentation = this.createRepresentation(representationId);
+        IRepresentation readRepresentation = this.createRepresentation(representationId);
+
+        representationCache.put(projectId, writtenRepresentation, 16);
+        assertThat(representationCache.putIfAbsent(projectId, readRepresentation, 16)).isSameAs(writtenRepresentation);
+        assertThat(representationCache.get(projectId, representationId)).containsSame(writtenRepresentation);
+
+        representationCache.evict(representationId);
+        assertThat(representationCache.putIfAbsent(projectId, readRepresentation, 16)).isSameAs(readRepresentation);
+        assertThat(representationCache.get(projectId, representationId)).containsSame(readRepresentation);
+    }
+
+    @Test
+    public void testWeightBound() {
+        RepresentationCache representationCache = new RepresentationCache(new SimpleMeterRegistry(), 1024, 30);
+
+        UUID projectId = UUID.randomUUID();
+        IRepresentation largeRepresentation = this.createRepresentation(UUID.randomUUID());
+        representationCache.put(projectId, largeRepresentation, 4096);
+        assertThat(representationCache.get(projectId, largeRepresentation.getId())).isEmpty();
+
+        IRepresentation smallRepresentation = this.createRepresentation(UUID.randomUUID());
+        representationCache.put(projectId, smallRepresentation, 1);
+        assertThat(representationCache.get(projectId, smallRepresentation.getId())).containsSame(smallRepresentation);
+    }
+
+    @Test
+    public void testEvictAllRepresentationsOfAProject() {
+        RepresentationCache representationCache = new RepresentationCache(new SimpleMeterRegistry(), 1024, 30);
+
+        UUID projectId = UUID.randomUUID();
+        IRepresentation representation = this.createRepresentation(UUID.randomUUID());
+        representationCache.put(projectId, representation, 1);
+
+        UUID otherProjectId = UUID.randomUUID();
+        IRepresentation otherRepresentation = this.createRepresentation(UUID.randomUUID());
+        representationCache.put(otherProjectId, otherRepresentation, 1);
+
+        representationCache.evictAll(projectId);
+        assertThat(representationCache.get(projectId, representation.getId())).isEmpty();
+        assertThat(representationCache.get(otherProjectId, otherRepresentation.getId())).containsSame(otherRepresentation);
+    }
+
+    /**
+     * Creates a representation which only provides its id, the cache does not use anything else.
+     */
+    private IRepresentation createRepresentation(UUID id) {
+        Object representation = Proxy.newProxyInstance(IRepresentation.class.getClassLoader(), new Class<?>[] { IRepresentation.class }, (proxy, method, args) -> {
+            Object result = null;
+            if ("getId".equals(method.getName())) { //$NON-NLS-1$
+                result = id;
+            } else if ("hashCode".equals(method.getName())) { //$NON-NLS-1$
+                result = id.hashCode();
+            } else if ("equals".equals(method.getName())) { //$NON-NLS-1$
+                result = proxy == args[0];
+            } else if ("toString".equals(method.getName())) { //$NON-NLS-1$
+                result = id.toString();
+            }
+            return result;
+        });
+        return (IRepresentation) representation;
+    }
+
+    private double count(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get(CACHE_COUNTER_NAME).tag("result", result).counter().count(); //$NON-NLS-1$
+    }
+}
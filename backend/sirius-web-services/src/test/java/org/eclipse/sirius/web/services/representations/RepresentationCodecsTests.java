@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.eclipse.sirius.web.representations.IRepresentation;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the codecs of the representations.
+ *
+ * @author sbegaudeau
+ */
+public class RepresentationCodecsTests {
+
+    private static final String SMILE_HEADER = ":)\n"; //$NON-NLS-1$
+
+    private final ObjectMapper objectMapper = this.createObjectMapper();
+
+    @Test
+    public void testJsonRoundTrip() throws IOException {
+        ObjectNode representationNode = this.createRepresentationNode();
+        RepresentationEntity representationEntity = new RepresentationEntity();
+
+        IRepresentationCodec codec = new JsonRepresentationCodec(this.objectMapper);
+        codec.encode(this.createRepresentation(representationNode), representationEntity);
+        assertThat(representationEntity.getContent()).isEqualTo(representationNode.toString());
+        assertThat(representationEntity.getBinaryContent()).isNull();
+
+        assertThat(this.getRepresentationNode(codec.decode(representationEntity))).isEqualTo(representationNode);
+    }
+
+    @Test
+    public void testSmileRoundTrip() throws IOException {
+        ObjectNode representationNode = this.createRepresentationNode();
+        RepresentationEntity representationEntity = new RepresentationEntity();
+
+        IRepresentationCodec codec = new SmileRepresentationCodec(this.objectMapper, false);
+        assertThat(codec.getFormat()).isEqualTo(SmileRepresentationCodec.FORMAT);
+        codec.encode(this.createRepresentation(representationNode), representationEntity);
+        assertThat(representationEntity.getContent()).isNull();
+        assertThat(new String(representationEntity.getBinaryContent(), 0, SMILE_HEADER.length(), StandardCharsets.US_ASCII)).isEqualTo(SMILE_HEADER);
+
+        assertThat(this.getRepresentationNode(codec.decode(representationEntity))).isEqualTo(representationNode);
+    }
+
+    @Test
+    public void testCompressedSmileRoundTrip() throws IOException {
+        ObjectNode representationNode = this.createRepresentationNode();
+
+        RepresentationEntity uncompressedRepresentationEntity = new RepresentationEntity();
+        new SmileRepresentationCodec(this.objectMapper, false).encode(this.createRepresentation(representationNode), uncompressedRepresentationEntity);
+
+        RepresentationEntity representationEntity = new RepresentationEntity();
+        IRepresentationCodec codec = new SmileRepresentationCodec(this.objectMapper, true);
+        assertThat(codec.getFormat()).isEqualTo(SmileRepresentationCodec.COMPRESSED_FORMAT);
+        codec.encode(this.createRepresentation(representationNode), representationEntity);
+        assertThat(representationEntity.getContent()).isNull();
+        assertThat(representationEntity.getBinaryContent()).hasSizeLessThan(uncompressedRepresentationEntity.getBinaryContent().length);
+
+        assertThat(this.getRepresentationNode(codec.decode(representationEntity))).isEqualTo(representationNode);
+    }
+
+    @Test
+    public void testEncoderSelectedFromTheFormat() {
+        assertThat(new RepresentationCodecs(this.objectMapper, JsonRepresentationCodec.FORMAT).getEncoder().getFormat()).isEqualTo(JsonRepresentationCodec.FORMAT);
+        assertThat(new RepresentationCodecs(this.objectMapper, SmileRepresentationCodec.FORMAT).getEncoder().getFormat()).isEqualTo(SmileRepresentationCodec.FORMAT);
+        assertThat(new RepresentationCodecs(this.objectMapper, SmileRepresentationCodec.COMPRESSED_FORMAT).getEncoder().getFormat()).isEqualTo(SmileRepresentationCodec.COMPRESSED_FORMAT);
+        assertThat(new RepresentationCodecs(this.objectMapper, "unknown").getEncoder().getFormat()).isEqualTo(JsonRepresentationCodec.FORMAT); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testJsonRepresentationsDecodedAfterSwitchingToSmile() throws IOException {
+        ObjectNode representationNode = this.createRepresentationNode();
+
+        IRepresentationCodec jsonEncoder = new RepresentationCodecs(this.objectMapper, JsonRepresentationCodec.FORMAT).getEncoder();
+        RepresentationEntity representationEntity = new RepresentationEntity();
+        jsonEncoder.encode(this.createRepresentation(representationNode), representationEntity);
+        representationEntity.setFormat(jsonEncoder.getFormat());
+
+        RepresentationEntity legacyRepresentationEntity = new RepresentationEntity();
+        legacyRepresentationEntity.setContent(representationEntity.getContent());
+
+        RepresentationCodecs representationCodecs = new RepresentationCodecs(this.objectMapper, SmileRepresentationCodec.COMPRESSED_FORMAT);
+        for (RepresentationEntity entity : new RepresentationEntity[] { representationEntity, legacyRepresentationEntity }) {
+            IRepresentationCodec decoder = representationCodecs.getDecoder(entity).orElseThrow();
+            assertThat(decoder.getFormat()).isEqualTo(JsonRepresentationCodec.FORMAT);
+            assertThat(this.getRepresentationNode(decoder.decode(entity))).isEqualTo(representationNode);
+        }
+
+        RepresentationEntity unsupportedRepresentationEntity = new RepresentationEntity();
+        unsupportedRepresentationEntity.setFormat("unknown"); //$NON-NLS-1$
+        assertThat(representationCodecs.getDecoder(unsupportedRepresentationEntity)).isEmpty();
+    }
+
+    /**
+     * Creates the JSON object backing a representation, with enough repeated content to be compressed.
+     */
+    private ObjectNode createRepresentationNode() {
+        ObjectNode representationNode = this.objectMapper.createObjectNode();
+        representationNode.put("id", UUID.randomUUID().toString()); //$NON-NLS-1$
+        representationNode.put("label", "Representation"); //$NON-NLS-1$ //$NON-NLS-2$
+        ArrayNode nodes = representationNode.putArray("nodes"); //$NON-NLS-1$
+        for (int i = 0; i < 100; i++) {
+            ObjectNode node = nodes.addObject();
+            node.put("id", UUID.randomUUID().toString()); //$NON-NLS-1$
+            node.put("type", "node:rectangle"); //$NON-NLS-1$ //$NON-NLS-2$
+            node.put("width", 150.0); //$NON-NLS-1$
+            node.put("height", 70.0); //$NON-NLS-1$
+        }
+        return representationNode;
+    }
+
+    /**
+     * Creates an object mapper which reads and writes the representations as the JSON objects backing them, the concrete
+     * representations are not needed by the codecs.
+     */
+    private ObjectMapper createObjectMapper() {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(IRepresentation.class, new JsonSerializer<IRepresentation>() {
+            @Override
+            public void serialize(IRepresentation representation, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+                // The generators created by the codecs have no codec, the tree is thus written by itself
+                RepresentationCodecsTests.this.getRepresentationNode(representation).serialize(generator, serializers);
+            }
+        });
+        module.addDeserializer(IRepresentation.class, new JsonDeserializer<IRepresentation>() {
+            @Override
+            public IRepresentation deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return RepresentationCodecsTests.this.createRepresentation((ObjectNode) context.readTree(parser));
+            }
+        });
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(module);
+        mapper.addMixIn(IRepresentation.class, UntypedRepresentationMixIn.class);
+        return mapper;
+    }
+
+    private IRepresentation createRepresentation(ObjectNode representationNode) {
+        Object representation = Proxy.newProxyInstance(IRepresentation.class.getClassLoader(), new Class<?>[] { IRepresentation.class },
+                new RepresentationInvocationHandler(representationNode));
+        return (IRepresentation) representation;
+    }
+
+    private ObjectNode getRepresentationNode(IRepresentation representation) {
+        return ((RepresentationInvocationHandler) Proxy.getInvocationHandler(representation)).getRepresentationNode();
+    }
+
+    /**
+     * Removes the type information which may be required to read and write the representations.
+     *
+     * @author sbegaudeau
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NONE)
+    private abstract static class UntypedRepresentationMixIn {
+    }
+
+    /**
+     * Answers the id of a representation with the JSON object backing it.
+     *
+     * @author sbegaudeau
+     */
+    private static final class RepresentationInvocationHandler implements InvocationHandler {
+        private final ObjectNode representationNode;
+
+        RepresentationInvocationHandler(ObjectNode representationNode) {
+            this.representationNode = representationNode;
+        }
+
+        public ObjectNode getRepresentationNode() {
+            return this.representationNode;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Object result = null;
+            String name = method.getName();
+            if ("hashCode".equals(name)) { //$NON-NLS-1$
+                result = System.identityHashCode(proxy);
+            } else if ("equals".equals(name)) { //$NON-NLS-1$
+                result = proxy == args[0];
+            } else if ("toString".equals(name)) { //$NON-NLS-1$
+                result = this.representationNode.toString();
+            } else if ("getId".equals(name)) { //$NON-NLS-1$
+                result = UUID.fromString(this.representationNode.get("id").asText()); //$NON-NLS-1$
+            }
+            return result;
+        }
+    }
+}
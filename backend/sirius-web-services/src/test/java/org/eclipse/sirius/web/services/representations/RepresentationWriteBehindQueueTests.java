@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Obeo.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.sirius.web.services.representations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sirius.web.persistence.entities.RepresentationEntity;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the queue used to coalesce the saves of the representations.
+ *
+ * @author sbegaudeau
+ */
+public class RepresentationWriteBehindQueueTests {
+
+    @Test
+    public void testRepresentationsWrittenImmediatelyWhenDisabled() {
+        RepresentationWriteBehindQueue writeBehindQueue = new RepresentationWriteBehindQueue(false, 250, 1, 3);
+
+        List<RepresentationEntity> writtenRepresentations = new ArrayList<>();
+        RepresentationEntity representationEntity = this.createRepresentationEntity();
+        writeBehindQueue.submit(representationEntity, pendingWrite -> writtenRepresentations.add(pendingWrite.getRepresentationEntity()), id -> {
+        });
+        assertThat(writtenRepresentations).containsExactly(representationEntity);
+
+        List<UUID> failedRepresentationIds = new ArrayList<>();
+        assertThatThrownBy(() -> writeBehindQueue.submit(representationEntity, pendingWrite -> {
+            throw new IllegalStateException();
+        }, failedRepresentationIds::add)).isInstanceOf(IllegalStateException.class);
+        assertThat(failedRepresentationIds).isEmpty();
+    }
+
+    @Test
+    public void testFailedWritesRetriedBeforeNotifyingTheFailureHandler() {
+        RepresentationWriteBehindQueue writeBehindQueue = new RepresentationWriteBehindQueue(true, 60000, 1, 1);
+
+        AtomicInteger attemptCount = new AtomicInteger();
+        List<UUID> failedRepresentationIds = new ArrayList<>();
+        RepresentationEntity representationEntity = this.createRepresentationEntity();
+        writeBehindQueue.submit(representationEntity, pendingWrite -> {
+            attemptCount.incrementAndGet();
+            throw new IllegalStateException();
+        }, failedRepresentationIds::add);
+
+        writeBehindQueue.flush(representationEntity.getId());
+        assertThat(attemptCount.get()).isEqualTo(1);
+        assertThat(failedRepresentationIds).isEmpty();
+
+        writeBehindQueue.flush(representationEntity.getId());
+        assertThat(attemptCount.get()).isEqualTo(2);
+        assertThat(failedRepresentationIds).containsExactly(representationEntity.getId());
+
+        writeBehindQueue.flushAll();
+        assertThat(attemptCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailedWriteNotRetriedWhenANewerStateIsPending() {
+        RepresentationWriteBehindQueue writeBehindQueue = new RepresentationWriteBehindQueue(true, 60000, 1, 1);
+
+        List<RepresentationEntity> writtenRepresentations = new ArrayList<>();
+        RepresentationEntity failingRepresentationEntity = this.createRepresentationEntity();
+        writeBehindQueue.submit(failingRepresentationEntity, pendingWrite -> {
+            // A newer state is submitted while the failing write is performed
+            RepresentationEntity newerRepresentationEntity = new RepresentationEntity();
+            newerRepresentationEntity.setId(failingRepresentationEntity.getId());
+            writeBehindQueue.submit(newerRepresentationEntity, newerPendingWrite -> writtenRepresentations.add(newerPendingWrite.getRepresentationEntity()), id -> {
+            });
+            throw new IllegalStateException();
+        }, id -> {
+        });
+
+        writeBehindQueue.flush(failingRepresentationEntity.getId());
+        writeBehindQueue.flushAll();
+        assertThat(writtenRepresentations).hasSize(1).noneMatch(failingRepresentationEntity::equals);
+    }
+
+    private RepresentationEntity createRepresentationEntity() {
+        RepresentationEntity representationEntity = new RepresentationEntity();
+        representationEntity.setId(UUID.randomUUID());
+        return representationEntity;
+    }
+}
@@ -12,12 +12,13 @@
  *******************************************************************************/
 package org.eclipse.sirius.web.spring.controllers;
 
-import java.io.ByteArrayInputStream;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.document.DocumentBytes;
 import org.eclipse.sirius.web.services.api.document.IDocumentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
@@ -54,7 +56,8 @@ import org.springframework.web.bind.annotation.ResponseBody;
  * </pre>
  *
  * <p>
- * Only documents of type xmi are supported.
+ * Only documents of type xmi are supported. The responses contain an ETag computed from the content of the document, a
+ * request with a matching If-None-Match header will thus receive a response without any content.
  * </p>
  *
  * @author smonnier
@@ -73,7 +76,8 @@ public class DocumentController {
 
     @GetMapping(path = "/{documentId}")
     @ResponseBody
-    public ResponseEntity<Resource> getDocument(@PathVariable String editingContextId, @PathVariable String documentId) {
+    public ResponseEntity<Resource> getDocument(@PathVariable String editingContextId, @PathVariable String documentId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         var optionalEditingContextId = this.convertToUUID(editingContextId);
         var optionalDocumentId = this.convertToUUID(documentId);
         Optional<Document> optionalDocument = optionalEditingContextId.flatMap(pId -> {
@@ -82,9 +86,16 @@ public class DocumentController {
 
         if (optionalDocument.isPresent()) {
             Document document = optionalDocument.get();
-            Optional<byte[]> optionalBytes = this.documentService.getBytes(document, IDocumentService.RESOURCE_KIND_XMI);
+            String eTag = "\"" + this.documentService.getVersion(document, IDocumentService.RESOURCE_KIND_XMI) + "\""; //$NON-NLS-1$ //$NON-NLS-2$
+            if (this.matches(ifNoneMatch, eTag)) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setETag(eTag);
+                return new ResponseEntity<>(null, headers, HttpStatus.NOT_MODIFIED);
+            }
+
+            Optional<DocumentBytes> optionalBytes = this.documentService.getBytes(document, IDocumentService.RESOURCE_KIND_XMI);
             if (optionalBytes.isPresent()) {
-                byte[] bytes = optionalBytes.get();
+                DocumentBytes bytes = optionalBytes.get();
 
                 // @formatter:off
                 ContentDisposition contentDisposition = ContentDisposition.builder("attachment")  //$NON-NLS-1$
@@ -95,14 +106,37 @@ public class DocumentController {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentDisposition(contentDisposition);
                 headers.setContentType(MediaType.APPLICATION_XML);
-                headers.setContentLength(bytes.length);
-                InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(bytes));
+                headers.setContentLength(bytes.getLength());
+                headers.setETag(eTag);
+                InputStreamResource resource = new InputStreamResource(bytes.getInputStream());
                 return new ResponseEntity<>(resource, headers, HttpStatus.OK);
             }
         }
         return new ResponseEntity<>(null, new HttpHeaders(), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Indicates if the given If-None-Match header matches the given ETag. Weak ETags are compared with the weak
+     * comparison, as expected for this header.
+     *
+     * @param ifNoneMatch
+     *            The value of the If-None-Match header, may be <code>null</code>
+     * @param eTag
+     *            The current ETag of the document
+     * @return <code>true</code> if the client already has the current version of the document
+     */
+    private boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        // @formatter:off
+        return Arrays.stream(ifNoneMatch.split(",")) //$NON-NLS-1$
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate) //$NON-NLS-1$
+                .anyMatch(candidate -> "*".equals(candidate) || eTag.equals(candidate)); //$NON-NLS-1$
+        // @formatter:on
+    }
+
     private Optional<UUID> convertToUUID(String id) {
         Optional<UUID> optionalId = Optional.empty();
         try {
@@ -19,6 +19,7 @@ import java.util.UUID;
 
 import org.eclipse.sirius.web.services.api.accounts.Profile;
 import org.eclipse.sirius.web.services.api.document.Document;
+import org.eclipse.sirius.web.services.api.document.DocumentBytes;
 import org.eclipse.sirius.web.services.api.document.IDocumentService;
 import org.eclipse.sirius.web.services.api.projects.Project;
 import org.eclipse.sirius.web.services.api.projects.Visibility;
@@ -36,6 +37,10 @@ import org.springframework.http.ResponseEntity;
  */
 public class DocumentControllerTests {
 
+    private static final String VERSION = "version"; //$NON-NLS-1$
+
+    private static final String ETAG = "\"" + VERSION + "\""; //$NON-NLS-1$ //$NON-NLS-2$
+
     @Test
     public void testDocumentDoesNotExist() {
         IDocumentService noOpDocumentService = new IDocumentService.NoOp();
@@ -43,7 +48,7 @@ public class DocumentControllerTests {
 
         UUID projectId = UUID.randomUUID();
         UUID documentId = UUID.randomUUID();
-        ResponseEntity<Resource> responseEntity = documentController.getDocument(projectId.toString(), documentId.toString());
+        ResponseEntity<Resource> responseEntity = documentController.getDocument(projectId.toString(), documentId.toString(), null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
@@ -51,27 +56,48 @@ public class DocumentControllerTests {
     public void testDocumentExist() {
         String name = "Document"; //$NON-NLS-1$
 
-        IDocumentService documentService = new IDocumentService.NoOp() {
-            @Override
-            public Optional<Document> getDocument(UUID projectId, UUID documentId) {
-                return Optional.of(new Document(documentId, new Project(projectId, "", new Profile(UUID.randomUUID(), "username"), Visibility.PUBLIC), name, null)); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-
-            @Override
-            public Optional<byte[]> getBytes(Document document, String resourceKind) {
-                return Optional.of(new byte[] {});
-            }
-        };
-        DocumentController documentController = new DocumentController(documentService);
+        DocumentController documentController = new DocumentController(this.getDocumentService(name));
 
         UUID projectId = UUID.randomUUID();
         UUID documentId = UUID.randomUUID();
-        ResponseEntity<Resource> responseEntity = documentController.getDocument(projectId.toString(), documentId.toString());
+        ResponseEntity<Resource> responseEntity = documentController.getDocument(projectId.toString(), documentId.toString(), null);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
 
         HttpHeaders headers = responseEntity.getHeaders();
         assertThat(headers.getContentType()).isEqualTo(MediaType.APPLICATION_XML);
         assertThat(headers.getContentLength()).isZero();
         assertThat(headers.getContentDisposition().getFilename()).isEqualTo(name);
+        assertThat(headers.getETag()).isEqualTo(ETAG);
+    }
+
+    @Test
+    public void testDocumentNotModified() {
+        DocumentController documentController = new DocumentController(this.getDocumentService("Document")); //$NON-NLS-1$
+
+        UUID projectId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        ResponseEntity<Resource> responseEntity = documentController.getDocument(projectId.toString(), documentId.toString(), "\"other\", " + ETAG); //$NON-NLS-1$
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responseEntity.getBody()).isNull();
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo(ETAG);
+    }
+
+    private IDocumentService getDocumentService(String name) {
+        return new IDocumentService.NoOp() {
+            @Override
+            public Optional<Document> getDocument(UUID projectId, UUID documentId) {
+                return Optional.of(new Document(documentId, new Project(projectId, "", new Profile(UUID.randomUUID(), "username"), Visibility.PUBLIC), name, null)); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            @Override
+            public String getVersion(Document document, String resourceKind) {
+                return VERSION;
+            }
+
+            @Override
+            public Optional<DocumentBytes> getBytes(Document document, String resourceKind) {
+                return Optional.of(new DocumentBytes(new byte[] {}, 0));
+            }
+        };
     }
 }
@@ -23,11 +23,11 @@ import org.eclipse.sirius.web.services.api.projects.IProjectService;
 import org.eclipse.sirius.web.services.api.projects.Project;
 import org.eclipse.sirius.web.services.api.projects.Visibility;
 import org.junit.jupiter.api.Test;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Tests of the project controller.
@@ -43,7 +43,7 @@ public class ProjectControllerTests {
 
         ProjectController projectController = new ProjectController(projectService, projectExportService);
         String projectId = "631fcb2d-3463-4084-b5da-fd8022ebae53"; //$NON-NLS-1$
-        ResponseEntity<Resource> responseEntity = projectController.getProject(UUID.fromString(projectId));
+        ResponseEntity<StreamingResponseBody> responseEntity = projectController.getProject(UUID.fromString(projectId));
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
@@ -60,13 +60,14 @@ public class ProjectControllerTests {
         IProjectExportService projectExportService = new IProjectExportService.NoOp();
 
         ProjectController projectController = new ProjectController(projectService, projectExportService);
-        ResponseEntity<Resource> responseEntity = projectController.getProject(UUID.fromString(projectFoundId));
+        ResponseEntity<StreamingResponseBody> responseEntity = projectController.getProject(UUID.fromString(projectFoundId));
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
 
         HttpHeaders headers = responseEntity.getHeaders();
         assertThat(headers.getContentType()).isEqualTo(MediaType.parseMediaType("application/zip")); //$NON-NLS-1$
-        assertThat(headers.getContentLength()).isEqualTo(0);
+        assertThat(headers.getContentLength()).isEqualTo(-1);
         assertThat(headers.getContentDisposition().getFilename()).isEqualTo(projectFoundId + ".zip"); //$NON-NLS-1$
+        assertThat(responseEntity.getBody()).isNotNull();
     }
 
 }